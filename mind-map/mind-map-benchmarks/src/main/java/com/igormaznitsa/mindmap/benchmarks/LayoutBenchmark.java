@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.benchmarks;
+
+import com.igormaznitsa.mindmap.generator.GeneratorOptions;
+import com.igormaznitsa.mindmap.generator.MindMapGenerator;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanel;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
+import java.awt.Graphics2D;
+import java.awt.geom.Dimension2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for measure and layout passes of mind map elements. Time per
+ * topic must stay about the same for all map sizes and for both balanced and
+ * chain-like maps, growing time per topic means non-linear layout. Relayout
+ * after text edit must be much faster than full measure and layout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx6g", "-Xss256m", "-Djava.awt.headless=true"})
+public class LayoutBenchmark {
+
+  @Benchmark
+  public Dimension2D measureAndLayout(final LayoutState state) {
+    MindMapPanel.calculateElementSizes(state.gfx, state.map, state.config);
+    return MindMapPanel.layoutModelElements(state.map, state.config);
+  }
+
+  @Benchmark
+  public Dimension2D layoutOnly(final LayoutState state) {
+    return MindMapPanel.layoutModelElements(state.map, state.config);
+  }
+
+  @Benchmark
+  public Dimension2D relayoutAfterTextEdit(final LayoutState state) {
+    state.editedTopic.setText((state.edits++ & 1) == 0 ? "Edited topic text" : "Edited topic text with some more words");
+    if (!MindMapPanel.updateElementSizesForTopics(state.gfx, state.map, state.config, Collections.singletonList(state.editedTopic))) {
+      throw new Error("Unexpected full layout request");
+    }
+    return MindMapPanel.layoutModelElements(state.map, state.config);
+  }
+
+  @State(Scope.Thread)
+  public static class LayoutState {
+
+    @Param({"1000", "5000", "20000"})
+    public int topics;
+
+    /**
+     * Shape of generated map, 'balanced' is a map with default fan-out and
+     * 'chain' is a map where every topic has only one child, so that depth of map
+     * is equal to number of topics.
+     */
+    @Param({"balanced", "chain"})
+    public String shape;
+
+    MindMap map;
+    MindMapPanelConfig config;
+    MMGraphics gfx;
+    Topic editedTopic;
+    int edits;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      final GeneratorOptions options = new GeneratorOptions().setTopics(this.topics);
+      if ("chain".equals(this.shape)) {
+        options.setDepth(this.topics).setMinFanOut(1).setMaxFanOut(1);
+      }
+      this.map = new MindMapGenerator(options).generate();
+      this.config = new MindMapPanelConfig();
+
+      final Graphics2D g = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB).createGraphics();
+      this.config.getRenderQuality().prepare(g);
+      this.gfx = new MMGraphics2DWrapper(g);
+
+      MindMapPanel.calculateElementSizes(this.gfx, this.map, this.config);
+
+      // edited topic is in the middle of the path made by first children
+      final List<Topic> path = new ArrayList<>();
+      Topic current = this.map.getRoot();
+      while (current != null) {
+        path.add(current);
+        current = current.getFirst();
+      }
+      this.editedTopic = path.get(path.size() / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      this.gfx.dispose();
+    }
+  }
+}
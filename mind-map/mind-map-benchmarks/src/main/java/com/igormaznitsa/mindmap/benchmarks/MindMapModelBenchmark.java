@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.benchmarks;
+
+import com.igormaznitsa.mindmap.generator.GeneratorOptions;
+import com.igormaznitsa.mindmap.generator.MindMapGenerator;
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for parsing, saving, search, cloning and mutation of mind map
+ * model.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx6g"})
+public class MindMapModelBenchmark {
+
+  private static final Set<Extra.ExtraType> EXTRAS_FOR_SEARCH = EnumSet.of(Extra.ExtraType.NOTE, Extra.ExtraType.LINK);
+
+  @Benchmark
+  public MindMap parse(final MapState state) throws IOException {
+    return new MindMap(new StringReader(state.packedMap));
+  }
+
+  @Benchmark
+  public String packToString(final MapState state) {
+    return state.map.packToString();
+  }
+
+  @Benchmark
+  public Topic findNextRegex(final MapState state) {
+    return state.map.findNext(null, null, state.regexPattern, true, EXTRAS_FOR_SEARCH);
+  }
+
+  @Benchmark
+  public Topic findNextLiteral(final MapState state) {
+    return state.map.findNext(null, null, state.literalPattern, true, EXTRAS_FOR_SEARCH);
+  }
+
+  @Benchmark
+  public MindMap cloneMap(final MapState state) {
+    return new MindMap(state.map);
+  }
+
+  @Benchmark
+  public List<Topic> findAllTopicsForExtraType(final MapState state) {
+    return state.map.findAllTopicsForExtraType(Extra.ExtraType.TOPIC);
+  }
+
+  /**
+   * Removal changes the map so that every call needs a fresh copy of the map.
+   * Copy is made in iteration setup and each iteration measures single call,
+   * so that neither the copy nor per invocation setup are included into timing.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 5)
+  @Measurement(iterations = 30)
+  public boolean removeTopic(final MutableMapState state) {
+    return state.map.removeTopic(state.topicToRemove);
+  }
+
+  @State(Scope.Benchmark)
+  public static class MapState {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int topics;
+
+    MindMap map;
+    String packedMap;
+    Pattern regexPattern;
+    Pattern literalPattern;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      this.map = new MindMapGenerator(new GeneratorOptions().setTopics(this.topics)).generate();
+      this.packedMap = this.map.packToString();
+      // patterns are not presented in generated text so that whole map is scanned
+      this.regexPattern = Pattern.compile("omega\\s+\\d+x", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+      this.literalPattern = Pattern.compile(Pattern.quote("omega 42"), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class MutableMapState {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int topics;
+
+    MindMap source;
+    MindMap map;
+    Topic topicToRemove;
+
+    @Setup(Level.Trial)
+    public void setupSource() {
+      this.source = new MindMapGenerator(new GeneratorOptions().setTopics(this.topics)).generate();
+    }
+
+    @Setup(Level.Iteration)
+    public void setupCopy() {
+      this.map = new MindMap(this.source);
+      final List<Topic> plain = this.map.makePlainList();
+      // the last topic in depth-first order makes the removal walk the whole tree
+      this.topicToRemove = plain.get(plain.size() - 1);
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.generator;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Properties;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Command line interface of the generator.
+ * <pre>java -jar mind-map-generator.jar [--config FILE] [--OPTION VALUE...] [--out FILE]</pre>
+ * If output file is not provided then generated map is written into standard
+ * output.
+ */
+public final class GeneratorMain {
+
+  private GeneratorMain() {
+  }
+
+  public static void main(@Nonnull @MustNotContainNull final String... args) {
+    try {
+      System.exit(execute(args, System.out, System.err));
+    } catch (IOException ex) {
+      ex.printStackTrace(System.err);
+      System.exit(2);
+    }
+  }
+
+  /**
+   * Process command line arguments and generate map.
+   *
+   * @param args arguments, must not be null
+   * @param out  stream for generated map if output file is not defined
+   * @param err  stream for error messages and help
+   * @return exit code, 0 if successful
+   * @throws IOException if any transport error
+   */
+  public static int execute(@Nonnull @MustNotContainNull final String[] args, @Nonnull final PrintStream out, @Nonnull final PrintStream err) throws IOException {
+    final Properties properties = new Properties();
+    File outFile = null;
+
+    for (int i = 0; i < args.length; i++) {
+      final String arg = args[i];
+      if ("--help".equals(arg)) { //NOI18N
+        printHelp(err);
+        return 0;
+      }
+      if (!arg.startsWith("--") || i + 1 >= args.length) { //NOI18N
+        err.println("Unexpected argument : " + arg); //NOI18N
+        printHelp(err);
+        return 1;
+      }
+      final String name = arg.substring(2);
+      final String value = args[++i];
+      if ("out".equals(name)) { //NOI18N
+        outFile = new File(value);
+      } else if ("config".equals(name)) { //NOI18N
+        final InputStream in = new FileInputStream(value);
+        try {
+          properties.load(in);
+        } finally {
+          IOUtils.closeQuietly(in);
+        }
+      } else {
+        properties.setProperty(name, value);
+      }
+    }
+
+    final MindMapGenerator generator;
+    try {
+      generator = new MindMapGenerator(GeneratorOptions.fromProperties(properties));
+    } catch (IllegalArgumentException ex) {
+      err.println(ex.getMessage());
+      return 1;
+    }
+
+    if (outFile == null) {
+      final Writer writer = new OutputStreamWriter(out, "UTF-8"); //NOI18N
+      generator.generate().write(writer);
+      writer.flush();
+    } else {
+      generator.generateToFile(outFile);
+    }
+    return 0;
+  }
+
+  private static void printHelp(@Nonnull final PrintStream out) {
+    out.println("Generator of synthetic mind maps"); //NOI18N
+    out.println("Usage: java -jar mind-map-generator.jar [--config FILE] [--OPTION VALUE...] [--out FILE]"); //NOI18N
+    out.println("   --config FILE - Java property file with options"); //NOI18N
+    out.println("   --out FILE - file to write generated map, standard output if not defined"); //NOI18N
+    out.println("Options with default values:"); //NOI18N
+    final Properties defaults = new GeneratorOptions().toProperties();
+    for (final String name : new TreeSet<String>(defaults.stringPropertyNames())) {
+      out.println("   --" + name + ' ' + defaults.getProperty(name)); //NOI18N
+    }
+  }
+}
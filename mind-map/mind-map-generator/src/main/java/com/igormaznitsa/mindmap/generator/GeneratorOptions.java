@@ -0,0 +1,290 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.generator;
+
+import java.util.Locale;
+import java.util.Properties;
+import javax.annotation.Nonnull;
+
+/**
+ * Options of synthetic mind map generation. Probabilities are defined in
+ * percents for each generated topic.
+ */
+public final class GeneratorOptions {
+
+  public static final String OPTION_SEED = "seed"; //NOI18N
+  public static final String OPTION_TOPICS = "topics"; //NOI18N
+  public static final String OPTION_DEPTH = "depth"; //NOI18N
+  public static final String OPTION_MIN_FAN_OUT = "minFanOut"; //NOI18N
+  public static final String OPTION_MAX_FAN_OUT = "maxFanOut"; //NOI18N
+  public static final String OPTION_COLOR_PERCENT = "colorPercent"; //NOI18N
+  public static final String OPTION_NOTE_PERCENT = "notePercent"; //NOI18N
+  public static final String OPTION_NOTE_SIZE = "noteSize"; //NOI18N
+  public static final String OPTION_CODE_SNIPPET_PERCENT = "codeSnippetPercent"; //NOI18N
+  public static final String OPTION_IMAGE_PERCENT = "imagePercent"; //NOI18N
+  public static final String OPTION_FILE_LINK_PERCENT = "fileLinkPercent"; //NOI18N
+  public static final String OPTION_JUMP_PERCENT = "jumpPercent"; //NOI18N
+
+  private long seed = 0x4D4D44L;
+  private int topics = 1000;
+  private int depth = 12;
+  private int minFanOut = 2;
+  private int maxFanOut = 8;
+  private int colorPercent = 20;
+  private int notePercent = 10;
+  private int noteSize = 256;
+  private int codeSnippetPercent = 2;
+  private int imagePercent = 1;
+  private int fileLinkPercent = 5;
+  private int jumpPercent = 3;
+
+  public GeneratorOptions() {
+  }
+
+  public GeneratorOptions(@Nonnull final GeneratorOptions options) {
+    this.seed = options.seed;
+    this.topics = options.topics;
+    this.depth = options.depth;
+    this.minFanOut = options.minFanOut;
+    this.maxFanOut = options.maxFanOut;
+    this.colorPercent = options.colorPercent;
+    this.notePercent = options.notePercent;
+    this.noteSize = options.noteSize;
+    this.codeSnippetPercent = options.codeSnippetPercent;
+    this.imagePercent = options.imagePercent;
+    this.fileLinkPercent = options.fileLinkPercent;
+    this.jumpPercent = options.jumpPercent;
+  }
+
+  /**
+   * Make options from properties, missing properties keep default values.
+   *
+   * @param properties properties with options, must not be null
+   * @return created options
+   * @throws IllegalArgumentException if unknown option or wrong value found
+   */
+  @Nonnull
+  public static GeneratorOptions fromProperties(@Nonnull final Properties properties) {
+    final GeneratorOptions result = new GeneratorOptions();
+    for (final String name : properties.stringPropertyNames()) {
+      result.set(name, properties.getProperty(name));
+    }
+    return result;
+  }
+
+  @Nonnull
+  public Properties toProperties() {
+    final Properties result = new Properties();
+    result.setProperty(OPTION_SEED, Long.toString(this.seed));
+    result.setProperty(OPTION_TOPICS, Integer.toString(this.topics));
+    result.setProperty(OPTION_DEPTH, Integer.toString(this.depth));
+    result.setProperty(OPTION_MIN_FAN_OUT, Integer.toString(this.minFanOut));
+    result.setProperty(OPTION_MAX_FAN_OUT, Integer.toString(this.maxFanOut));
+    result.setProperty(OPTION_COLOR_PERCENT, Integer.toString(this.colorPercent));
+    result.setProperty(OPTION_NOTE_PERCENT, Integer.toString(this.notePercent));
+    result.setProperty(OPTION_NOTE_SIZE, Integer.toString(this.noteSize));
+    result.setProperty(OPTION_CODE_SNIPPET_PERCENT, Integer.toString(this.codeSnippetPercent));
+    result.setProperty(OPTION_IMAGE_PERCENT, Integer.toString(this.imagePercent));
+    result.setProperty(OPTION_FILE_LINK_PERCENT, Integer.toString(this.fileLinkPercent));
+    result.setProperty(OPTION_JUMP_PERCENT, Integer.toString(this.jumpPercent));
+    return result;
+  }
+
+  /**
+   * Set option for its name.
+   *
+   * @param name  name of option, must not be null
+   * @param value text value of option, must not be null
+   * @return the options instance
+   * @throws IllegalArgumentException if unknown option or wrong value
+   */
+  @Nonnull
+  public GeneratorOptions set(@Nonnull final String name, @Nonnull final String value) {
+    try {
+      if (OPTION_SEED.equals(name)) {
+        return setSeed(Long.parseLong(value.trim()));
+      }
+      final int intValue = Integer.parseInt(value.trim());
+      if (OPTION_TOPICS.equals(name)) {
+        return setTopics(intValue);
+      } else if (OPTION_DEPTH.equals(name)) {
+        return setDepth(intValue);
+      } else if (OPTION_MIN_FAN_OUT.equals(name)) {
+        return setMinFanOut(intValue);
+      } else if (OPTION_MAX_FAN_OUT.equals(name)) {
+        return setMaxFanOut(intValue);
+      } else if (OPTION_COLOR_PERCENT.equals(name)) {
+        return setColorPercent(intValue);
+      } else if (OPTION_NOTE_PERCENT.equals(name)) {
+        return setNotePercent(intValue);
+      } else if (OPTION_NOTE_SIZE.equals(name)) {
+        return setNoteSize(intValue);
+      } else if (OPTION_CODE_SNIPPET_PERCENT.equals(name)) {
+        return setCodeSnippetPercent(intValue);
+      } else if (OPTION_IMAGE_PERCENT.equals(name)) {
+        return setImagePercent(intValue);
+      } else if (OPTION_FILE_LINK_PERCENT.equals(name)) {
+        return setFileLinkPercent(intValue);
+      } else if (OPTION_JUMP_PERCENT.equals(name)) {
+        return setJumpPercent(intValue);
+      } else {
+        throw new IllegalArgumentException("Unknown generator option : " + name); //NOI18N
+      }
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException(String.format(Locale.ENGLISH, "Wrong value of option '%s' : %s", name, value), ex); //NOI18N
+    }
+  }
+
+  public long getSeed() {
+    return this.seed;
+  }
+
+  @Nonnull
+  public GeneratorOptions setSeed(final long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  public int getTopics() {
+    return this.topics;
+  }
+
+  @Nonnull
+  public GeneratorOptions setTopics(final int topics) {
+    this.topics = assertPositive(OPTION_TOPICS, topics);
+    return this;
+  }
+
+  public int getDepth() {
+    return this.depth;
+  }
+
+  @Nonnull
+  public GeneratorOptions setDepth(final int depth) {
+    this.depth = assertPositive(OPTION_DEPTH, depth);
+    return this;
+  }
+
+  public int getMinFanOut() {
+    return this.minFanOut;
+  }
+
+  @Nonnull
+  public GeneratorOptions setMinFanOut(final int minFanOut) {
+    this.minFanOut = assertPositive(OPTION_MIN_FAN_OUT, minFanOut);
+    return this;
+  }
+
+  public int getMaxFanOut() {
+    return this.maxFanOut;
+  }
+
+  @Nonnull
+  public GeneratorOptions setMaxFanOut(final int maxFanOut) {
+    this.maxFanOut = assertPositive(OPTION_MAX_FAN_OUT, maxFanOut);
+    return this;
+  }
+
+  public int getColorPercent() {
+    return this.colorPercent;
+  }
+
+  @Nonnull
+  public GeneratorOptions setColorPercent(final int percent) {
+    this.colorPercent = assertPercent(OPTION_COLOR_PERCENT, percent);
+    return this;
+  }
+
+  public int getNotePercent() {
+    return this.notePercent;
+  }
+
+  @Nonnull
+  public GeneratorOptions setNotePercent(final int percent) {
+    this.notePercent = assertPercent(OPTION_NOTE_PERCENT, percent);
+    return this;
+  }
+
+  public int getNoteSize() {
+    return this.noteSize;
+  }
+
+  @Nonnull
+  public GeneratorOptions setNoteSize(final int noteSize) {
+    this.noteSize = assertPositive(OPTION_NOTE_SIZE, noteSize);
+    return this;
+  }
+
+  public int getCodeSnippetPercent() {
+    return this.codeSnippetPercent;
+  }
+
+  @Nonnull
+  public GeneratorOptions setCodeSnippetPercent(final int percent) {
+    this.codeSnippetPercent = assertPercent(OPTION_CODE_SNIPPET_PERCENT, percent);
+    return this;
+  }
+
+  public int getImagePercent() {
+    return this.imagePercent;
+  }
+
+  @Nonnull
+  public GeneratorOptions setImagePercent(final int percent) {
+    this.imagePercent = assertPercent(OPTION_IMAGE_PERCENT, percent);
+    return this;
+  }
+
+  public int getFileLinkPercent() {
+    return this.fileLinkPercent;
+  }
+
+  @Nonnull
+  public GeneratorOptions setFileLinkPercent(final int percent) {
+    this.fileLinkPercent = assertPercent(OPTION_FILE_LINK_PERCENT, percent);
+    return this;
+  }
+
+  public int getJumpPercent() {
+    return this.jumpPercent;
+  }
+
+  @Nonnull
+  public GeneratorOptions setJumpPercent(final int percent) {
+    this.jumpPercent = assertPercent(OPTION_JUMP_PERCENT, percent);
+    return this;
+  }
+
+  private static int assertPositive(@Nonnull final String name, final int value) {
+    if (value <= 0) {
+      throw new IllegalArgumentException("Option '" + name + "' must be positive : " + value); //NOI18N
+    }
+    return value;
+  }
+
+  private static int assertPercent(@Nonnull final String name, final int value) {
+    if (value < 0 || value > 100) {
+      throw new IllegalArgumentException("Option '" + name + "' must be in 0..100 : " + value); //NOI18N
+    }
+    return value;
+  }
+
+  @Override
+  @Nonnull
+  public String toString() {
+    return "GeneratorOptions" + toProperties(); //NOI18N
+  }
+}
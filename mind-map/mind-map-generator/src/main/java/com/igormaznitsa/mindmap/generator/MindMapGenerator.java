@@ -0,0 +1,230 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.generator;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mindmap.model.ExtraFile;
+import com.igormaznitsa.mindmap.model.ExtraNote;
+import com.igormaznitsa.mindmap.model.ExtraTopic;
+import com.igormaznitsa.mindmap.model.MMapURI;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import javax.annotation.Nonnull;
+import javax.imageio.ImageIO;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Deterministic generator of synthetic mind maps. The same options (including
+ * seed) always produce the same mind map, so that performance problems found
+ * on generated maps can be reproduced exactly.
+ */
+public final class MindMapGenerator {
+
+  public static final String ATTR_FILL_COLOR = "fillColor"; //NOI18N
+  public static final String ATTR_TEXT_COLOR = "textColor"; //NOI18N
+  public static final String ATTR_IMAGE = "mmd.image"; //NOI18N
+
+  private static final String[] WORDS = {"alpha", "beta", "gamma", "delta", "epsilon", "module", "service", "request", "cache", "layout", "render", "topic", "release", "backlog", "design", "review", "customer", "budget", "risk", "milestone"}; //NOI18N
+  private static final String[] COLORS = {"#FF0000", "#00AA00", "#3333FF", "#FFCC00", "#CC99FF", "#99FFFF", "#333333"}; //NOI18N
+  private static final String[] FILE_EXTENSIONS = {"txt", "java", "md", "png", "mmd", "xml"}; //NOI18N
+  private static final int IMAGE_VARIANTS = 8;
+  private static final char[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray(); //NOI18N
+
+  private final GeneratorOptions options;
+
+  public MindMapGenerator(@Nonnull final GeneratorOptions options) {
+    if (options.getMinFanOut() > options.getMaxFanOut()) {
+      throw new IllegalArgumentException("Min fan-out must not be greater than max fan-out"); //NOI18N
+    }
+    this.options = new GeneratorOptions(options);
+  }
+
+  @Nonnull
+  public GeneratorOptions getOptions() {
+    return new GeneratorOptions(this.options);
+  }
+
+  /**
+   * Generate mind map. Topics are generated level by level, each topic gets
+   * random number of children in fan-out range while the number of topics and
+   * depth are not exhausted.
+   *
+   * @return generated mind map
+   */
+  @Nonnull
+  public MindMap generate() {
+    final Random rnd = new Random(this.options.getSeed());
+    final String[] images = makeImages(rnd);
+
+    final MindMap result = new MindMap(true);
+    final Topic root = result.getRoot();
+    root.setText("Generated map " + this.options.getSeed()); //NOI18N
+
+    final List<Topic> all = new ArrayList<Topic>(Math.min(this.options.getTopics(), 1 << 20));
+    all.add(root);
+
+    final Deque<Topic> parents = new ArrayDeque<Topic>();
+    parents.add(root);
+
+    final int fanOutRange = this.options.getMaxFanOut() - this.options.getMinFanOut() + 1;
+
+    while (all.size() < this.options.getTopics() && !parents.isEmpty()) {
+      final Topic parent = parents.removeFirst();
+      if (parent.getTopicLevel() + 1 >= this.options.getDepth()) {
+        continue;
+      }
+      final int children = this.options.getMinFanOut() + rnd.nextInt(fanOutRange);
+      for (int i = 0; i < children && all.size() < this.options.getTopics(); i++) {
+        final Topic topic = parent.makeChild(makeText(rnd, all.size()), null);
+        decorate(rnd, topic, all, images);
+        all.add(topic);
+        parents.addLast(topic);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Generate mind map and write it into file in UTF-8.
+   *
+   * @param file target file, must not be null
+   * @return generated mind map
+   * @throws IOException if any transport error
+   */
+  @Nonnull
+  public MindMap generateToFile(@Nonnull final File file) throws IOException {
+    final MindMap map = generate();
+    final Writer writer = new OutputStreamWriter(FileUtils.openOutputStream(file), "UTF-8"); //NOI18N
+    try {
+      map.write(writer);
+    } finally {
+      IOUtils.closeQuietly(writer);
+    }
+    return map;
+  }
+
+  @Nonnull
+  private static String makeText(@Nonnull final Random rnd, final int index) {
+    final StringBuilder buffer = new StringBuilder();
+    final int words = 1 + rnd.nextInt(4);
+    for (int i = 0; i < words; i++) {
+      buffer.append(WORDS[rnd.nextInt(WORDS.length)]).append(' ');
+    }
+    return buffer.append(index).toString();
+  }
+
+  @Nonnull
+  private static String makeLongText(@Nonnull final Random rnd, final int averageSize) {
+    final int size = averageSize / 2 + rnd.nextInt(averageSize + 1);
+    final StringBuilder buffer = new StringBuilder(size + 16);
+    int line = 0;
+    while (buffer.length() < size) {
+      buffer.append(makeText(rnd, line++)).append('\n');
+    }
+    return buffer.toString();
+  }
+
+  private static boolean chance(@Nonnull final Random rnd, final int percent) {
+    return percent > 0 && rnd.nextInt(100) < percent;
+  }
+
+  private void decorate(@Nonnull final Random rnd, @Nonnull final Topic topic, @Nonnull @MustNotContainNull final List<Topic> existing, @Nonnull @MustNotContainNull final String[] images) {
+    if (chance(rnd, this.options.getColorPercent())) {
+      topic.setAttribute(ATTR_FILL_COLOR, COLORS[rnd.nextInt(COLORS.length)]);
+      topic.setAttribute(ATTR_TEXT_COLOR, COLORS[rnd.nextInt(COLORS.length)]);
+    }
+    if (chance(rnd, this.options.getNotePercent())) {
+      topic.setExtra(new ExtraNote(makeLongText(rnd, this.options.getNoteSize())));
+    }
+    if (chance(rnd, this.options.getCodeSnippetPercent())) {
+      topic.setCodeSnippet(rnd.nextBoolean() ? "sh" : "bat", "echo " + makeText(rnd, existing.size())); //NOI18N
+    }
+    if (chance(rnd, this.options.getImagePercent())) {
+      topic.setAttribute(ATTR_IMAGE, images[rnd.nextInt(images.length)]);
+    }
+    if (chance(rnd, this.options.getFileLinkPercent())) {
+      final String path = "src/" + WORDS[rnd.nextInt(WORDS.length)] + '/' + existing.size() + '.' + FILE_EXTENSIONS[rnd.nextInt(FILE_EXTENSIONS.length)]; //NOI18N
+      try {
+        topic.setExtra(new ExtraFile(new MMapURI(path)));
+      } catch (URISyntaxException ex) {
+        throw new Error("Unexpected URI error", ex); //NOI18N
+      }
+    }
+    if (chance(rnd, this.options.getJumpPercent())) {
+      final int targetIndex = rnd.nextInt(existing.size());
+      final String uid = "J" + targetIndex; //NOI18N
+      existing.get(targetIndex).setAttribute(ExtraTopic.TOPIC_UID_ATTR, uid);
+      topic.setExtra(new ExtraTopic(uid));
+    }
+  }
+
+  @Nonnull
+  @MustNotContainNull
+  private static String[] makeImages(@Nonnull final Random rnd) {
+    final String[] result = new String[IMAGE_VARIANTS];
+    for (int i = 0; i < result.length; i++) {
+      final int size = 16 + rnd.nextInt(3) * 16;
+      final BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+      final Graphics2D gfx = image.createGraphics();
+      try {
+        gfx.setColor(new Color(rnd.nextInt(0x1000000)));
+        gfx.fillRect(0, 0, size, size);
+        gfx.setColor(new Color(rnd.nextInt(0x1000000)));
+        gfx.fillOval(size / 4, size / 4, size / 2, size / 2);
+      } finally {
+        gfx.dispose();
+      }
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      try {
+        ImageIO.write(image, "png", buffer); //NOI18N
+      } catch (IOException ex) {
+        throw new Error("Can't make PNG image", ex); //NOI18N
+      }
+      result[i] = toBase64(buffer.toByteArray());
+    }
+    return result;
+  }
+
+  @Nonnull
+  private static String toBase64(@Nonnull final byte[] data) {
+    final StringBuilder result = new StringBuilder((data.length + 2) / 3 * 4);
+    for (int i = 0; i < data.length; i += 3) {
+      final int b0 = data[i] & 0xFF;
+      final int b1 = i + 1 < data.length ? data[i + 1] & 0xFF : 0;
+      final int b2 = i + 2 < data.length ? data[i + 2] & 0xFF : 0;
+      result.append(BASE64[b0 >>> 2]);
+      result.append(BASE64[((b0 & 0x03) << 4) | (b1 >>> 4)]);
+      result.append(i + 1 < data.length ? BASE64[((b1 & 0x0F) << 2) | (b2 >>> 6)] : '=');
+      result.append(i + 2 < data.length ? BASE64[b2 & 0x3F] : '=');
+    }
+    return result.toString();
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.ExtraTopic;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Test;
+
+public class MindMapGeneratorTest {
+
+  private static int maxDepth(final Topic topic) {
+    int result = 0;
+    for (final Topic c : topic.getChildren()) {
+      result = Math.max(result, maxDepth(c));
+    }
+    return result + 1;
+  }
+
+  @Test
+  public void testSameSeedMakesSameMap() {
+    final GeneratorOptions options = new GeneratorOptions().setTopics(3000).setSeed(12345L).setImagePercent(5).setCodeSnippetPercent(5);
+    assertEquals(new MindMapGenerator(options).generate().packToString(), new MindMapGenerator(options).generate().packToString());
+    assertFalse(new MindMapGenerator(options).generate().packToString().equals(new MindMapGenerator(new GeneratorOptions(options).setSeed(54321L)).generate().packToString()));
+  }
+
+  @Test
+  public void testTopicNumberAndDepth() {
+    final MindMap map = new MindMapGenerator(new GeneratorOptions().setTopics(5000).setDepth(4).setMinFanOut(3).setMaxFanOut(3)).generate();
+    assertEquals(1 + 3 + 9 + 27, map.makePlainList().size());
+    assertEquals(4, maxDepth(map.getRoot()));
+
+    final MindMap big = new MindMapGenerator(new GeneratorOptions().setTopics(5000)).generate();
+    assertEquals(5000, big.makePlainList().size());
+  }
+
+  @Test
+  public void testGeneratedMapCanBeParsed() throws Exception {
+    final MindMap map = new MindMapGenerator(new GeneratorOptions().setTopics(2000).setJumpPercent(10).setNotePercent(30)).generate();
+    final MindMap parsed = new MindMap(new StringReader(map.packToString()));
+    assertEquals(map.packToString(), parsed.packToString());
+
+    final List<Topic> jumps = parsed.findAllTopicsForExtraType(Extra.ExtraType.TOPIC);
+    assertFalse(jumps.isEmpty());
+    for (final Topic t : jumps) {
+      assertTrue(parsed.findTopicForLink((ExtraTopic) t.getExtras().get(Extra.ExtraType.TOPIC)) != null);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownOption() {
+    final Properties properties = new Properties();
+    properties.setProperty("unknown", "1");
+    GeneratorOptions.fromProperties(properties);
+  }
+}
@@ -22,7 +22,6 @@ import java.util.Locale;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import org.apache.commons.io.FilenameUtils;
 
 public class ExtraFile extends Extra<MMapURI> implements ExtraLinkable {
 
@@ -40,7 +39,7 @@ public class ExtraFile extends Extra<MMapURI> implements ExtraLinkable {
   }
 
   public ExtraFile(@Nonnull final String text) throws URISyntaxException {
-    this(new MMapURI(text));
+    this(MMapURI.valueOf(text));
   }
 
   @Nonnull
@@ -53,7 +52,7 @@ public class ExtraFile extends Extra<MMapURI> implements ExtraLinkable {
 
   @Override
   public boolean containsPattern(@Nullable final File baseFolder, @Nonnull final Pattern pattern) {
-    final String filePathAsText = FilenameUtils.normalize(this.fileUri.asFile(baseFolder).getAbsolutePath());
+    final String filePathAsText = this.fileUri.asNormalizedAbsolutePath(baseFolder);
     return pattern.matcher(filePathAsText).find();
   }
 
@@ -127,13 +126,9 @@ public class ExtraFile extends Extra<MMapURI> implements ExtraLinkable {
 
   @Nullable
   public ExtraFile replaceParentPath(@Nullable final File baseFolder, @Nonnull final MMapURI oldFolder, @Nonnull final MMapURI newFolder) {
-    final File theFile = this.fileUri.asFile(baseFolder);
-    final File oldFolderFile = oldFolder.asFile(baseFolder);
-    final File newFolderFile = newFolder.asFile(baseFolder);
-
-    final String theFilePath = FilenameUtils.normalize(theFile.getAbsolutePath());
-    final String oldFolderFilePath = ensureFolderPath(FilenameUtils.normalize(oldFolderFile.getAbsolutePath()));
-    final String newFolderFilePath = ensureFolderPath(FilenameUtils.normalize(newFolderFile.getAbsolutePath()));
+    final String theFilePath = this.fileUri.asNormalizedAbsolutePath(baseFolder);
+    final String oldFolderFilePath = ensureFolderPath(oldFolder.asNormalizedAbsolutePath(baseFolder));
+    final String newFolderFilePath = ensureFolderPath(newFolder.asNormalizedAbsolutePath(baseFolder));
 
     if (theFilePath.startsWith(oldFolderFilePath)) {
       final String changedPath = newFolderFilePath + theFilePath.substring(oldFolderFilePath.length());
@@ -144,11 +139,8 @@ public class ExtraFile extends Extra<MMapURI> implements ExtraLinkable {
   }
 
   public boolean hasParent(@Nullable final File baseFolder, @Nonnull final MMapURI folder) {
-    final File theFile = this.fileUri.asFile(baseFolder);
-    final File thatFile = folder.asFile(baseFolder);
-
-    final String theFilePath = FilenameUtils.normalize(theFile.getAbsolutePath());
-    final String thatFilePath = ensureFolderPath(FilenameUtils.normalize(thatFile.getAbsolutePath()));
+    final String theFilePath = this.fileUri.asNormalizedAbsolutePath(baseFolder);
+    final String thatFilePath = ensureFolderPath(folder.asNormalizedAbsolutePath(baseFolder));
 
     if (!theFilePath.equals(thatFilePath) && theFilePath.startsWith(thatFilePath)) {
       final String diff = theFilePath.substring(thatFilePath.length() - 1);
@@ -159,11 +151,8 @@ public class ExtraFile extends Extra<MMapURI> implements ExtraLinkable {
   }
 
   public boolean isSameOrHasParent(@Nullable final File baseFolder, @Nonnull final MMapURI file) {
-    final File theFile = this.fileUri.asFile(baseFolder);
-    final File thatFile = file.asFile(baseFolder);
-
-    final String theFilePath = FilenameUtils.normalize(theFile.getAbsolutePath());
-    final String thatFilePath = FilenameUtils.normalize(thatFile.getAbsolutePath());
+    final String theFilePath = this.fileUri.asNormalizedAbsolutePath(baseFolder);
+    final String thatFilePath = file.asNormalizedAbsolutePath(baseFolder);
 
     if (theFilePath.startsWith(thatFilePath)) {
       final String diff = theFilePath.substring(thatFilePath.length());
@@ -174,11 +163,8 @@ public class ExtraFile extends Extra<MMapURI> implements ExtraLinkable {
   }
 
   public boolean isSame(@Nullable final File baseFolder, @Nonnull final MMapURI file) {
-    final File theFile = this.fileUri.asFile(baseFolder);
-    final File thatFile = file.asFile(baseFolder);
-
-    final String theFilePath = FilenameUtils.normalize(theFile.getAbsolutePath());
-    final String thatFilePath = FilenameUtils.normalize(thatFile.getAbsolutePath());
+    final String theFilePath = this.fileUri.asNormalizedAbsolutePath(baseFolder);
+    final String thatFilePath = file.asNormalizedAbsolutePath(baseFolder);
 
     return theFilePath.equals(thatFilePath);
   }
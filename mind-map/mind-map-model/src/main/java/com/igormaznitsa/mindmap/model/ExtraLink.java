@@ -31,7 +31,7 @@ public class ExtraLink extends Extra<MMapURI> implements ExtraLinkable {
   }
 
   public ExtraLink(@Nonnull final String text) throws URISyntaxException {
-    this.uri = new MMapURI(text);
+    this.uri = MMapURI.valueOf(text);
   }
 
   @Override
@@ -17,6 +17,7 @@
 package com.igormaznitsa.mindmap.model;
 
 import com.igormaznitsa.meta.common.utils.Assertions;
+import com.igormaznitsa.meta.common.utils.GetUtils;
 import com.igormaznitsa.mindmap.model.nio.Path;
 import com.igormaznitsa.mindmap.model.nio.Paths;
 import java.io.File;
@@ -27,10 +28,13 @@ import java.net.URISyntaxException;
 import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.apache.commons.io.FilenameUtils;
 
 public class MMapURI implements Serializable {
 
@@ -38,10 +42,23 @@ public class MMapURI implements Serializable {
 
   private static final Properties EMPTY = new Properties();
 
+  private static final int MAX_INTERNED_URIS = 4096;
+
+  private static final Map<String, MMapURI> INTERNED_URIS = new LinkedHashMap<String, MMapURI>(256, 0.75f, true) {
+    private static final long serialVersionUID = -2365897653215498723L;
+
+    @Override
+    protected boolean removeEldestEntry(@Nonnull final Map.Entry<String, MMapURI> eldest) {
+      return this.size() > MAX_INTERNED_URIS;
+    }
+  };
+
   private final URI uri;
   private final Properties parameters;
   private final boolean fileUriFlag;
 
+  private transient volatile FileResolution lastResolution;
+
   public MMapURI(@Nonnull final String uri) throws URISyntaxException {
     this(new URI(uri));
   }
@@ -100,6 +117,30 @@ public class MMapURI implements Serializable {
     }
   }
 
+  /**
+   * Get parsed URI for its string representation. Parsed instances are kept
+   * in bounded LRU cache so that the same link text is parsed only once.
+   *
+   * @param uri string representation of URI, must not be null
+   * @return parsed URI, can be shared between callers
+   * @throws URISyntaxException if the string can't be parsed
+   * @since 1.3.1
+   */
+  @Nonnull
+  public static MMapURI valueOf(@Nonnull final String uri) throws URISyntaxException {
+    MMapURI result;
+    synchronized (INTERNED_URIS) {
+      result = INTERNED_URIS.get(Assertions.assertNotNull(uri));
+    }
+    if (result == null) {
+      result = new MMapURI(uri);
+      synchronized (INTERNED_URIS) {
+        INTERNED_URIS.put(uri, result);
+      }
+    }
+    return result;
+  }
+
   @Nullable
   private static String extractHost(@Nonnull final URI uri) {
     String host = uri.getHost();
@@ -269,6 +310,34 @@ public class MMapURI implements Serializable {
 
   @Nonnull
   public File asFile(@Nullable final File base) {
+    return resolve(base).file;
+  }
+
+  /**
+   * Get normalized absolute path of the file for base folder.
+   *
+   * @param base base folder, can be null
+   * @return normalized absolute path of file
+   * @since 1.3.1
+   */
+  @Nonnull
+  public String asNormalizedAbsolutePath(@Nullable final File base) {
+    return resolve(base).getNormalizedAbsolutePath();
+  }
+
+  @Nonnull
+  private FileResolution resolve(@Nullable final File base) {
+    final FileResolution last = this.lastResolution;
+    if (last != null && last.isForBase(base)) {
+      return last;
+    }
+    final FileResolution result = new FileResolution(base, makeFile(base));
+    this.lastResolution = result;
+    return result;
+  }
+
+  @Nonnull
+  private File makeFile(@Nullable final File base) {
     final File result;
     if (this.uri.isAbsolute()) {
       result = ModelUtils.toFile(this.uri);
@@ -296,4 +365,31 @@ public class MMapURI implements Serializable {
   public String toString() {
     return asString(false, true);
   }
+
+  private static final class FileResolution {
+
+    private final File base;
+    private final File file;
+    private volatile String normalizedAbsolutePath;
+
+    private FileResolution(@Nullable final File base, @Nonnull final File file) {
+      this.base = base;
+      this.file = file;
+    }
+
+    private boolean isForBase(@Nullable final File base) {
+      return this.base == null ? base == null : this.base.equals(base);
+    }
+
+    @Nonnull
+    private String getNormalizedAbsolutePath() {
+      String result = this.normalizedAbsolutePath;
+      if (result == null) {
+        final String absolutePath = this.file.getAbsolutePath();
+        result = GetUtils.ensureNonNull(FilenameUtils.normalize(absolutePath), absolutePath);
+        this.normalizedAbsolutePath = result;
+      }
+      return result;
+    }
+  }
 }
@@ -29,6 +29,7 @@ import java.io.Serializable;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -348,11 +349,13 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
   public List<Topic> removeNonExistingTopics(@Nonnull @MustNotContainNull final List<Topic> origList) {
     final List<Topic> result = new ArrayList<Topic>();
     final Topic rootTopic = this.root;
-    if (rootTopic != null) {
+    if (rootTopic != null && !origList.isEmpty()) {
       this.locker.lock();
       try {
+        final Set<Topic> existing = new HashSet<Topic>();
+        collectTopics(rootTopic, existing);
         for (final Topic t : origList) {
-          if (rootTopic.containTopic(t)) {
+          if (existing.contains(t)) {
             result.add(t);
           }
         }
@@ -363,6 +366,13 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
     return result;
   }
 
+  private static void collectTopics(@Nonnull final Topic topic, @Nonnull @MustNotContainNull final Set<Topic> result) {
+    result.add(topic);
+    for (final Topic c : topic.getChildren()) {
+      collectTopics(c, result);
+    }
+  }
+
   @Nullable
   public Topic getRoot() {
     this.locker.lock();
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.model;
+
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Support of mind maps mounted into a topic of another mind map. A mount point
+ * is a topic which has the {@link #ATTR_MOUNTED_MAP} attribute and a file link
+ * to a MMD file. Content of the linked map is parsed only when it is mounted,
+ * mounted topics are marked by {@link Topic#isMounted()}, they are read-only
+ * and never written into the host map. Parsed maps are cached through soft
+ * references to avoid parsing of the same file for every mount, mounted
+ * content stays in the host map till it is removed by {@link #unmount(Topic)}.
+ *
+ * @since 1.3.1
+ */
+public final class MountedSubMap {
+
+  public static final String ATTR_MOUNTED_MAP = "mountedMap"; //NOI18N
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MountedSubMap.class);
+
+  private static final Map<File, CacheRecord> CACHE = new HashMap<File, CacheRecord>();
+
+  private MountedSubMap() {
+  }
+
+  /**
+   * Check that topic is a mount point for an external mind map.
+   *
+   * @param topic topic to be checked, must not be null
+   * @return true if the topic is marked as mount point and has link to MMD file
+   */
+  public static boolean isMountPoint(@Nonnull final Topic topic) {
+    if (Boolean.parseBoolean(topic.getAttribute(ATTR_MOUNTED_MAP))) {
+      final Extra<?> file = topic.getExtras().get(Extra.ExtraType.FILE);
+      return file instanceof ExtraFile && ((ExtraFile) file).isMMDFile();
+    }
+    return false;
+  }
+
+  /**
+   * Check that mount point has content of mounted map.
+   *
+   * @param topic topic to be checked, must not be null
+   * @return true if there is at least one mounted child topic
+   */
+  public static boolean isMountedContentPresented(@Nonnull final Topic topic) {
+    for (final Topic c : topic.getChildren()) {
+      if (c.isMounted()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Mount content of linked mind map into mount point. Children of the linked
+   * map root are copied as children of the mount point, topic link UIDs of
+   * copied topics are namespaced to avoid collision with UIDs of the host map.
+   * Relative file links of copied topics, including links of nested mount
+   * points, are made absolute against the folder of the linked map file
+   * because they can't be resolved against base folder of the host map. If the
+   * content is already mounted then nothing happens.
+   *
+   * @param mountPoint  mount point topic, must not be null
+   * @param baseFolder  base folder to resolve relative file links, can be null
+   * @return true if content has been mounted, false otherwise
+   * @throws IOException if the linked file can't be read or parsed
+   */
+  public static boolean mount(@Nonnull final Topic mountPoint, @Nullable final File baseFolder) throws IOException {
+    if (!isMountPoint(mountPoint) || isMountedContentPresented(mountPoint)) {
+      return false;
+    }
+
+    final ExtraFile link = (ExtraFile) mountPoint.getExtras().get(Extra.ExtraType.FILE);
+    final File file = link.getValue().asFile(baseFolder);
+    final MindMap subMap = loadMap(file);
+    final File sourceFolder = file.getAbsoluteFile().getParentFile();
+
+    final Topic subRoot = subMap.getRoot();
+    if (subRoot == null) {
+      return false;
+    }
+
+    final MindMap host = mountPoint.getMap();
+    final String namespace = '@' + Long.toHexString(mountPoint.getLocalUid()); //NOI18N
+    host.lock();
+    try {
+      boolean result = false;
+      for (final Topic t : subRoot.getChildren()) {
+        final Topic copy = new Topic(host, t, true);
+        copy.moveToNewParent(mountPoint);
+        prepareMounted(copy, namespace, sourceFolder);
+        result = true;
+      }
+      return result;
+    } finally {
+      host.unlock();
+    }
+  }
+
+  /**
+   * Remove mounted content from topic and all its descendants, so that nested
+   * mount points are unmounted too. Parsed linked map stays in cache till
+   * memory pressure.
+   *
+   * @param topic topic to be processed, must not be null
+   * @return true if any topic has been removed, false otherwise
+   */
+  public static boolean unmount(@Nonnull final Topic topic) {
+    final MindMap host = topic.getMap();
+    host.lock();
+    try {
+      boolean result = false;
+      for (final Topic c : topic.getChildren().toArray(new Topic[0])) {
+        if (c.isMounted()) {
+          c.delete();
+          result = true;
+        } else {
+          result |= unmount(c);
+        }
+      }
+      return result;
+    } finally {
+      host.unlock();
+    }
+  }
+
+  /**
+   * Make topic and its subtree regular topics of their map. It should be
+   * called for copies of mounted topics which must become editable and
+   * savable part of a map.
+   *
+   * @param topic topic to be processed, must not be null
+   */
+  public static void detach(@Nonnull final Topic topic) {
+    topic.setMounted(false);
+    for (final Topic c : topic.getChildren()) {
+      detach(c);
+    }
+  }
+
+  /**
+   * Drop all cached parsed maps.
+   */
+  public static void clearCache() {
+    synchronized (CACHE) {
+      CACHE.clear();
+    }
+  }
+
+  private static void prepareMounted(@Nonnull final Topic topic, @Nonnull final String namespace, @Nullable final File sourceFolder) {
+    topic.setMounted(true);
+
+    final Extra<?> file = topic.getExtras().get(Extra.ExtraType.FILE);
+    if (file != null && !((ExtraFile) file).isAbsolute()) {
+      final MMapURI uri = ((ExtraFile) file).getValue();
+      topic.setExtra(new ExtraFile(new MMapURI(null, uri.asFile(sourceFolder), uri.getParameters())));
+    }
+
+    final String uid = topic.getAttribute(ExtraTopic.TOPIC_UID_ATTR);
+    if (uid != null) {
+      topic.setAttribute(ExtraTopic.TOPIC_UID_ATTR, uid + namespace);
+    }
+
+    final Extra<?> jump = topic.getExtras().get(Extra.ExtraType.TOPIC);
+    if (jump != null) {
+      topic.setExtra(new ExtraTopic(((ExtraTopic) jump).getValue() + namespace));
+    }
+
+    for (final Topic c : topic.getChildren()) {
+      prepareMounted(c, namespace, sourceFolder);
+    }
+  }
+
+  @Nonnull
+  private static MindMap loadMap(@Nonnull final File file) throws IOException {
+    final long lastModified = file.lastModified();
+
+    synchronized (CACHE) {
+      final Iterator<Map.Entry<File, CacheRecord>> iterator = CACHE.entrySet().iterator();
+      while (iterator.hasNext()) {
+        if (iterator.next().getValue().map.get() == null) {
+          iterator.remove();
+        }
+      }
+
+      final CacheRecord record = CACHE.get(file);
+      if (record != null) {
+        // strong reference is taken before check so that the map can't be collected before use
+        final MindMap cached = record.map.get();
+        if (record.lastModified == lastModified && cached != null) {
+          return cached;
+        }
+        CACHE.remove(file);
+      }
+    }
+
+    LOGGER.info("Parsing mounted mind map : {}", file); //NOI18N
+    final Reader reader = new StringReader(FileUtils.readFileToString(file, "UTF-8")); //NOI18N
+    final MindMap result;
+    try {
+      result = new MindMap(reader);
+    } catch (IllegalArgumentException ex) {
+      throw new IOException("Can't parse mounted mind map : " + file, ex);
+    }
+
+    synchronized (CACHE) {
+      CACHE.put(file, new CacheRecord(result, lastModified));
+    }
+    return result;
+  }
+
+  private static final class CacheRecord {
+
+    private final SoftReference<MindMap> map;
+    private final long lastModified;
+
+    private CacheRecord(@Nonnull final MindMap map, final long lastModified) {
+      this.map = new SoftReference<MindMap>(map);
+      this.lastModified = lastModified;
+    }
+  }
+}
@@ -66,6 +66,9 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   private volatile String text;
   @Nullable
   private transient Object payload;
+  private transient volatile boolean mounted;
+  @Nullable
+  private transient volatile Object attributesCache;
 
   /**
    * Constructor to build topic on base of another topic for another mind map.
@@ -81,6 +84,8 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     this.attributes.putAll(base.attributes);
     this.extras.putAll(base.extras);
     this.codeSnippets.putAll(base.codeSnippets);
+    this.attributesCache = base.attributesCache;
+    this.mounted = base.mounted;
 
     if (copyChildren) {
       for (final Topic t : base.children) {
@@ -207,7 +212,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
                 if (groupPre != null) {
                   topic.setExtra(extraType.parseLoaded(groupPre));
                 } else {
-                  logger.error("Detected invalid extra data " + extraType);
+                  logger.error("Detected invalid extra data {}", extraType); //NOI18N
                 }
               } catch (Exception ex) {
                 logger.error("Unexpected exception #23241", ex); //NOI18N
@@ -307,6 +312,22 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     this.payload = value;
   }
 
+  /**
+   * Check that the topic is a part of mind map mounted into the topic tree.
+   * Such topics are read-only and not written into the host mind map.
+   *
+   * @return true if the topic belongs to mounted map, false otherwise
+   * @see MountedSubMap
+   * @since 1.3.1
+   */
+  public boolean isMounted() {
+    return this.mounted;
+  }
+
+  void setMounted(final boolean flag) {
+    this.mounted = flag;
+  }
+
   @Nonnull
   private Object readResolve() {
     return new Topic(this.map, this, true);
@@ -402,9 +423,33 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     return this.unmodifableCodeSnippets;
   }
 
+  /**
+   * Get object decoded from attributes of the topic and cached by
+   * {@link #setAttributesCache(Object)}. The cache is reset every time when
+   * attributes of the topic are changed.
+   *
+   * @return cached object or null if there is no cached value
+   * @since 1.4.8
+   */
+  @Nullable
+  public Object getAttributesCache() {
+    return this.attributesCache;
+  }
+
+  /**
+   * Cache object decoded from current attributes of the topic.
+   *
+   * @param value object to be cached, can be null
+   * @since 1.4.8
+   */
+  public void setAttributesCache(@Nullable final Object value) {
+    this.attributesCache = value;
+  }
+
   public boolean setAttribute(@Nonnull final String name, @Nullable final String value) {
     this.map.lock();
     try {
+      this.attributesCache = null;
       if (value == null) {
         return this.attributes.remove(name) != null;
       } else {
@@ -645,7 +690,9 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     }
 
     for (final Topic t : this.children) {
-      t.write(level + 1, out);
+      if (!t.mounted) {
+        t.write(level + 1, out);
+      }
     }
   }
 
@@ -884,7 +931,9 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
         c.makeCopy(newMindMap, result);
       }
       result.attributes.putAll(this.attributes);
+      result.attributesCache = this.attributesCache;
       result.codeSnippets.putAll(this.codeSnippets);
+      result.mounted = this.mounted;
 
       return result;
     } finally {
@@ -914,6 +963,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
 
     this.map.lock();
     try {
+      this.attributesCache = null;
       for (final String t : names) {
         result |= this.attributes.remove(t) != null;
       }
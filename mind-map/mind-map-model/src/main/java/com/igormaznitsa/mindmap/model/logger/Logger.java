@@ -16,6 +16,7 @@
 
 package com.igormaznitsa.mindmap.model.logger;
 
+import java.util.Arrays;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -27,11 +28,195 @@ public abstract class Logger {
   public Logger(@Nonnull final String name) {
   }
 
+  /**
+   * Make message from pattern where each '{}' is replaced by next argument.
+   *
+   * @param pattern pattern of message, can be null
+   * @param args    arguments to be placed into the pattern
+   * @return formatted message, null if pattern is null
+   * @since 1.3.1
+   */
+  @Nullable
+  public static String formatMessage(@Nullable final String pattern, @Nonnull final Object... args) {
+    if (pattern == null || args.length == 0) {
+      return pattern;
+    }
+    final StringBuilder result = new StringBuilder(pattern.length() + 16 * args.length);
+    int argIndex = 0;
+    int start = 0;
+    while (true) {
+      final int index = argIndex < args.length ? pattern.indexOf("{}", start) : -1; //NOI18N
+      if (index < 0) {
+        result.append(pattern, start, pattern.length());
+        break;
+      }
+      result.append(pattern, start, index).append(args[argIndex++]);
+      start = index + 2;
+    }
+    return result.toString();
+  }
+
+  /**
+   * Check that debug messages are processed by the logger.
+   *
+   * @return true if debug messages are enabled, false otherwise
+   * @since 1.3.1
+   */
+  public boolean isDebugEnabled() {
+    return false;
+  }
+
+  /**
+   * Check that info messages are processed by the logger.
+   *
+   * @return true if info messages are enabled, false otherwise
+   * @since 1.3.1
+   */
+  public boolean isInfoEnabled() {
+    return true;
+  }
+
+  /**
+   * Check that warning messages are processed by the logger.
+   *
+   * @return true if warning messages are enabled, false otherwise
+   * @since 1.3.1
+   */
+  public boolean isWarnEnabled() {
+    return true;
+  }
+
+  /**
+   * Check that error messages are processed by the logger.
+   *
+   * @return true if error messages are enabled, false otherwise
+   * @since 1.3.1
+   */
+  public boolean isErrorEnabled() {
+    return true;
+  }
+
+  /**
+   * Log debug message. By default debug messages are ignored.
+   *
+   * @param message message, can be null
+   * @since 1.3.1
+   */
+  public void debug(@Nullable final String message) {
+  }
+
+  public void debug(@Nullable final String pattern, @Nullable final Object arg) {
+    if (this.isDebugEnabled()) {
+      this.debug(formatMessage(pattern, arg));
+    }
+  }
+
+  public void debug(@Nullable final String pattern, @Nullable final Object arg1, @Nullable final Object arg2) {
+    if (this.isDebugEnabled()) {
+      this.debug(formatMessage(pattern, arg1, arg2));
+    }
+  }
+
+  /**
+   * Log debug message made from pattern, the message is formatted only if
+   * debug messages are enabled.
+   *
+   * @param pattern pattern of message, can be null
+   * @param args    arguments to be placed into the pattern
+   * @see #formatMessage(String, Object...)
+   * @since 1.3.1
+   */
+  public void debug(@Nullable final String pattern, @Nonnull final Object... args) {
+    if (this.isDebugEnabled()) {
+      this.debug(formatMessage(pattern, args));
+    }
+  }
+
   public abstract void info(@Nullable String message);
 
+  public void info(@Nullable final String pattern, @Nullable final Object arg) {
+    if (this.isInfoEnabled()) {
+      this.info(formatMessage(pattern, arg));
+    }
+  }
+
+  public void info(@Nullable final String pattern, @Nullable final Object arg1, @Nullable final Object arg2) {
+    if (this.isInfoEnabled()) {
+      this.info(formatMessage(pattern, arg1, arg2));
+    }
+  }
+
+  /**
+   * Log info message made from pattern, the message is formatted only if info
+   * messages are enabled.
+   *
+   * @param pattern pattern of message, can be null
+   * @param args    arguments to be placed into the pattern
+   * @see #formatMessage(String, Object...)
+   * @since 1.3.1
+   */
+  public void info(@Nullable final String pattern, @Nonnull final Object... args) {
+    if (this.isInfoEnabled()) {
+      this.info(formatMessage(pattern, args));
+    }
+  }
+
   public abstract void warn(@Nullable String message);
 
+  public void warn(@Nullable final String pattern, @Nullable final Object arg) {
+    if (this.isWarnEnabled()) {
+      this.warn(formatMessage(pattern, arg));
+    }
+  }
+
+  public void warn(@Nullable final String pattern, @Nullable final Object arg1, @Nullable final Object arg2) {
+    if (this.isWarnEnabled()) {
+      this.warn(formatMessage(pattern, arg1, arg2));
+    }
+  }
+
+  /**
+   * Log warning message made from pattern, the message is formatted only if
+   * warning messages are enabled.
+   *
+   * @param pattern pattern of message, can be null
+   * @param args    arguments to be placed into the pattern
+   * @see #formatMessage(String, Object...)
+   * @since 1.3.1
+   */
+  public void warn(@Nullable final String pattern, @Nonnull final Object... args) {
+    if (this.isWarnEnabled()) {
+      this.warn(formatMessage(pattern, args));
+    }
+  }
+
   public abstract void error(@Nullable String message);
 
+  public void error(@Nullable final String pattern, @Nullable final Object arg) {
+    if (this.isErrorEnabled()) {
+      this.error(formatMessage(pattern, arg));
+    }
+  }
+
+  /**
+   * Log error message made from pattern, the message is formatted only if
+   * error messages are enabled. If the last argument is a throwable then it is
+   * not placed into the pattern but logged as error cause.
+   *
+   * @param pattern pattern of message, can be null
+   * @param args    arguments to be placed into the pattern
+   * @see #formatMessage(String, Object...)
+   * @since 1.3.1
+   */
+  public void error(@Nullable final String pattern, @Nonnull final Object... args) {
+    if (this.isErrorEnabled()) {
+      if (args.length > 0 && args[args.length - 1] instanceof Throwable) {
+        this.error(formatMessage(pattern, Arrays.copyOf(args, args.length - 1)), (Throwable) args[args.length - 1]);
+      } else {
+        this.error(formatMessage(pattern, args));
+      }
+    }
+  }
+
   public abstract void error(@Nullable String message, @Nullable Throwable error);
 }
@@ -19,20 +19,41 @@ package com.igormaznitsa.mindmap.model.logger;
 import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
 
 
+import com.igormaznitsa.mindmap.model.logger.impl.AsyncLoggerServiceImpl;
 import com.igormaznitsa.mindmap.model.logger.impl.JavaLoggerServiceImpl;
 import java.util.Iterator;
 import java.util.ServiceLoader;
 import javax.annotation.Nonnull;
 
 public final class LoggerFactory {
+
+  /**
+   * System property to turn on asynchronous logging through ring buffer.
+   *
+   * @since 1.3.1
+   */
+  public static final String PROPERTY_ASYNC = "mmd.logger.async"; //NOI18N
+  /**
+   * System property to define capacity of ring buffer for asynchronous
+   * logging.
+   *
+   * @since 1.3.1
+   */
+  public static final String PROPERTY_ASYNC_CAPACITY = "mmd.logger.async.capacity"; //NOI18N
+
   private static final LoggerService LOGGER_SERVICE;
 
   static {
     final ServiceLoader<LoggerService> service = ServiceLoader.load(LoggerService.class, LoggerFactory.class.getClassLoader());
     service.reload();
     final Iterator<LoggerService> iterator = service.iterator();
-    LOGGER_SERVICE = iterator.hasNext() ? iterator.next() : new JavaLoggerServiceImpl();
-    LOGGER_SERVICE.getLogger(LoggerFactory.class).info("Detected MindMap Logger Service: " + LOGGER_SERVICE.getClass().getName());
+    final LoggerService detected = iterator.hasNext() ? iterator.next() : new JavaLoggerServiceImpl();
+    if (Boolean.getBoolean(PROPERTY_ASYNC)) {
+      LOGGER_SERVICE = new AsyncLoggerServiceImpl(detected, Integer.getInteger(PROPERTY_ASYNC_CAPACITY, AsyncLoggerServiceImpl.DEFAULT_CAPACITY));
+    } else {
+      LOGGER_SERVICE = detected;
+    }
+    LOGGER_SERVICE.getLogger(LoggerFactory.class).info("Detected MindMap Logger Service: {}", detected.getClass().getName());
   }
 
   @Nonnull
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.model.logger.impl;
+
+import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
+
+
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Logger service which passes records to wrapped service through bounded ring
+ * buffer processed by background daemon thread. Logging thread never waits,
+ * records which can't be placed into full buffer are dropped and counted.
+ * Records are passed to wrapped service in order of their placement, the rest
+ * of the buffer is flushed on JVM shutdown or by {@link #close()}.
+ *
+ * @since 1.3.1
+ */
+public class AsyncLoggerServiceImpl implements LoggerService {
+
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  private static final int LEVEL_DEBUG = 0;
+  private static final int LEVEL_INFO = 1;
+  private static final int LEVEL_WARN = 2;
+  private static final int LEVEL_ERROR = 3;
+
+  private static final long WORKER_STOP_TIMEOUT_MS = 1000L;
+
+  private final LoggerService delegate;
+  private final BlockingQueue<Record> buffer;
+  private final AtomicLong droppedRecords = new AtomicLong();
+  private final Object dispatchLock = new Object();
+  private final Thread worker;
+  private final Thread shutdownHook;
+  private volatile boolean closed;
+  private final Map<Class<?>, Logger> cacheForClasses = new HashMap<Class<?>, Logger>();
+  private final Map<String, Logger> cacheForNames = new HashMap<String, Logger>();
+
+  public AsyncLoggerServiceImpl(@Nonnull final LoggerService delegate, final int capacity) {
+    this.delegate = assertNotNull(delegate);
+    this.buffer = new ArrayBlockingQueue<Record>(Math.max(16, capacity));
+
+    this.worker = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        processRecords();
+      }
+    }, "mmd-async-logger"); //NOI18N
+    this.worker.setDaemon(true);
+    this.worker.start();
+
+    this.shutdownHook = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        stopAndFlush();
+      }
+    }, "mmd-async-logger-flush"); //NOI18N
+    Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+  }
+
+  /**
+   * Get number of records which have been lost because of full buffer or
+   * error during their processing by wrapped service.
+   *
+   * @return number of lost records
+   */
+  public long getDroppedRecords() {
+    return this.droppedRecords.get();
+  }
+
+  /**
+   * Stop background thread and pass all buffered records to wrapped service.
+   * Records logged after the call are passed to wrapped service directly from
+   * logging thread.
+   */
+  public void close() {
+    try {
+      Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+    } catch (IllegalStateException ex) {
+      // shutdown in progress, the hook will make the same
+    }
+    stopAndFlush();
+  }
+
+  @Override
+  @Nonnull
+  public Logger getLogger(@Nonnull final Class<?> klazz) {
+    synchronized (this.cacheForClasses) {
+      Logger result = this.cacheForClasses.get(assertNotNull(klazz));
+      if (result == null) {
+        result = new AsyncLogger(klazz, this.delegate.getLogger(klazz));
+        this.cacheForClasses.put(klazz, result);
+      }
+      return result;
+    }
+  }
+
+  @Override
+  @Nonnull
+  public Logger getLogger(@Nonnull final String name) {
+    synchronized (this.cacheForNames) {
+      Logger result = this.cacheForNames.get(assertNotNull(name));
+      if (result == null) {
+        result = new AsyncLogger(name, this.delegate.getLogger(name));
+        this.cacheForNames.put(name, result);
+      }
+      return result;
+    }
+  }
+
+  private void post(@Nonnull final Logger target, final int level, @Nullable final String message, @Nullable final Throwable error) {
+    if (!this.buffer.offer(new Record(target, level, message, error))) {
+      this.droppedRecords.incrementAndGet();
+    } else if (this.closed) {
+      drain();
+    }
+  }
+
+  private void processRecords() {
+    long reportedDropped = 0L;
+    while (!this.closed) {
+      try {
+        final Record record = this.buffer.take();
+        synchronized (this.dispatchLock) {
+          dispatch(record);
+        }
+        final long dropped = this.droppedRecords.get();
+        if (dropped != reportedDropped && this.buffer.isEmpty()) {
+          this.delegate.getLogger(AsyncLoggerServiceImpl.class).warn("Dropped log records because of full buffer or errors: " + (dropped - reportedDropped)); //NOI18N
+          reportedDropped = dropped;
+        }
+      } catch (InterruptedException ex) {
+        break;
+      }
+    }
+  }
+
+  private void stopAndFlush() {
+    this.closed = true;
+    if (Thread.currentThread() != this.worker) {
+      // the worker has to finish the record in progress before the rest is flushed to keep order
+      this.worker.interrupt();
+      try {
+        this.worker.join(WORKER_STOP_TIMEOUT_MS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    drain();
+  }
+
+  private void drain() {
+    synchronized (this.dispatchLock) {
+      Record record;
+      while ((record = this.buffer.poll()) != null) {
+        dispatch(record);
+      }
+    }
+  }
+
+  private void dispatch(@Nonnull final Record record) {
+    try {
+      switch (record.level) {
+        case LEVEL_DEBUG:
+          record.target.debug(record.message);
+          break;
+        case LEVEL_INFO:
+          record.target.info(record.message);
+          break;
+        case LEVEL_WARN:
+          record.target.warn(record.message);
+          break;
+        case LEVEL_ERROR: {
+          if (record.error == null) {
+            record.target.error(record.message);
+          } else {
+            record.target.error(record.message, record.error);
+          }
+        }
+        break;
+        default:
+          throw new Error("Unexpected log level : " + record.level); //NOI18N
+      }
+    } catch (RuntimeException ex) {
+      this.droppedRecords.incrementAndGet();
+    }
+  }
+
+  private static final class Record {
+
+    private final Logger target;
+    private final int level;
+    private final String message;
+    private final Throwable error;
+
+    private Record(@Nonnull final Logger target, final int level, @Nullable final String message, @Nullable final Throwable error) {
+      this.target = target;
+      this.level = level;
+      this.message = message;
+      this.error = error;
+    }
+  }
+
+  private final class AsyncLogger extends Logger {
+
+    private final Logger wrapped;
+
+    private AsyncLogger(@Nonnull final Class<?> klazz, @Nonnull final Logger wrapped) {
+      super(klazz);
+      this.wrapped = wrapped;
+    }
+
+    private AsyncLogger(@Nonnull final String name, @Nonnull final Logger wrapped) {
+      super(name);
+      this.wrapped = wrapped;
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+      return this.wrapped.isDebugEnabled();
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+      return this.wrapped.isInfoEnabled();
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+      return this.wrapped.isWarnEnabled();
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+      return this.wrapped.isErrorEnabled();
+    }
+
+    @Override
+    public void debug(@Nullable final String message) {
+      if (this.wrapped.isDebugEnabled()) {
+        post(this.wrapped, LEVEL_DEBUG, message, null);
+      }
+    }
+
+    @Override
+    public void info(@Nullable final String message) {
+      if (this.wrapped.isInfoEnabled()) {
+        post(this.wrapped, LEVEL_INFO, message, null);
+      }
+    }
+
+    @Override
+    public void warn(@Nullable final String message) {
+      if (this.wrapped.isWarnEnabled()) {
+        post(this.wrapped, LEVEL_WARN, message, null);
+      }
+    }
+
+    @Override
+    public void error(@Nullable final String message) {
+      if (this.wrapped.isErrorEnabled()) {
+        post(this.wrapped, LEVEL_ERROR, message, null);
+      }
+    }
+
+    @Override
+    public void error(@Nullable final String message, @Nullable final Throwable error) {
+      if (this.wrapped.isErrorEnabled()) {
+        post(this.wrapped, LEVEL_ERROR, message, error);
+      }
+    }
+  }
+}
@@ -37,6 +37,31 @@ public class JavaLogger extends Logger {
     this.wrappedLogger = java.util.logging.Logger.getLogger(name);
   }
 
+  @Override
+  public boolean isDebugEnabled() {
+    return this.wrappedLogger.isLoggable(java.util.logging.Level.FINE);
+  }
+
+  @Override
+  public boolean isInfoEnabled() {
+    return this.wrappedLogger.isLoggable(java.util.logging.Level.INFO);
+  }
+
+  @Override
+  public boolean isWarnEnabled() {
+    return this.wrappedLogger.isLoggable(java.util.logging.Level.WARNING);
+  }
+
+  @Override
+  public boolean isErrorEnabled() {
+    return this.wrappedLogger.isLoggable(java.util.logging.Level.WARNING);
+  }
+
+  @Override
+  public void debug(@Nullable final String message) {
+    this.wrappedLogger.fine(message);
+  }
+
   @Override
   public void info(@Nullable final String message) {
     this.wrappedLogger.info(message);
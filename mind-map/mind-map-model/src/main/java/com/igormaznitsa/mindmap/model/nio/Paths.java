@@ -37,7 +37,7 @@ public final class Paths {
     final Iterator<PathService> iterator = service.iterator();
     PATH_SERVICE = iterator.hasNext() ? iterator.next() : new J7PathService();
 
-    LOGGER.info("Detected path service : " + PATH_SERVICE.getClass().getName());
+    LOGGER.info("Detected path service : {}", PATH_SERVICE.getClass().getName());
   }
 
   @Nonnull
@@ -388,4 +388,24 @@ public class MMapURITest {
     assertEquals("ABC", new MMapURI("http://wwww.hello.world/test.ABC?dot=eer.txt#rwwewe").getExtension());
   }
 
+  @Test
+  public void testValueOf_Interned() throws Exception {
+    final MMapURI first = MMapURI.valueOf("some/file.txt?line=10");
+    assertSame(first, MMapURI.valueOf("some/file.txt?line=10"));
+    assertEquals(new MMapURI("some/file.txt?line=10"), first);
+    assertEquals("10", first.getParameters().getProperty("line"));
+  }
+
+  @Test
+  public void testAsFile_ResolutionForChangedBase() throws Exception {
+    final MMapURI uri = new MMapURI("some/file.txt");
+    final File base1 = new File("base1");
+    final File base2 = new File("base2");
+
+    assertEquals(new File(base1, "some/file.txt"), uri.asFile(base1));
+    assertSame(uri.asFile(base1), uri.asFile(base1));
+    assertEquals(new File(base2, "some/file.txt"), uri.asFile(base2));
+    assertEquals(new File("some/file.txt"), uri.asFile(null));
+    assertEquals(new File(base1, "some/file.txt"), uri.asFile(base1));
+  }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+import java.io.File;
+import java.io.StringReader;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MountedSubMapTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static MindMap makeHostMap() throws Exception {
+    final MindMap host = new MindMap(new StringReader("---\n# Host\n## Mount\n> mountedMap=`true`\n\n- FILE\n<pre>sub.mmd</pre>\n"));
+    assertTrue(MountedSubMap.isMountPoint(host.getRoot().getFirst()));
+    return host;
+  }
+
+  @Test
+  public void testMountAndUnmount() throws Exception {
+    FileUtils.writeStringToFile(new File(this.folder.getRoot(), "sub.mmd"), "---\n# Sub\n## One\n### Two\n## Three\n", "UTF-8");
+
+    final MindMap host = makeHostMap();
+    final Topic mountPoint = host.getRoot().getFirst();
+
+    assertFalse(MountedSubMap.isMountedContentPresented(mountPoint));
+    assertTrue(MountedSubMap.mount(mountPoint, this.folder.getRoot()));
+    assertFalse(MountedSubMap.mount(mountPoint, this.folder.getRoot()));
+
+    assertEquals(2, mountPoint.getChildren().size());
+    assertEquals("One", mountPoint.getFirst().getText());
+    assertTrue(mountPoint.getFirst().isMounted());
+    assertTrue(mountPoint.getFirst().getFirst().isMounted());
+    assertTrue(host.getRoot().getFirst().getFirst().getFirst().getMap() == host);
+
+    final String packed = host.packToString();
+    assertFalse(packed.contains("One"));
+    assertFalse(packed.contains("Three"));
+
+    assertTrue(MountedSubMap.unmount(mountPoint));
+    assertFalse(mountPoint.hasChildren());
+    assertFalse(MountedSubMap.unmount(mountPoint));
+  }
+
+  @Test
+  public void testUnmountKeepsOwnChildren() throws Exception {
+    FileUtils.writeStringToFile(new File(this.folder.getRoot(), "sub.mmd"), "---\n# Sub\n## One\n", "UTF-8");
+
+    final MindMap host = makeHostMap();
+    final Topic mountPoint = host.getRoot().getFirst();
+    mountPoint.makeChild("Own", null);
+
+    assertTrue(MountedSubMap.mount(mountPoint, this.folder.getRoot()));
+    assertEquals(2, mountPoint.getChildren().size());
+    assertTrue(host.packToString().contains("Own"));
+
+    assertTrue(MountedSubMap.unmount(mountPoint));
+    assertEquals(1, mountPoint.getChildren().size());
+    assertEquals("Own", mountPoint.getFirst().getText());
+  }
+
+  @Test
+  public void testCopyOfMapKeepsMountedContentOut() throws Exception {
+    FileUtils.writeStringToFile(new File(this.folder.getRoot(), "sub.mmd"), "---\n# Sub\n## One\n", "UTF-8");
+
+    final MindMap host = makeHostMap();
+    assertTrue(MountedSubMap.mount(host.getRoot().getFirst(), this.folder.getRoot()));
+
+    final MindMap copy = new MindMap(host);
+    assertTrue(copy.getRoot().getFirst().getFirst().isMounted());
+    assertFalse(copy.packToString().contains("One"));
+
+    final Topic topicCopy = new Topic(copy, host.getRoot().getFirst(), true);
+    assertTrue(topicCopy.getFirst().isMounted());
+
+    MountedSubMap.detach(topicCopy);
+    assertFalse(topicCopy.getFirst().isMounted());
+  }
+
+  @Test
+  public void testTopicLinksAreNamespaced() throws Exception {
+    final MindMap sub = new MindMap(true);
+    final Topic target = sub.getRoot().makeChild("Target", null);
+    final Topic source = sub.getRoot().makeChild("Source", null);
+    source.setExtra(ExtraTopic.makeLinkTo(sub, target));
+    final String uid = target.getAttribute(ExtraTopic.TOPIC_UID_ATTR);
+    FileUtils.writeStringToFile(new File(this.folder.getRoot(), "sub.mmd"), sub.packToString(), "UTF-8");
+
+    final MindMap host = makeHostMap();
+    final Topic hostTopic = host.getRoot().makeChild("HostTarget", null);
+    hostTopic.setAttribute(ExtraTopic.TOPIC_UID_ATTR, uid);
+
+    final Topic mountPoint = host.getRoot().getFirst();
+    assertTrue(MountedSubMap.mount(mountPoint, this.folder.getRoot()));
+
+    final Topic mountedTarget = mountPoint.getChildren().get(0);
+    final Topic mountedSource = mountPoint.getChildren().get(1);
+    assertFalse(uid.equals(mountedTarget.getAttribute(ExtraTopic.TOPIC_UID_ATTR)));
+    assertSame(mountedTarget, host.findTopicForLink((ExtraTopic) mountedSource.getExtras().get(Extra.ExtraType.TOPIC)));
+    assertSame(hostTopic, host.findTopicForLink(new ExtraTopic(uid)));
+  }
+
+  @Test
+  public void testUnmountProcessesNestedMountPoints() throws Exception {
+    FileUtils.writeStringToFile(new File(this.folder.getRoot(), "sub.mmd"), "---\n# Sub\n## One\n", "UTF-8");
+
+    final MindMap host = makeHostMap();
+    final Topic mountPoint = host.getRoot().getFirst();
+    final Topic nested = mountPoint.makeChild("Nested", null);
+    nested.setAttribute(MountedSubMap.ATTR_MOUNTED_MAP, "true");
+    nested.setExtra(mountPoint.getExtras().get(Extra.ExtraType.FILE));
+
+    assertTrue(MountedSubMap.mount(mountPoint, this.folder.getRoot()));
+    assertTrue(MountedSubMap.mount(nested, this.folder.getRoot()));
+    assertTrue(MountedSubMap.isMountedContentPresented(nested));
+
+    assertTrue(MountedSubMap.unmount(host.getRoot()));
+    assertFalse(MountedSubMap.isMountedContentPresented(mountPoint));
+    assertFalse(MountedSubMap.isMountedContentPresented(nested));
+    assertEquals(1, mountPoint.getChildren().size());
+  }
+
+  @Test
+  public void testMountedContentKeptAfterCacheCleared() throws Exception {
+    FileUtils.writeStringToFile(new File(this.folder.getRoot(), "sub.mmd"), "---\n# Sub\n## One\n", "UTF-8");
+
+    final MindMap host = makeHostMap();
+    final Topic mountPoint = host.getRoot().getFirst();
+    assertTrue(MountedSubMap.mount(mountPoint, this.folder.getRoot()));
+
+    MountedSubMap.clearCache();
+    assertTrue(MountedSubMap.isMountedContentPresented(mountPoint));
+    assertEquals("One", mountPoint.getFirst().getText());
+  }
+
+  @Test
+  public void testLinksOfMountedContentResolvedAgainstSubMapFolder() throws Exception {
+    final File subFolder = this.folder.newFolder("sub");
+    FileUtils.writeStringToFile(new File(subFolder, "sub.mmd"), "---\n# Sub\n## Nested\n> mountedMap=`true`\n\n- FILE\n<pre>nested.mmd</pre>\n\n## Doc\n- FILE\n<pre>doc.txt</pre>\n", "UTF-8");
+    FileUtils.writeStringToFile(new File(subFolder, "nested.mmd"), "---\n# Nested\n## Deep\n", "UTF-8");
+
+    final MindMap host = new MindMap(new StringReader("---\n# Host\n## Mount\n> mountedMap=`true`\n\n- FILE\n<pre>sub/sub.mmd</pre>\n"));
+    final Topic mountPoint = host.getRoot().getFirst();
+    assertTrue(MountedSubMap.mount(mountPoint, this.folder.getRoot()));
+
+    final Topic nested = mountPoint.getChildren().get(0);
+    final Topic doc = mountPoint.getChildren().get(1);
+    assertEquals(new File(subFolder, "doc.txt").getCanonicalFile(), ((ExtraFile) doc.getExtras().get(Extra.ExtraType.FILE)).getValue().asFile(this.folder.getRoot()).getCanonicalFile());
+
+    assertTrue(MountedSubMap.mount(nested, this.folder.getRoot()));
+    assertEquals("Deep", nested.getFirst().getText());
+    assertTrue(nested.getFirst().isMounted());
+    assertFalse(host.packToString().contains("nested.mmd"));
+  }
+}
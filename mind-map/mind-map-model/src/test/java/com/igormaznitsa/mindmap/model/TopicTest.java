@@ -17,6 +17,7 @@ package com.igormaznitsa.mindmap.model;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
@@ -326,5 +327,68 @@ public class TopicTest {
     assertEquals("`Root\ntopic`",parsed.getRoot().getText());
     assertEquals("Hello world \n <br>```Some```",((ExtraNote)parsed.getRoot().getExtras().get(Extra.ExtraType.NOTE)).getValue());
   }
-  
+
+  @Test
+  public void testAttributesCache_ResetOnAttributeChange() {
+    final MindMap mm = new MindMap(true);
+    final Topic root = mm.getRoot();
+    final Object cached = new Object();
+
+    root.setAttributesCache(cached);
+    assertSame(cached, root.getAttributesCache());
+    assertSame(cached, new Topic(mm, root, false).getAttributesCache());
+
+    root.setAttribute("fillColor", "#FF0000");
+    assertNull(root.getAttributesCache());
+
+    root.setAttributesCache(cached);
+    root.removeAttributeFromSubtree("fillColor");
+    assertNull(root.getAttributesCache());
+  }
+
+  @Test
+  public void testAttributesCache_ResetInWholeSubtree() {
+    final MindMap mm = new MindMap(true);
+    final Topic root = mm.getRoot();
+    final Topic child = new Topic(mm, root, "child");
+    final Topic grandChild = new Topic(mm, child, "grandchild");
+    grandChild.setAttribute("fillColor", "#FF0000");
+
+    root.setAttributesCache(new Object());
+    child.setAttributesCache(new Object());
+    grandChild.setAttributesCache(new Object());
+
+    assertTrue(root.removeAttributeFromSubtree("fillColor"));
+    assertNull(root.getAttributesCache());
+    assertNull(child.getAttributesCache());
+    assertNull(grandChild.getAttributesCache());
+    assertNull(grandChild.getAttribute("fillColor"));
+  }
+
+  @Test
+  public void testAttributesCache_ChangeOfCopyDoesNotAffectOriginal() {
+    final MindMap mm = new MindMap(true);
+    final Topic root = mm.getRoot();
+    final Topic child = new Topic(mm, root, "child");
+    final Object cached = new Object();
+    child.setAttributesCache(cached);
+
+    final Topic topicCopy = new Topic(mm, child, true);
+    assertSame(cached, topicCopy.getAttributesCache());
+    topicCopy.setAttribute("fillColor", "#00FF00");
+    assertNull(topicCopy.getAttributesCache());
+    assertSame(cached, child.getAttributesCache());
+    assertNull(child.getAttribute("fillColor"));
+
+    final MindMap mapCopy = new MindMap(mm);
+    final Topic childOfMapCopy = mapCopy.getRoot().getFirst();
+    assertSame(cached, childOfMapCopy.getAttributesCache());
+    childOfMapCopy.setAttribute("fillColor", "#0000FF");
+    assertNull(childOfMapCopy.getAttributesCache());
+    assertSame(cached, child.getAttributesCache());
+
+    child.setAttribute("fillColor", "#FFFFFF");
+    assertNull(child.getAttributesCache());
+    assertEquals("#0000FF", childOfMapCopy.getAttribute("fillColor"));
+  }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.model.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class LoggerTest {
+
+  @Test
+  public void testFormatMessage() {
+    assertNull(Logger.formatMessage(null, "a"));
+    assertEquals("Hello", Logger.formatMessage("Hello"));
+    assertEquals("Hello world", Logger.formatMessage("Hello {}", "world"));
+    assertEquals("1 and 2", Logger.formatMessage("{} and {}", 1, 2));
+    assertEquals("1 and {}", Logger.formatMessage("{} and {}", 1));
+    assertEquals("null!", Logger.formatMessage("{}!", (Object) null));
+    assertEquals("a", Logger.formatMessage("a", "b", "c"));
+  }
+
+  @Test
+  public void testVarargsMessages() {
+    final List<String> messages = new ArrayList<String>();
+    final Throwable[] errors = new Throwable[1];
+    final Logger logger = new Logger("test") {
+      @Override
+      public void info(final String message) {
+        messages.add(message);
+      }
+
+      @Override
+      public void warn(final String message) {
+        messages.add(message);
+      }
+
+      @Override
+      public void error(final String message) {
+        messages.add(message);
+      }
+
+      @Override
+      public void error(final String message, final Throwable error) {
+        messages.add(message);
+        errors[0] = error;
+      }
+    };
+
+    logger.debug("{} {} {}", 1, 2, 3);
+    logger.info("{} {} {}", 1, 2, 3);
+    logger.warn("{} {} {}", 4, 5, 6);
+    logger.error("{} {} {}", 7, 8, 9);
+    assertNull(errors[0]);
+
+    final Exception ex = new Exception("test");
+    logger.error("{} {}", "a", "b", ex);
+    assertSame(ex, errors[0]);
+
+    assertEquals(4, messages.size());
+    assertEquals("1 2 3", messages.get(0));
+    assertEquals("4 5 6", messages.get(1));
+    assertEquals("7 8 9", messages.get(2));
+    assertEquals("a b", messages.get(3));
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.model.logger.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class AsyncLoggerServiceImplTest {
+
+  private static final class RecordingService implements LoggerService {
+
+    private final List<String> records = new ArrayList<String>();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private synchronized void record(final String message) {
+      this.records.add(message);
+    }
+
+    private synchronized List<String> getRecords() {
+      return new ArrayList<String>(this.records);
+    }
+
+    @Override
+    public Logger getLogger(final Class<?> klazz) {
+      return getLogger(klazz.getName());
+    }
+
+    @Override
+    public Logger getLogger(final String name) {
+      return new Logger(name) {
+        @Override
+        public void info(final String message) {
+          if ("block".equals(message)) {
+            started.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException ex) {
+              Thread.currentThread().interrupt();
+            }
+          }
+          if ("fail".equals(message)) {
+            throw new IllegalStateException("Expected");
+          }
+          record(message);
+        }
+
+        @Override
+        public void warn(final String message) {
+          record("WARN " + message);
+        }
+
+        @Override
+        public void error(final String message) {
+          record(message);
+        }
+
+        @Override
+        public void error(final String message, final Throwable error) {
+          record(message);
+        }
+      };
+    }
+  }
+
+  @Test
+  public void testRecordsKeepOrderAndFlushedByClose() {
+    final RecordingService service = new RecordingService();
+    final AsyncLoggerServiceImpl async = new AsyncLoggerServiceImpl(service, 10000);
+    final Logger logger = async.getLogger(AsyncLoggerServiceImplTest.class);
+
+    for (int i = 0; i < 5000; i++) {
+      logger.info("Record {}", i);
+    }
+    async.close();
+
+    final List<String> records = service.getRecords();
+    assertEquals(5000, records.size());
+    for (int i = 0; i < records.size(); i++) {
+      assertEquals("Record " + i, records.get(i));
+    }
+    assertEquals(0L, async.getDroppedRecords());
+
+    logger.info("After close");
+    assertEquals("After close", service.getRecords().get(5000));
+  }
+
+  @Test
+  public void testDroppedRecordsAreCounted() throws Exception {
+    final RecordingService service = new RecordingService();
+    final AsyncLoggerServiceImpl async = new AsyncLoggerServiceImpl(service, 16);
+    final Logger logger = async.getLogger("test");
+
+    logger.info("block");
+    assertTrue(service.started.await(5, TimeUnit.SECONDS));
+
+    for (int i = 0; i < 20; i++) {
+      logger.info("Record {}", i);
+    }
+    assertEquals(4L, async.getDroppedRecords());
+
+    service.release.countDown();
+    async.close();
+
+    final List<String> records = service.getRecords();
+    assertEquals("block", records.get(0));
+    for (int i = 0; i < 16; i++) {
+      assertEquals("Record " + i, records.get(i + 1));
+    }
+    assertEquals(4L, async.getDroppedRecords());
+  }
+
+  @Test
+  public void testFailedRecordsAreCountedAsDropped() {
+    final RecordingService service = new RecordingService();
+    final AsyncLoggerServiceImpl async = new AsyncLoggerServiceImpl(service, 16);
+    final Logger logger = async.getLogger("test");
+
+    logger.info("first");
+    logger.info("fail");
+    logger.info("second");
+    async.close();
+
+    assertEquals(1L, async.getDroppedRecords());
+    final List<String> records = service.getRecords();
+    assertEquals("first", records.get(0));
+    assertEquals("second", records.get(records.size() - 1));
+  }
+}
@@ -127,7 +127,7 @@ public final class MindMapPluginRegistry implements Iterable<MindMapPlugin> {
   public void registerPlugin(@Nonnull final MindMapPlugin plugin) {
     synchronized (FIND_CACHE) {
       this.pluginList.add(assertNotNull(plugin));
-      LOGGER.info("Registered plugin " + plugin.getClass().getName());
+      LOGGER.info("Registered plugin {}", plugin.getClass().getName());
       Collections.sort(this.pluginList);
       FIND_CACHE.clear();
     }
@@ -139,7 +139,7 @@ public final class MindMapPluginRegistry implements Iterable<MindMapPlugin> {
       while (iterator.hasNext()) {
         final MindMapPlugin plugin = iterator.next();
         if (pluginClass.isAssignableFrom(plugin.getClass())) {
-          LOGGER.info("Unregistered plugin " + plugin.getClass().getName() + " for class " + pluginClass.getName());
+          LOGGER.info("Unregistered plugin {} for class {}", plugin.getClass().getName(), pluginClass.getName());
           iterator.remove();
         }
       }
@@ -149,7 +149,7 @@ public final class MindMapPluginRegistry implements Iterable<MindMapPlugin> {
   public void unregisterPlugin(@Nonnull final MindMapPlugin plugin) {
     synchronized (FIND_CACHE) {
       if (this.pluginList.remove(assertNotNull(plugin))) {
-        LOGGER.info("Unregistered plugin " + plugin.getClass().getName());
+        LOGGER.info("Unregistered plugin {}", plugin.getClass().getName());
         Collections.sort(this.pluginList);
       }
       FIND_CACHE.clear();
@@ -18,6 +18,7 @@ package com.igormaznitsa.mindmap.plugins.exporters;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.common.utils.Assertions;
+import com.igormaznitsa.mindmap.model.MindMap;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
@@ -40,16 +41,13 @@ import java.awt.datatransfer.Clipboard;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
-import java.awt.image.RenderedImage;
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
 import javax.swing.Icon;
@@ -66,6 +64,7 @@ public final class PNGImageExporter extends AbstractExporter {
   private static final Icon ICO = ImageIconServiceProvider.findInstance().getIconForId(IconID.POPUP_EXPORT_PNG);
   private boolean flagExpandAllNodes = false;
   private boolean flagDrawBackground = true;
+  private int exportThreads = Runtime.getRuntime().availableProcessors();
 
 
   public PNGImageExporter() {
@@ -75,7 +74,7 @@ public final class PNGImageExporter extends AbstractExporter {
   @Override
   @Nullable
   public JComponent makeOptions(@Nonnull final PluginContext context) {
-    final Options options = new Options(flagExpandAllNodes, flagDrawBackground);
+    final Options options = new Options(flagExpandAllNodes, flagDrawBackground, exportThreads);
 
     final JPanel panel = UI_FACTORY.makePanelWithOptions(options);
     final JCheckBox checkBoxExpandAll = UI_FACTORY.makeCheckBox();
@@ -113,12 +112,13 @@ public final class PNGImageExporter extends AbstractExporter {
     return panel;
   }
 
-  @Nullable
-  private BufferedImage makeImage(@Nonnull final PluginContext context, @Nullable final JComponent options) throws IOException {
+  @Nonnull
+  private MindMapPanelConfig makeConfig(@Nonnull final PluginContext context, @Nullable final JComponent options) {
     if (options instanceof HasOptions) {
       final HasOptions opts = (HasOptions) options;
       this.flagExpandAllNodes = Boolean.parseBoolean(opts.getOption(Options.KEY_EXPAND_ALL));
       this.flagDrawBackground = Boolean.parseBoolean(opts.getOption(Options.KEY_DRAW_BACK));
+      this.exportThreads = parseThreads(opts.getOption(Options.KEY_THREADS), this.exportThreads);
     } else {
       for (final Component compo : Assertions.assertNotNull(options).getComponents()) {
         if (compo instanceof JCheckBox) {
@@ -135,7 +135,24 @@ public final class PNGImageExporter extends AbstractExporter {
     final MindMapPanelConfig newConfig = new MindMapPanelConfig(context.getPanelConfig(), false);
     newConfig.setDrawBackground(this.flagDrawBackground);
     newConfig.setScale(1.0f);
+    return newConfig;
+  }
+
+  private static int parseThreads(@Nullable final String value, final int dflt) {
+    if (value == null) {
+      return dflt;
+    }
+    try {
+      return Math.max(1, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException ex) {
+      LOGGER.warn("Wrong number of threads : {}", value); //NOI18N
+      return dflt;
+    }
+  }
 
+  @Nullable
+  private BufferedImage makeImage(@Nonnull final PluginContext context, @Nullable final JComponent options) throws IOException {
+    final MindMapPanelConfig newConfig = makeConfig(context, options);
     return MindMapPanel.renderMindMapAsImage(context.getPanel().getModel(), newConfig, flagExpandAllNodes, RenderQuality.QUALITY);
   }
 
@@ -157,9 +174,10 @@ public final class PNGImageExporter extends AbstractExporter {
 
   @Override
   public void doExport(@Nonnull final PluginContext context, @Nullable final JComponent options, @Nullable final OutputStream out) throws IOException {
-    final RenderedImage image = makeImage(context, options);
+    final MindMapPanelConfig newConfig = makeConfig(context, options);
+    final MindMap model = context.getPanel().getModel();
 
-    if (image == null) {
+    if (model.getRoot() == null) {
       if (out == null) {
         LOGGER.error("Can't render map as image");
         context.getDialogProvider().msgError(null, Texts.getString("PNGImageExporter.msgErrorDuringRendering"));
@@ -169,11 +187,6 @@ public final class PNGImageExporter extends AbstractExporter {
       }
     }
 
-    final ByteArrayOutputStream buff = new ByteArrayOutputStream(128000);
-    ImageIO.write(image, "png", buff);//NOI18N
-
-    final byte[] imageData = buff.toByteArray();
-
     File fileToSaveMap = null;
     OutputStream theOut = out;
     if (theOut == null) {
@@ -189,11 +202,22 @@ public final class PNGImageExporter extends AbstractExporter {
       theOut = fileToSaveMap == null ? null : new BufferedOutputStream(new FileOutputStream(fileToSaveMap, false));
     }
     if (theOut != null) {
+      boolean completed = false;
       try {
-        IOUtils.write(imageData, theOut);
-      } finally {
+        if (!MindMapPanel.renderMindMapAsPng(model, newConfig, this.flagExpandAllNodes, RenderQuality.QUALITY, theOut, this.exportThreads)) {
+          throw new IOException("Can't render image");
+        }
         if (fileToSaveMap != null) {
+          theOut.close();
+        }
+        completed = true;
+      } finally {
+        // image is streamed into the file during rendering, so that truncated file must not be left
+        if (fileToSaveMap != null && !completed) {
           IOUtils.closeQuietly(theOut);
+          if (!fileToSaveMap.delete()) {
+            LOGGER.warn("Can't delete incomplete image file : {}", fileToSaveMap); //NOI18N
+          }
         }
       }
     }
@@ -232,24 +256,27 @@ public final class PNGImageExporter extends AbstractExporter {
 
     private static final String KEY_EXPAND_ALL = "expand.all";
     private static final String KEY_DRAW_BACK = "draw.back";
+    private static final String KEY_THREADS = "threads";
     private boolean expandAll;
     private boolean drawBack;
+    private int threads;
 
-    private Options(final boolean expandAllNodes, final boolean drawBackground) {
+    private Options(final boolean expandAllNodes, final boolean drawBackground, final int threads) {
       this.expandAll = expandAllNodes;
       this.drawBack = drawBackground;
+      this.threads = threads;
     }
 
     @Override
     public boolean doesSupportKey(@Nonnull final String key) {
-      return KEY_DRAW_BACK.equals(key) || KEY_EXPAND_ALL.equals(key);
+      return KEY_DRAW_BACK.equals(key) || KEY_EXPAND_ALL.equals(key) || KEY_THREADS.equals(key);
     }
 
     @Override
     @Nonnull
     @MustNotContainNull
     public String[] getOptionKeys() {
-      return new String[] {KEY_EXPAND_ALL, KEY_DRAW_BACK};
+      return new String[] {KEY_EXPAND_ALL, KEY_DRAW_BACK, KEY_THREADS};
     }
 
     @Override
@@ -261,6 +288,9 @@ public final class PNGImageExporter extends AbstractExporter {
       if (KEY_EXPAND_ALL.equals(key)) {
         return "Unfold all topics";
       }
+      if (KEY_THREADS.equals(key)) {
+        return "Number of threads to render and compress image";
+      }
       return "";
     }
 
@@ -270,6 +300,8 @@ public final class PNGImageExporter extends AbstractExporter {
         this.drawBack = Boolean.parseBoolean(value);
       } else if (KEY_EXPAND_ALL.equals(key)) {
         this.expandAll = Boolean.parseBoolean(value);
+      } else if (KEY_THREADS.equals(key)) {
+        this.threads = parseThreads(value, this.threads);
       }
     }
 
@@ -282,6 +314,9 @@ public final class PNGImageExporter extends AbstractExporter {
       if (KEY_EXPAND_ALL.equals(key)) {
         return Boolean.toString(this.expandAll);
       }
+      if (KEY_THREADS.equals(key)) {
+        return Integer.toString(this.threads);
+      }
       return null;
     }
 
@@ -32,6 +32,7 @@ import com.igormaznitsa.mindmap.plugins.api.HasOptions;
 import com.igormaznitsa.mindmap.plugins.api.PluginContext;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.Texts;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.HasFontRenderContext;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.StrokeType;
 import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
@@ -58,6 +59,7 @@ import java.awt.datatransfer.Transferable;
 import java.awt.datatransfer.UnsupportedFlavorException;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.font.FontRenderContext;
 import java.awt.font.TextLayout;
 import java.awt.geom.Dimension2D;
 import java.awt.geom.Path2D;
@@ -67,6 +69,7 @@ import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -74,8 +77,14 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.text.DecimalFormat;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import javax.annotation.Nonnull;
@@ -107,16 +116,13 @@ public class SVGImageExporter extends AbstractExporter {
   private static final Logger LOGGER = LoggerFactory.getLogger(SVGImageExporter.class);
   private static final UIComponentFactory UI_FACTORY = UIComponentFactoryProvider.findInstance();
   private static final Icon ICO = ImageIconServiceProvider.findInstance().getIconForId(IconID.POPUP_EXPORT_SVG);
-  private static final String SVG_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n<!-- Generated by SVG Image Exporter plugin of NB Mind Map Swing panel -->\n<svg version=\"1.1\" baseProfile=\"tiny\" id=\"svg-root\" width=\"%d%%\" height=\"%d%%\" viewBox=\"0 0 %s %s\" xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">";
+  private static final String SVG_HEADER_START = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n<!-- Generated by SVG Image Exporter plugin of NB Mind Map Swing panel -->\n<svg version=\"1.1\" baseProfile=\"tiny\" id=\"svg-root\" width=\"100%\" height=\"100%\" viewBox=\"0 0 ";
+  private static final String SVG_HEADER_END = "\" xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">";
   private static final String NEXT_LINE = "\n";
-  private static final DecimalFormat DOUBLE = new DecimalFormat("#.###");
+  private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
   private boolean flagExpandAllNodes = false;
   private boolean flagDrawBackground = true;
-
-  @Nonnull
-  private static String dbl2str(final double value) {
-    return DOUBLE.format(value);
-  }
+  private boolean flagStyleClasses = false;
 
   @Nonnull
   private static String fontFamilyToSVG(@Nonnull Font font) {
@@ -130,21 +136,15 @@ public class SVGImageExporter extends AbstractExporter {
     return fontFamilyStr;
   }
 
-  @Nonnull
-  private static String font2style(@Nonnull final Font font) {
-    final StringBuilder result = new StringBuilder();
-
+  private static void font2style(@Nonnull final SvgWriter out, @Nonnull final Font font) {
     final String fontStyle = font.isItalic() ? "italic" : "normal";
     final String fontWeight = font.isBold() ? "bold" : "normal";
-    final String fontSize = DOUBLE.format(font.getSize2D()) + "px";
     final String fontFamily = fontFamilyToSVG(font);
 
-    result.append("font-family: ").append(fontFamily).append(';').append(NEXT_LINE);
-    result.append("font-size: ").append(fontSize).append(';').append(NEXT_LINE);
-    result.append("font-style: ").append(fontStyle).append(';').append(NEXT_LINE);
-    result.append("font-weight: ").append(fontWeight).append(';').append(NEXT_LINE);
-
-    return result.toString();
+    out.text("font-family: ").text(fontFamily).ch(';').text(NEXT_LINE);
+    out.text("font-size: ").number(font.getSize2D()).text("px").ch(';').text(NEXT_LINE);
+    out.text("font-style: ").text(fontStyle).ch(';').text(NEXT_LINE);
+    out.text("font-weight: ").text(fontWeight).ch(';').text(NEXT_LINE);
   }
 
   @Override
@@ -156,7 +156,7 @@ public class SVGImageExporter extends AbstractExporter {
   @Override
   @Nullable
   public JComponent makeOptions(@Nonnull final PluginContext context) {
-    final Options options = new Options(flagExpandAllNodes, flagDrawBackground);
+    final Options options = new Options(flagExpandAllNodes, flagDrawBackground, flagStyleClasses);
     final JPanel panel = UI_FACTORY.makePanelWithOptions(options);
     final JCheckBox checkBoxExpandAll = UI_FACTORY.makeCheckBox();
     checkBoxExpandAll.setSelected(flagExpandAllNodes);
@@ -168,10 +168,16 @@ public class SVGImageExporter extends AbstractExporter {
     checkBoxDrawBackground.setText(Texts.getString("SvgExporter.optionDrawBackground"));
     checkBoxDrawBackground.setActionCommand("back");
 
+    final JCheckBox checkBoxStyleClasses = UI_FACTORY.makeCheckBox();
+    checkBoxStyleClasses.setSelected(flagStyleClasses);
+    checkBoxStyleClasses.setText(Texts.getString("SvgExporter.optionStyleClasses"));
+    checkBoxStyleClasses.setActionCommand("styles");
+
     panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
 
     panel.add(checkBoxExpandAll);
     panel.add(checkBoxDrawBackground);
+    panel.add(checkBoxStyleClasses);
 
     panel.setBorder(BorderFactory.createEmptyBorder(16, 32, 16, 32));
 
@@ -184,21 +190,25 @@ public class SVGImageExporter extends AbstractExporter {
         if (e.getSource() == checkBoxDrawBackground) {
           options.setOption(Options.KEY_DRAW_BACK, Boolean.toString(checkBoxDrawBackground.isSelected()));
         }
+        if (e.getSource() == checkBoxStyleClasses) {
+          options.setOption(Options.KEY_STYLE_CLASSES, Boolean.toString(checkBoxStyleClasses.isSelected()));
+        }
       }
     };
 
     checkBoxExpandAll.addActionListener(actionListener);
     checkBoxDrawBackground.addActionListener(actionListener);
+    checkBoxStyleClasses.addActionListener(actionListener);
 
     return panel;
   }
 
-  @Nonnull
-  private String makeContent(@Nonnull final PluginContext context, @Nullable final JComponent options) throws IOException {
+  private void writeContent(@Nonnull final PluginContext context, @Nullable final JComponent options, @Nonnull final Writer writer) throws IOException {
     if (options instanceof HasOptions) {
       final HasOptions opts = (HasOptions) options;
       this.flagExpandAllNodes = Boolean.parseBoolean(opts.getOption(Options.KEY_EXPAND_ALL));
       this.flagDrawBackground = Boolean.parseBoolean(opts.getOption(Options.KEY_DRAW_BACK));
+      this.flagStyleClasses = Boolean.parseBoolean(opts.getOption(Options.KEY_STYLE_CLASSES));
     } else {
       for (final Component compo : Assertions.assertNotNull(options).getComponents()) {
         if (compo instanceof JCheckBox) {
@@ -207,6 +217,8 @@ public class SVGImageExporter extends AbstractExporter {
             this.flagExpandAllNodes = cb.isSelected();
           } else if ("back".equalsIgnoreCase(cb.getActionCommand())) {
             this.flagDrawBackground = cb.isSelected();
+          } else if ("styles".equalsIgnoreCase(cb.getActionCommand())) {
+            this.flagStyleClasses = cb.isSelected();
           }
         }
       }
@@ -229,34 +241,38 @@ public class SVGImageExporter extends AbstractExporter {
     newConfig.setDrawBackground(this.flagDrawBackground);
     newConfig.setScale(1.0f);
 
+    final SvgWriter out = new SvgWriter(writer, this.flagStyleClasses);
+
     final Dimension2D blockSize = calculateSizeOfMapInPixels(workMap, null, newConfig, flagExpandAllNodes, RenderQuality.DEFAULT);
     if (blockSize == null) {
-      return SVG_HEADER + "</svg>";
-    }
-
-    final StringBuilder buffer = new StringBuilder(16384);
-    buffer.append(String.format(SVG_HEADER, 100, 100, dbl2str(blockSize.getWidth()), dbl2str(blockSize.getHeight()))).append(NEXT_LINE);
-    buffer.append(prepareStylePart(buffer, newConfig)).append(NEXT_LINE);
+      out.text(SVG_HEADER_START).text("0 0").text(SVG_HEADER_END).text("</svg>");
+    } else {
+      out.text(SVG_HEADER_START).number(blockSize.getWidth()).ch(' ').number(blockSize.getHeight()).text(SVG_HEADER_END).text(NEXT_LINE);
+      writeStylePart(out, newConfig);
+      out.text(NEXT_LINE);
 
-    final BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
-    final Graphics2D g = image.createGraphics();
-    final MMGraphics gfx = new SVGMMGraphics(buffer, g);
+      final BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+      final Graphics2D g = image.createGraphics();
+      final MMGraphics gfx = new SVGMMGraphics(out, g);
 
-    gfx.setClip(0, 0, (int) Math.round(blockSize.getWidth()), (int) Math.round(blockSize.getHeight()));
-    try {
-      layoutFullDiagramWithCenteringToPaper(gfx, workMap, newConfig, blockSize);
-      drawOnGraphicsForConfiguration(gfx, newConfig, workMap, false, null);
-    } finally {
-      gfx.dispose();
+      gfx.setClip(0, 0, (int) Math.round(blockSize.getWidth()), (int) Math.round(blockSize.getHeight()));
+      try {
+        layoutFullDiagramWithCenteringToPaper(gfx, workMap, newConfig, blockSize);
+        drawOnGraphicsForConfiguration(gfx, newConfig, workMap, false, null);
+      } finally {
+        gfx.dispose();
+      }
+      out.writeStyleClasses();
+      out.text("</svg>");
     }
-    buffer.append("</svg>");
-
-    return buffer.toString();
+    out.flush();
   }
 
   @Override
   public void doExportToClipboard(@Nonnull final PluginContext context, @Nonnull final JComponent options) throws IOException {
-    final String text = makeContent(context, options);
+    final StringWriter buffer = new StringWriter(16384);
+    writeContent(context, options, buffer);
+    final String text = buffer.toString();
     SwingUtilities.invokeLater(new Runnable() {
       @Override
       public void run() {
@@ -270,8 +286,6 @@ public class SVGImageExporter extends AbstractExporter {
 
   @Override
   public void doExport(@Nonnull final PluginContext context, @Nullable final JComponent options, @Nullable final OutputStream out) throws IOException {
-    final String text = makeContent(context, options);
-
     File fileToSaveMap = null;
     OutputStream theOut = out;
     if (theOut == null) {
@@ -281,11 +295,11 @@ public class SVGImageExporter extends AbstractExporter {
           Texts.getString("SvgExporter.saveDialogTitle"), null,
           ".svg", Texts.getString("SvgExporter.filterDescription"), Texts.getString("SvgExporter.approveButtonText"));
       fileToSaveMap = MindMapUtils.checkFileAndExtension(context.getPanel(), fileToSaveMap, ".svg");//NOI18N
-      theOut = fileToSaveMap == null ? null : new BufferedOutputStream(new FileOutputStream(fileToSaveMap, false));
+      theOut = fileToSaveMap == null ? null : new BufferedOutputStream(new FileOutputStream(fileToSaveMap, false), OUTPUT_BUFFER_SIZE);
     }
     if (theOut != null) {
       try {
-        IOUtils.write(text, theOut, "UTF-8");
+        writeContent(context, options, new BufferedWriter(new OutputStreamWriter(theOut, "UTF-8"), OUTPUT_BUFFER_SIZE)); //NOI18N
       } finally {
         if (fileToSaveMap != null) {
           IOUtils.closeQuietly(theOut);
@@ -294,13 +308,12 @@ public class SVGImageExporter extends AbstractExporter {
     }
   }
 
-  @Nonnull
-  private String prepareStylePart(@Nonnull final StringBuilder buffer, @Nonnull final MindMapPanelConfig config) {
-    final StringBuilder result = new StringBuilder();
-    result.append("<style>").append(NEXT_LINE);
-    result.append('.' + FONT_CLASS_NAME).append(" {").append(NEXT_LINE).append(font2style(config.getFont())).append("}").append(NEXT_LINE);
-    result.append("</style>");
-    return result.toString();
+  private void writeStylePart(@Nonnull final SvgWriter out, @Nonnull final MindMapPanelConfig config) {
+    out.text("<style>").text(NEXT_LINE);
+    out.ch('.').text(FONT_CLASS_NAME).text(" {").text(NEXT_LINE);
+    font2style(out, config.getFont());
+    out.text("}").text(NEXT_LINE);
+    out.text("</style>");
   }
 
   @Override
@@ -383,24 +396,27 @@ public class SVGImageExporter extends AbstractExporter {
 
     private static final String KEY_EXPAND_ALL = "expand.all";
     private static final String KEY_DRAW_BACK = "draw.back";
+    private static final String KEY_STYLE_CLASSES = "style.classes";
     private boolean expandAll;
     private boolean drawBack;
+    private boolean styleClasses;
 
-    private Options(final boolean expandAllNodes, final boolean drawBackground) {
+    private Options(final boolean expandAllNodes, final boolean drawBackground, final boolean styleClasses) {
       this.expandAll = expandAllNodes;
       this.drawBack = drawBackground;
+      this.styleClasses = styleClasses;
     }
 
     @Override
     public boolean doesSupportKey(@Nonnull final String key) {
-      return KEY_DRAW_BACK.equals(key) || KEY_EXPAND_ALL.equals(key);
+      return KEY_DRAW_BACK.equals(key) || KEY_EXPAND_ALL.equals(key) || KEY_STYLE_CLASSES.equals(key);
     }
 
     @Override
     @Nonnull
     @MustNotContainNull
     public String[] getOptionKeys() {
-      return new String[] {KEY_EXPAND_ALL, KEY_DRAW_BACK};
+      return new String[] {KEY_EXPAND_ALL, KEY_DRAW_BACK, KEY_STYLE_CLASSES};
     }
 
     @Override
@@ -412,6 +428,9 @@ public class SVGImageExporter extends AbstractExporter {
       if (KEY_EXPAND_ALL.equals(key)) {
         return "Unfold all topics";
       }
+      if (KEY_STYLE_CLASSES.equals(key)) {
+        return "Use CSS classes for styles";
+      }
       return "";
     }
 
@@ -421,6 +440,8 @@ public class SVGImageExporter extends AbstractExporter {
         this.drawBack = Boolean.parseBoolean(value);
       } else if (KEY_EXPAND_ALL.equals(key)) {
         this.expandAll = Boolean.parseBoolean(value);
+      } else if (KEY_STYLE_CLASSES.equals(key)) {
+        this.styleClasses = Boolean.parseBoolean(value);
       }
     }
 
@@ -433,58 +454,332 @@ public class SVGImageExporter extends AbstractExporter {
       if (KEY_EXPAND_ALL.equals(key)) {
         return Boolean.toString(this.expandAll);
       }
+      if (KEY_STYLE_CLASSES.equals(key)) {
+        return Boolean.toString(this.styleClasses);
+      }
       return null;
     }
 
   }
 
-  private static final class SVGMMGraphics implements MMGraphics {
+  /**
+   * Writer of SVG text, it formats numbers directly into the output without
+   * intermediate strings and keeps registry of images placed into the
+   * document. The first I/O error is remembered and thrown during flush.
+   * In style classes mode, style attributes of elements are replaced by
+   * generated CSS classes written at the end of the document.
+   */
+  static final class SvgWriter {
+
+    private static final long[] POWERS_OF_TEN = new long[] {1L, 10L, 100L, 1000L};
+    private static final String STYLE_CLASS_PREFIX = "s"; //NOI18N
+
+    private final Writer output;
+    private final StringWriter styleBuffer = new StringWriter(256);
+    private final char[] digits = new char[24];
+    private final Map<Image, String> imageIds = new IdentityHashMap<Image, String>();
+    private final Map<String, String> imageIdsForContent = new HashMap<String, String>();
+    private final Map<String, String> styleClasses;
+    private Writer writer;
+    private IOException error;
+
+    SvgWriter(@Nonnull final Writer writer, final boolean styleClasses) {
+      this.output = writer;
+      this.writer = writer;
+      this.styleClasses = styleClasses ? new LinkedHashMap<String, String>() : null;
+    }
+
+    /**
+     * Start collecting of style attributes for an element, all written text is
+     * buffered till {@link #endStyle(String)}.
+     */
+    void beginStyle() {
+      this.styleBuffer.getBuffer().setLength(0);
+      this.writer = this.styleBuffer;
+    }
+
+    /**
+     * End collecting of style attributes and write them either directly or as
+     * reference to a style class.
+     *
+     * @param elementClass class of the element which should be written in the
+     * class attribute, can be null
+     */
+    void endStyle(@Nullable final String elementClass) {
+      this.writer = this.output;
+      final String attributes = this.styleBuffer.toString();
+      if (this.styleClasses == null) {
+        text(attributes);
+        if (elementClass != null) {
+          text(" class=\"").text(elementClass).ch('\"');
+        }
+      } else {
+        final String key = attributes.trim();
+        String styleClass = null;
+        if (!key.isEmpty()) {
+          styleClass = this.styleClasses.get(key);
+          if (styleClass == null) {
+            styleClass = STYLE_CLASS_PREFIX + this.styleClasses.size();
+            this.styleClasses.put(key, styleClass);
+          }
+        }
+        if (elementClass != null || styleClass != null) {
+          text(" class=\"");
+          if (elementClass != null) {
+            text(elementClass);
+            if (styleClass != null) {
+              ch(' ');
+            }
+          }
+          if (styleClass != null) {
+            text(styleClass);
+          }
+          ch('\"');
+        }
+      }
+    }
+
+    /**
+     * Write collected style classes as CSS rules, CSS in SVG is applied to
+     * whole document so that the block can be placed after elements.
+     */
+    void writeStyleClasses() {
+      if (this.styleClasses != null && !this.styleClasses.isEmpty()) {
+        text("<style>").text(NEXT_LINE);
+        for (final Map.Entry<String, String> e : this.styleClasses.entrySet()) {
+          ch('.').text(e.getValue()).text(" {");
+          writeAttributesAsCss(e.getKey());
+          ch('}').text(NEXT_LINE);
+        }
+        text("</style>").text(NEXT_LINE);
+      }
+    }
+
+    private void writeAttributesAsCss(@Nonnull final String attributes) {
+      int index = 0;
+      while (true) {
+        final int eq = attributes.indexOf("=\"", index);
+        if (eq < 0) {
+          break;
+        }
+        final int end = attributes.indexOf('\"', eq + 2);
+        text(attributes.substring(index, eq).trim()).ch(':').text(attributes.substring(eq + 2, end)).ch(';');
+        index = end + 1;
+      }
+    }
+
+    @Nonnull
+    SvgWriter text(@Nonnull final String text) {
+      if (this.error == null) {
+        try {
+          this.writer.write(text);
+        } catch (IOException ex) {
+          this.error = ex;
+        }
+      }
+      return this;
+    }
+
+    @Nonnull
+    SvgWriter ch(final char chr) {
+      if (this.error == null) {
+        try {
+          this.writer.write(chr);
+        } catch (IOException ex) {
+          this.error = ex;
+        }
+      }
+      return this;
+    }
+
+    @Nonnull
+    SvgWriter escaped(@Nonnull final String text) {
+      if (this.error == null) {
+        try {
+          StringEscapeUtils.escapeXml(this.writer, text);
+        } catch (IOException ex) {
+          this.error = ex;
+        }
+      }
+      return this;
+    }
+
+    @Nonnull
+    SvgWriter integer(final long value) {
+      long rest = Math.abs(value);
+      int pos = this.digits.length;
+      do {
+        this.digits[--pos] = (char) ('0' + (int) (rest % 10L));
+        rest /= 10L;
+      } while (rest != 0L);
+      if (value < 0L) {
+        this.digits[--pos] = '-';
+      }
+      if (this.error == null) {
+        try {
+          this.writer.write(this.digits, pos, this.digits.length - pos);
+        } catch (IOException ex) {
+          this.error = ex;
+        }
+      }
+      return this;
+    }
+
+    @Nonnull
+    SvgWriter number(final double value) {
+      return number(value, 3);
+    }
+
+    /**
+     * Write number with limited number of fraction digits, trailing zeros are
+     * not written.
+     *
+     * @param value number to be written
+     * @param fractionDigits max number of fraction digits, from 0 to 3
+     * @return the writer
+     */
+    @Nonnull
+    SvgWriter number(final double value, final int fractionDigits) {
+      if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1.0e15d) {
+        return text(Double.isNaN(value) || Double.isInfinite(value) ? "0" : Double.toString(value));
+      }
+      final long multiplier = POWERS_OF_TEN[fractionDigits];
+      final long scaled = Math.round(Math.abs(value) * multiplier);
+      if (scaled == 0L) {
+        return ch('0');
+      }
+      if (value < 0.0d) {
+        ch('-');
+      }
+      integer(scaled / multiplier);
+      long fraction = scaled % multiplier;
+      if (fraction != 0L) {
+        ch('.');
+        long divider = multiplier / 10L;
+        while (fraction != 0L) {
+          ch((char) ('0' + (int) (fraction / divider)));
+          fraction %= divider;
+          divider /= 10L;
+        }
+      }
+      return this;
+    }
+
+    @Nonnull
+    SvgWriter rgb(@Nonnull final Color color) {
+      return text("rgb(").integer(color.getRed()).ch(',').integer(color.getGreen()).ch(',').integer(color.getBlue()).ch(')');
+    }
+
+    @Nullable
+    String findImageId(@Nonnull final Image image) {
+      return this.imageIds.get(image);
+    }
+
+    /**
+     * Write image definition if there is no image with the same content in the
+     * document.
+     *
+     * @param image image object
+     * @param width image width
+     * @param height image height
+     * @param pngData image content in PNG format
+     * @return identifier of the image definition
+     */
+    @Nonnull
+    String defineImage(@Nonnull final Image image, final int width, final int height, @Nonnull final byte[] pngData) {
+      final String contentKey = makeContentKey(width, height, pngData);
+      String result = this.imageIdsForContent.get(contentKey);
+      if (result == null) {
+        result = "img" + this.imageIdsForContent.size(); //NOI18N
+        this.imageIdsForContent.put(contentKey, result);
+        text("<defs><image id=\"").text(result)
+            .text("\" width=\"").integer(width)
+            .text("\" height=\"").integer(height)
+            .text("\" xlink:href=\"data:image/png;base64,").text(Utils.base64encode(pngData))
+            .text("\"/></defs>").text(NEXT_LINE);
+      }
+      this.imageIds.put(image, result);
+      return result;
+    }
+
+    @Nonnull
+    private static String makeContentKey(final int width, final int height, @Nonnull final byte[] data) {
+      final StringBuilder result = new StringBuilder(48);
+      result.append(width).append('x').append(height).append(':');
+      try {
+        for (final byte b : MessageDigest.getInstance("MD5").digest(data)) { //NOI18N
+          result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+      } catch (NoSuchAlgorithmException ex) {
+        throw new Error("Can't find MD5 digest", ex);
+      }
+      return result.toString();
+    }
+
+    void flush() throws IOException {
+      if (this.error == null) {
+        try {
+          this.writer.flush();
+        } catch (IOException ex) {
+          this.error = ex;
+        }
+      }
+      if (this.error != null) {
+        throw this.error;
+      }
+    }
+  }
+
+  private static final class SVGMMGraphics implements MMGraphics, HasFontRenderContext {
 
-    private static final DecimalFormat ALPHA = new DecimalFormat("#.##");
-    private final StringBuilder buffer;
+    private final SvgWriter out;
     private final Graphics2D context;
     private double translateX;
     private double translateY;
     private float strokeWidth = 1.0f;
     private StrokeType strokeType = StrokeType.SOLID;
 
-    private SVGMMGraphics(@Nonnull final StringBuilder buffer, @Nonnull final Graphics2D context) {
-      this.buffer = buffer;
+    private SVGMMGraphics(@Nonnull final SvgWriter out, @Nonnull final Graphics2D context) {
+      this.out = out;
       this.context = (Graphics2D) context.create();
     }
 
-    @Nonnull
-    private static String svgRgb(@Nonnull final Color color) {
-      return "rgb(" + color.getRed() + ',' + color.getGreen() + ',' + color.getBlue() + ')';
-    }
-
     private void printFillOpacity(@Nonnull final Color color) {
       if (color.getAlpha() < 255) {
-        this.buffer.append(" fill-opacity=\"").append(ALPHA.format(color.getAlpha() / 255.0f)).append("\" ");
+        this.out.text(" fill-opacity=\"").number(color.getAlpha() / 255.0f, 2).text("\" ");
       }
     }
 
-    private void printFontData() {
-      this.buffer.append("class=\"" + FONT_CLASS_NAME + '\"');
-    }
-
     private void printStrokeData(@Nonnull final Color color) {
-      this.buffer.append(" stroke=\"").append(svgRgb(color))
-          .append("\" stroke-width=\"").append(dbl2str(this.strokeWidth)).append("\"");
+      this.out.text(" stroke=\"").rgb(color)
+          .text("\" stroke-width=\"").number(this.strokeWidth).text("\"");
 
       switch (this.strokeType) {
         case SOLID:
-          this.buffer.append(" stroke-linecap=\"round\"");
+          this.out.text(" stroke-linecap=\"round\"");
           break;
         case DASHES:
-          this.buffer.append(" stroke-linecap=\"butt\" stroke-dasharray=\"").append(dbl2str(this.strokeWidth * 3.0f)).append(',').append(dbl2str(this.strokeWidth)).append("\"");
+          this.out.text(" stroke-linecap=\"butt\" stroke-dasharray=\"").number(this.strokeWidth * 3.0f).ch(',').number(this.strokeWidth).text("\"");
           break;
         case DOTS:
-          this.buffer.append(" stroke-linecap=\"butt\" stroke-dasharray=\"").append(dbl2str(this.strokeWidth)).append(',').append(dbl2str(this.strokeWidth * 2.0f)).append("\"");
+          this.out.text(" stroke-linecap=\"butt\" stroke-dasharray=\"").number(this.strokeWidth).ch(',').number(this.strokeWidth * 2.0f).text("\"");
           break;
       }
     }
 
+    private void printFill(@Nullable final Color fill) {
+      if (fill == null) {
+        this.out.text(" fill=\"none\"");
+      } else {
+        this.out.text(" fill=\"").rgb(fill).text("\"");
+        printFillOpacity(fill);
+      }
+    }
+
+    private void printPoint(final double x, final double y) {
+      this.out.number(this.translateX + x).ch(' ').number(this.translateY + y);
+    }
+
     @Override
     public float getFontMaxAscent() {
       return this.context.getFontMetrics().getMaxAscent();
@@ -509,7 +804,7 @@ public class SVGImageExporter extends AbstractExporter {
     @Override
     @Nonnull
     public MMGraphics copy() {
-      final SVGMMGraphics result = new SVGMMGraphics(this.buffer, this.context);
+      final SVGMMGraphics result = new SVGMMGraphics(this.out, this.context);
       result.translateX = this.translateX;
       result.translateY = this.translateY;
       result.strokeType = this.strokeType;
@@ -540,74 +835,67 @@ public class SVGImageExporter extends AbstractExporter {
       if (type != this.strokeType || Float.compare(this.strokeWidth, width) != 0) {
         this.strokeType = type;
         this.strokeWidth = width;
-        if (type != this.strokeType || Float.compare(this.strokeWidth, width) != 0) {
-          this.strokeType = type;
-          this.strokeWidth = width;
-
-          final Stroke stroke;
-
-          switch (type) {
-            case SOLID:
-              stroke = new BasicStroke(width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_MITER);
-              break;
-            case DASHES:
-              stroke = new BasicStroke(width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 10.0f, new float[] {width * 2.0f, width}, 0.0f);
-              break;
-            case DOTS:
-              stroke = new BasicStroke(width, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10.0f, new float[] {width, width * 2.0f}, 0.0f);
-              break;
-            default:
-              throw new Error("Unexpected stroke type : " + type);
-          }
-          this.context.setStroke(stroke);
+
+        final Stroke stroke;
+
+        switch (type) {
+          case SOLID:
+            stroke = new BasicStroke(width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_MITER);
+            break;
+          case DASHES:
+            stroke = new BasicStroke(width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 10.0f, new float[] {width * 2.0f, width}, 0.0f);
+            break;
+          case DOTS:
+            stroke = new BasicStroke(width, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10.0f, new float[] {width, width * 2.0f}, 0.0f);
+            break;
+          default:
+            throw new Error("Unexpected stroke type : " + type);
         }
+        this.context.setStroke(stroke);
       }
     }
 
     @Override
     public void drawLine(final int startX, final int startY, final int endX, final int endY, @Nullable final Color color) {
-      this.buffer.append("<line x1=\"").append(dbl2str(startX + this.translateX))
-          .append("\" y1=\"").append(dbl2str(startY + this.translateY))
-          .append("\" x2=\"").append(dbl2str(endX + this.translateX))
-          .append("\" y2=\"").append(dbl2str(endY + this.translateY)).append("\" ");
+      this.out.text("<line x1=\"").number(startX + this.translateX)
+          .text("\" y1=\"").number(startY + this.translateY)
+          .text("\" x2=\"").number(endX + this.translateX)
+          .text("\" y2=\"").number(endY + this.translateY).text("\" ");
+      this.out.beginStyle();
       if (color != null) {
         printStrokeData(color);
         printFillOpacity(color);
       }
-      this.buffer.append("/>").append(NEXT_LINE);
+      this.out.endStyle(null);
+      this.out.text("/>").text(NEXT_LINE);
     }
 
     @Override
     public void drawString(@Nonnull final String text, final int x, final int y, @Nullable final Color color) {
-      this.buffer.append("<text x=\"").append(dbl2str(this.translateX + x)).append("\" y=\"").append(dbl2str(this.translateY + y)).append('\"');
+      this.out.text("<text x=\"").number(this.translateX + x).text("\" y=\"").number(this.translateY + y).ch('\"');
+      this.out.beginStyle();
       if (color != null) {
-        this.buffer.append(" fill=\"").append(svgRgb(color)).append("\"");
+        this.out.text(" fill=\"").rgb(color).text("\"");
         printFillOpacity(color);
       }
-      this.buffer.append(' ');
-      printFontData();
-      this.buffer.append('>').append(StringEscapeUtils.escapeXml(text)).append("</text>").append(NEXT_LINE);
+      this.out.endStyle(FONT_CLASS_NAME);
+      this.out.ch('>').escaped(text).text("</text>").text(NEXT_LINE);
     }
 
     @Override
     public void drawRect(final int x, final int y, final int width, final int height, final @Nullable Color border, final @Nullable Color fill) {
-      this.buffer.append("<rect x=\"").append(dbl2str(this.translateX + x))
-          .append("\" y=\"").append(dbl2str(translateY + y))
-          .append("\" width=\"").append(dbl2str(width))
-          .append("\" height=\"").append(dbl2str(height))
-          .append("\" ");
+      this.out.text("<rect x=\"").number(this.translateX + x)
+          .text("\" y=\"").number(this.translateY + y)
+          .text("\" width=\"").integer(width)
+          .text("\" height=\"").integer(height)
+          .text("\" ");
+      this.out.beginStyle();
       if (border != null) {
         printStrokeData(border);
       }
-
-      if (fill == null) {
-        this.buffer.append(" fill=\"none\"");
-      } else {
-        this.buffer.append(" fill=\"").append(svgRgb(fill)).append("\"");
-        printFillOpacity(fill);
-      }
-
-      this.buffer.append("/>").append(NEXT_LINE);
+      printFill(fill);
+      this.out.endStyle(null);
+      this.out.text("/>").text(NEXT_LINE);
     }
 
     @Override
@@ -615,59 +903,64 @@ public class SVGImageExporter extends AbstractExporter {
       if (shape instanceof RoundRectangle2D) {
         final RoundRectangle2D rect = (RoundRectangle2D) shape;
 
-        this.buffer.append("<rect x=\"").append(dbl2str(this.translateX + rect.getX()))
-            .append("\" y=\"").append(dbl2str(translateY + rect.getY()))
-            .append("\" width=\"").append(dbl2str(rect.getWidth()))
-            .append("\" height=\"").append(dbl2str(rect.getHeight()))
-            .append("\" rx=\"").append(dbl2str(rect.getArcWidth() / 2.0d))
-            .append("\" ry=\"").append(dbl2str(rect.getArcHeight() / 2.0d))
-            .append("\" ");
+        this.out.text("<rect x=\"").number(this.translateX + rect.getX())
+            .text("\" y=\"").number(this.translateY + rect.getY())
+            .text("\" width=\"").number(rect.getWidth())
+            .text("\" height=\"").number(rect.getHeight())
+            .text("\" rx=\"").number(rect.getArcWidth() / 2.0d)
+            .text("\" ry=\"").number(rect.getArcHeight() / 2.0d)
+            .text("\" ");
 
       } else if (shape instanceof Rectangle2D) {
 
         final Rectangle2D rect = (Rectangle2D) shape;
-        this.buffer.append("<rect x=\"").append(dbl2str(this.translateX + rect.getX()))
-            .append("\" y=\"").append(dbl2str(translateY + rect.getY()))
-            .append("\" width=\"").append(dbl2str(rect.getWidth()))
-            .append("\" height=\"").append(dbl2str(rect.getHeight()))
-            .append("\" ");
+        this.out.text("<rect x=\"").number(this.translateX + rect.getX())
+            .text("\" y=\"").number(this.translateY + rect.getY())
+            .text("\" width=\"").number(rect.getWidth())
+            .text("\" height=\"").number(rect.getHeight())
+            .text("\" ");
 
       } else if (shape instanceof Path2D) {
         final Path2D path = (Path2D) shape;
         final double[] data = new double[6];
 
-        this.buffer.append("<path d=\"");
+        this.out.text("<path d=\"");
 
         boolean nofirst = false;
 
         for (final PathIterator pi = path.getPathIterator(null); !pi.isDone(); pi.next()) {
           if (nofirst) {
-            this.buffer.append(' ');
+            this.out.ch(' ');
           }
           switch (pi.currentSegment(data)) {
             case PathIterator.SEG_MOVETO: {
-              this.buffer.append("M ").append(dbl2str(this.translateX + data[0])).append(' ').append(dbl2str(this.translateY + data[1]));
+              this.out.text("M ");
+              printPoint(data[0], data[1]);
             }
             break;
             case PathIterator.SEG_LINETO: {
-              this.buffer.append("L ").append(dbl2str(this.translateX + data[0])).append(' ').append(dbl2str(this.translateY + data[1]));
+              this.out.text("L ");
+              printPoint(data[0], data[1]);
             }
             break;
             case PathIterator.SEG_CUBICTO: {
-              this.buffer.append("C ")
-                  .append(dbl2str(this.translateX + data[0])).append(' ').append(dbl2str(this.translateY + data[1])).append(',')
-                  .append(dbl2str(this.translateX + data[2])).append(' ').append(dbl2str(this.translateY + data[3])).append(',')
-                  .append(dbl2str(this.translateX + data[4])).append(' ').append(dbl2str(this.translateY + data[5]));
+              this.out.text("C ");
+              printPoint(data[0], data[1]);
+              this.out.ch(',');
+              printPoint(data[2], data[3]);
+              this.out.ch(',');
+              printPoint(data[4], data[5]);
             }
             break;
             case PathIterator.SEG_QUADTO: {
-              this.buffer.append("Q ")
-                  .append(dbl2str(this.translateX + data[0])).append(' ').append(dbl2str(this.translateY + data[1])).append(',')
-                  .append(dbl2str(this.translateX + data[2])).append(' ').append(dbl2str(this.translateY + data[3]));
+              this.out.text("Q ");
+              printPoint(data[0], data[1]);
+              this.out.ch(',');
+              printPoint(data[2], data[3]);
             }
             break;
             case PathIterator.SEG_CLOSE: {
-              this.buffer.append("Z");
+              this.out.ch('Z');
             }
             break;
             default:
@@ -675,40 +968,38 @@ public class SVGImageExporter extends AbstractExporter {
           }
           nofirst = true;
         }
-        this.buffer.append("\" ");
+        this.out.text("\" ");
       } else {
         LOGGER.warn("Detected unexpected shape : " + shape.getClass().getName());
       }
 
+      this.out.beginStyle();
       if (border != null) {
         printStrokeData(border);
       }
-
-      if (fill == null) {
-        this.buffer.append(" fill=\"none\"");
-      } else {
-        this.buffer.append(" fill=\"").append(svgRgb(fill)).append("\"");
-        printFillOpacity(fill);
-      }
-
-      this.buffer.append("/>").append(NEXT_LINE);
+      printFill(fill);
+      this.out.endStyle(null);
+      this.out.text("/>").text(NEXT_LINE);
     }
 
     @Override
     public void drawCurve(final double startX, final double startY, final double endX, final double endY, @Nullable final Color color) {
-      this.buffer.append("<path d=\"M").append(dbl2str(startX + this.translateX)).append(',').append(startY + this.translateY)
-          .append(" C").append(dbl2str(startX))
-          .append(',').append(dbl2str(endY))
-          .append(' ').append(dbl2str(startX))
-          .append(',').append(dbl2str(endY))
-          .append(' ').append(dbl2str(endX))
-          .append(',').append(dbl2str(endY))
-          .append("\" fill=\"none\"");
-
+      this.out.text("<path d=\"M");
+      printPoint(startX, startY);
+      this.out.text(" C");
+      printPoint(startX, endY);
+      this.out.ch(' ');
+      printPoint(startX, endY);
+      this.out.ch(' ');
+      printPoint(endX, endY);
+      this.out.ch('\"');
+      this.out.beginStyle();
+      this.out.text(" fill=\"none\"");
       if (color != null) {
         printStrokeData(color);
       }
-      this.buffer.append(" />").append(NEXT_LINE);
+      this.out.endStyle(null);
+      this.out.text(" />").text(NEXT_LINE);
     }
 
     @Override
@@ -718,42 +1009,41 @@ public class SVGImageExporter extends AbstractExporter {
       final double cx = (double) x + this.translateX + rx;
       final double cy = (double) y + this.translateY + ry;
 
-      this.buffer.append("<ellipse cx=\"").append(dbl2str(cx))
-          .append("\" cy=\"").append(dbl2str(cy))
-          .append("\" rx=\"").append(dbl2str(rx))
-          .append("\" ry=\"").append(dbl2str(ry))
-          .append("\" ");
+      this.out.text("<ellipse cx=\"").number(cx)
+          .text("\" cy=\"").number(cy)
+          .text("\" rx=\"").number(rx)
+          .text("\" ry=\"").number(ry)
+          .text("\" ");
 
+      this.out.beginStyle();
       if (border != null) {
         printStrokeData(border);
       }
-
-      if (fill == null) {
-        this.buffer.append(" fill=\"none\"");
-      } else {
-        this.buffer.append(" fill=\"").append(svgRgb(fill)).append("\"");
-        printFillOpacity(fill);
-      }
-
-      this.buffer.append("/>").append(NEXT_LINE);
+      printFill(fill);
+      this.out.endStyle(null);
+      this.out.text("/>").text(NEXT_LINE);
     }
 
     @Override
     public void drawImage(@Nullable final Image image, final int x, final int y) {
       if (image != null) {
         if (image instanceof RenderedImage) {
-          final RenderedImage ri = (RenderedImage) image;
-          final ByteArrayOutputStream imageBuffer = new ByteArrayOutputStream(1024);
-          try {
-            if (ImageIO.write(ri, "png", imageBuffer)) {
-              this.buffer.append("<image width=\"").append(ri.getWidth()).append("\" height=\"").append(ri.getHeight()).append("\" x=\"").append(dbl2str(this.translateX + x)).append("\" y=\"").append(dbl2str(this.translateY + y)).append("\" xlink:href=\"data:image/png;base64,");
-              this.buffer.append(Utils.base64encode(imageBuffer.toByteArray()));
-              this.buffer.append("\"/>").append(NEXT_LINE);
-            } else {
-              LOGGER.warn("Can't place image because PNG writer is not found");
+          String imageId = this.out.findImageId(image);
+          if (imageId == null) {
+            final RenderedImage ri = (RenderedImage) image;
+            final ByteArrayOutputStream imageBuffer = new ByteArrayOutputStream(1024);
+            try {
+              if (ImageIO.write(ri, "png", imageBuffer)) {
+                imageId = this.out.defineImage(image, ri.getWidth(), ri.getHeight(), imageBuffer.toByteArray());
+              } else {
+                LOGGER.warn("Can't place image because PNG writer is not found");
+              }
+            } catch (IOException ex) {
+              LOGGER.error("Can't place image for error", ex);
             }
-          } catch (IOException ex) {
-            LOGGER.error("Can't place image for error", ex);
+          }
+          if (imageId != null) {
+            this.out.text("<use xlink:href=\"#").text(imageId).text("\" x=\"").number(this.translateX + x).text("\" y=\"").number(this.translateY + y).text("\"/>").text(NEXT_LINE);
           }
         } else {
           LOGGER.warn("Can't place image because it is not rendered one : " + image.getClass().getName());
@@ -761,6 +1051,12 @@ public class SVGImageExporter extends AbstractExporter {
       }
     }
 
+    @Override
+    @Nonnull
+    public FontRenderContext getFontRenderContext() {
+      return this.context.getFontRenderContext();
+    }
+
     @Override
     public void setFont(@Nonnull final Font font) {
       this.context.setFont(font);
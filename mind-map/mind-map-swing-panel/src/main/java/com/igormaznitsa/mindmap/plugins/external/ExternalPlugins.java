@@ -43,12 +43,12 @@ public class ExternalPlugins {
   public ExternalPlugins(@Nonnull final File pluginsFolder) {
     this.pluginApiValidator = new VersionValidator(">=" + MindMapPlugin.API.toString());
     this.pluginsFolder = pluginsFolder;
-    LOGGER.info("External plugins folder is " + pluginsFolder);
+    LOGGER.info("External plugins folder is {}", pluginsFolder);
   }
 
   public void init() {
     final Collection<File> plugins = FileUtils.listFiles(this.pluginsFolder, new String[] {PLUGIN_EXTENSION, PLUGIN_EXTENSION.toUpperCase(Locale.ENGLISH)}, false);
-    LOGGER.info("Detected " + plugins.size() + " plugin(s)");
+    LOGGER.info("Detected {} plugin(s)", plugins.size());
     for (final File plugin : plugins) {
       try {
         final PluginClassLoader loader = AccessController.doPrivileged(new PrivilegedAction<PluginClassLoader>() {
@@ -73,21 +73,21 @@ public class ExternalPlugins {
         final String pluginTitle = GetUtils.ensureNonNull(loader.getAttributes(Attribute.TITLE), "<unknown>");
         final Version pluginVersion = new Version(loader.getAttributes(Attribute.VERSION));
 
-        LOGGER.info(String.format("Detected plugin %s [%s]", pluginTitle, pluginVersion.toString()));
+        LOGGER.info("Detected plugin {} [{}]", pluginTitle, pluginVersion);
         final Version pluginApiVersion = loader.getApiVersion();
         if (this.pluginApiValidator.isValid(pluginApiVersion)) {
-          LOGGER.info(String.format("Plugin %s [%s] is valid for API", pluginTitle, pluginVersion.toString()));
+          LOGGER.info("Plugin {} [{}] is valid for API", pluginTitle, pluginVersion);
           final String[] classes = loader.extractPluginClassNames();
           for (final String klazzName : classes) {
-            LOGGER.info(String.format("Loading plugin class %s from %s", klazzName, pluginTitle));
+            LOGGER.info("Loading plugin class {} from {}", klazzName, pluginTitle);
             final MindMapPlugin pluginInstance = (MindMapPlugin) loader.loadClass(klazzName).newInstance();
             MindMapPluginRegistry.getInstance().registerPlugin(pluginInstance);
           }
         } else {
-          LOGGER.warn(String.format("Plugin %s [%s] is not valid for API : %s", pluginTitle, pluginVersion.toString(), pluginApiVersion.toString()));
+          LOGGER.warn("Plugin {} [{}] is not valid for API : {}", pluginTitle, pluginVersion, pluginApiVersion);
         }
       } catch (Exception ex) {
-        LOGGER.error("Can't load plugin from : " + plugin.getAbsolutePath(), ex);
+        LOGGER.error("Can't load plugin from : {}", plugin.getAbsolutePath(), ex);
       }
     }
   }
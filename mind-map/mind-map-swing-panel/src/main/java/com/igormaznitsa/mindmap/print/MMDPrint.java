@@ -24,11 +24,11 @@ import static com.igormaznitsa.mindmap.swing.panel.MindMapPanel.drawOnGraphicsFo
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.common.utils.Assertions;
 import com.igormaznitsa.mindmap.model.MindMap;
-import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanel;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
 import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
 import java.awt.Color;
@@ -97,6 +97,8 @@ public class MMDPrint {
       }
 
       final Image imageToDraw;
+      Dimension2D mapSize = null;
+      double mapScale = 1.0d;
 
       final double SCALE_STEP = 0.01d;
 
@@ -118,16 +120,10 @@ public class MMDPrint {
               pvert = 1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
             }
 
-            if (drawAsImage) {
-              imageToDraw = Assertions.assertNotNull("Can't raster map as image", MindMapPanel.renderMindMapAsImage(theModel, cfg, false, RenderQuality.QUALITY));
-              int phorz = 1 + imageToDraw.getWidth(null) / (paperWidthInPixels + 1);
-              pvert = 1 + imageToDraw.getHeight(null) / (paperHeightInPixels + 1);
-              offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, new Dimension(imageToDraw.getWidth(null), imageToDraw.getHeight(null)));
-            } else {
-              imageToDraw = null;
-              final int phorz = 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
-              offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, calculatedSize);
-            }
+            imageToDraw = null;
+            mapSize = calculatedSize;
+            final int phorz = 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
+            offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, calculatedSize);
           } else if (printableObject.isImage()) {
             final int neededHeight = options.getPagesInColumn() * paperHeightInPixels;
             imageToDraw = makeScaledInstance(printableObject.getImage(), (float) neededHeight / (float) printableObject.getImage().getHeight(null));
@@ -154,16 +150,10 @@ public class MMDPrint {
               phorz = 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
             }
 
-            if (drawAsImage) {
-              imageToDraw = Assertions.assertNotNull("Can't raster map as image", MindMapPanel.renderMindMapAsImage(theModel, cfg, false, RenderQuality.QUALITY));
-              int pvert = 1 + imageToDraw.getHeight(null) / (paperHeightInPixels + 1);
-              phorz = 1 + imageToDraw.getWidth(null) / (paperWidthInPixels + 1);
-              offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, new Dimension(imageToDraw.getWidth(null), imageToDraw.getHeight(null)));
-            } else {
-              imageToDraw = null;
-              final int pvert = 1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
-              offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, calculatedSize);
-            }
+            imageToDraw = null;
+            mapSize = calculatedSize;
+            final int pvert = 1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
+            offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, calculatedSize);
           } else if (printableObject.isImage()) {
             final int neededWidth = options.getPagesInRow() * paperWidthInPixels;
             imageToDraw = makeScaledInstance(printableObject.getImage(), (float) neededWidth / (float) printableObject.getImage().getWidth(null));
@@ -193,28 +183,16 @@ public class MMDPrint {
               pvert = 1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
             }
 
+            imageToDraw = null;
+            mapSize = calculatedSize;
             if (phorz > 1 || pvert > 1) {
               // we have to scale to fit only page
-              final BufferedImage image = MindMapPanel.renderMindMapAsImage(theModel, cfg, false, RenderQuality.QUALITY);
-              if (image != null) {
-                if (phorz > 1) {
-                  imageToDraw = image.getScaledInstance(paperWidthInPixels * image.getHeight() / image.getWidth(), paperHeightInPixels, Image.SCALE_SMOOTH);
-                } else {
-                  imageToDraw = image.getScaledInstance(paperWidthInPixels, paperHeightInPixels * image.getWidth() / image.getHeight(), Image.SCALE_SMOOTH);
-                }
-                offsetOfImage = new Point(Math.max(0, (paperWidthInPixels - imageToDraw.getWidth(null)) / 2), Math.max(0, (paperHeightInPixels - imageToDraw.getHeight(null)) / 2));
-              } else {
-                imageToDraw = null;
-                offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, calculatedSize);
-              }
+              mapScale = Math.min((double) paperWidthInPixels / calculatedSize.getWidth(), (double) paperHeightInPixels / calculatedSize.getHeight());
+              offsetOfImage = new Point(
+                  Math.max(0, (paperWidthInPixels - (int) Math.round(calculatedSize.getWidth() * mapScale)) / 2),
+                  Math.max(0, (paperHeightInPixels - (int) Math.round(calculatedSize.getHeight() * mapScale)) / 2));
             } else {
-              if (drawAsImage) {
-                imageToDraw = Assertions.assertNotNull("Can't raster map as image", MindMapPanel.renderMindMapAsImage(theModel, cfg, false, RenderQuality.QUALITY));
-                offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, new Dimension(imageToDraw.getWidth(null), imageToDraw.getHeight(null)));
-              } else {
-                imageToDraw = null;
-                offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, calculatedSize);
-              }
+              offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, calculatedSize);
             }
           } else if (printableObject.isImage()) {
             final float hrzrScale = (float) paperWidthInPixels / (float) printableObject.getImage().getWidth(null);
@@ -242,13 +220,9 @@ public class MMDPrint {
             final int phorz = 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
             final int pvert = 1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
 
-            if (drawAsImage) {
-              imageToDraw = Assertions.assertNotNull("Can't raster map as image", MindMapPanel.renderMindMapAsImage(theModel, cfg, false, RenderQuality.QUALITY));
-              offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, new Dimension(imageToDraw.getWidth(null), imageToDraw.getHeight(null)));
-            } else {
-              imageToDraw = null;
-              offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, calculatedSize);
-            }
+            imageToDraw = null;
+            mapSize = calculatedSize;
+            offsetOfImage = calcOffsetImage(phorz, pvert, paperWidthInPixels, paperHeightInPixels, calculatedSize);
           } else if (printableObject.isImage()) {
             imageToDraw = makeScaledInstance(printableObject.getImage(), (float) scale);
             final int phorz = 1 + imageToDraw.getWidth(null) / (paperWidthInPixels + 1);
@@ -283,46 +257,16 @@ public class MMDPrint {
             };
           }
         }
-      } else {
+      } else if (mapSize != null && theModel.getRoot() != null) {
+        final MapLayout layout = new MapLayout(theModel, cfg, mapSize, mapScale, offsetOfImage, paperWidthInPixels, paperHeightInPixels, drawAsImage);
 
-        cfg.setScale(scale);
+        final int pagesHorz = 1 + layout.mapWidth / (paperWidthInPixels + 1);
+        final int pagesVert = 1 + layout.mapHeight / (paperHeightInPixels + 1);
 
-        final Dimension2D modelImageSize = calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY);
-
-        if (theModel.getRoot() != null && modelImageSize != null) {
-          final int modelWidth = (int) Math.round(modelImageSize.getWidth());
-          final int modelHeight = (int) Math.round(modelImageSize.getHeight());
-          int pagesHorz = 1 + modelWidth / (paperWidthInPixels + 1);
-          int pagesVert = 1 + modelHeight / (paperHeightInPixels + 1);
-
-          pgs = new PrintPage[pagesVert][pagesHorz];
-          for (int y = 0; y < pagesVert; y++) {
-            for (int x = 0; x < pagesHorz; x++) {
-              final int pageX = x;
-              final int pageY = y;
-
-              pgs[pageY][pageX] = new PrintPage() {
-                @Override
-                public void print(@Nonnull final Graphics g) {
-                  final Topic root = theModel.getRoot();
-                  if (root == null) {
-                    return;
-                  }
-
-                  final Graphics2D gfx = (Graphics2D) g.create();
-                  RenderQuality.QUALITY.prepare(gfx);
-
-                  MindMapPanel.layoutFullDiagramWithCenteringToPaper(new MMGraphics2DWrapper(gfx), theModel, cfg, modelImageSize);
-
-                  gfx.translate(offsetOfImage.x - pageX * paperWidthInPixels, offsetOfImage.y - pageY * paperHeightInPixels);
-                  try {
-                    drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), cfg, theModel, false, null);
-                  } finally {
-                    gfx.dispose();
-                  }
-                }
-              };
-            }
+        pgs = new PrintPage[pagesVert][pagesHorz];
+        for (int y = 0; y < pagesVert; y++) {
+          for (int x = 0; x < pagesHorz; x++) {
+            pgs[y][x] = new MapPage(layout, x, y);
           }
         }
       }
@@ -330,6 +274,90 @@ public class MMDPrint {
     this.pages = pgs;
   }
 
+  /**
+   * Mind map laid out once for all its pages. Pages are rendered on demand
+   * from the layout, so that memory doesn't depend on the map size.
+   */
+  private static final class MapLayout {
+
+    private final MindMap model;
+    private final MindMapPanelConfig config;
+    private final double scale;
+    private final Point offset;
+    private final int mapWidth;
+    private final int mapHeight;
+    private final int paperWidth;
+    private final int paperHeight;
+    private final boolean raster;
+
+    private MapLayout(@Nonnull final MindMap model, @Nonnull final MindMapPanelConfig config, @Nonnull final Dimension2D mapSize, final double scale, @Nonnull final Point offset, final int paperWidth, final int paperHeight, final boolean raster) {
+      this.model = model;
+      this.config = config;
+      this.scale = scale;
+      this.offset = offset;
+      this.mapWidth = (int) Math.round(mapSize.getWidth() * scale);
+      this.mapHeight = (int) Math.round(mapSize.getHeight() * scale);
+      this.paperWidth = paperWidth;
+      this.paperHeight = paperHeight;
+      this.raster = raster;
+
+      final Graphics2D gfx = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+      final MMGraphics layoutGfx = new MMGraphics2DWrapper(gfx);
+      try {
+        RenderQuality.QUALITY.prepare(gfx);
+        MindMapPanel.layoutFullDiagramWithCenteringToPaper(layoutGfx, model, config, mapSize);
+      } finally {
+        layoutGfx.dispose();
+      }
+    }
+
+    private void render(@Nonnull final Graphics2D gfx, final int pageX, final int pageY) {
+      RenderQuality.QUALITY.prepare(gfx);
+      gfx.clipRect(0, 0, this.paperWidth, this.paperHeight);
+      gfx.translate(this.offset.x - pageX * this.paperWidth, this.offset.y - pageY * this.paperHeight);
+      gfx.clipRect(0, 0, this.mapWidth, this.mapHeight);
+      if (Double.compare(this.scale, 1.0d) != 0) {
+        gfx.scale(this.scale, this.scale);
+      }
+      drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), this.config, this.model, false, null);
+    }
+  }
+
+  private static final class MapPage implements PrintPage {
+
+    private final MapLayout layout;
+    private final int pageX;
+    private final int pageY;
+
+    private MapPage(@Nonnull final MapLayout layout, final int pageX, final int pageY) {
+      this.layout = layout;
+      this.pageX = pageX;
+      this.pageY = pageY;
+    }
+
+    @Override
+    public void print(@Nonnull final Graphics g) {
+      final Graphics2D gfx = (Graphics2D) g.create();
+      try {
+        if (this.layout.raster) {
+          final BufferedImage image = new BufferedImage(this.layout.paperWidth, this.layout.paperHeight, BufferedImage.TYPE_INT_ARGB);
+          final Graphics2D imageGfx = image.createGraphics();
+          try {
+            this.layout.render(imageGfx, this.pageX, this.pageY);
+          } finally {
+            imageGfx.dispose();
+          }
+          RenderQuality.QUALITY.prepare(gfx);
+          gfx.drawImage(image, 0, 0, null);
+        } else {
+          this.layout.render(gfx, this.pageX, this.pageY);
+        }
+      } finally {
+        gfx.dispose();
+      }
+    }
+  }
+
   @Nonnull
   private static Point calcOffsetImage(final int pagesHorz, final int pagesVert, final int paperWidthInPixels, final int paperHeighInPixels, @Nonnull final Dimension2D calculatedSize) {
     int x = 0;
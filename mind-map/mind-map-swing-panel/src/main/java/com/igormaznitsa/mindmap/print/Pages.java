@@ -20,9 +20,14 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.awt.print.PageFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.swing.JPanel;
 
@@ -33,7 +38,9 @@ class Pages extends JPanel {
   private static final int INTERVAL_Y = 25;
   private static final int SHADOW_X = 10;
   private static final int SHADOW_Y = 10;
+  private static final int THUMBNAIL_CACHE_PIXELS = 16 * 1024 * 1024;
   private final MMDPrintPanel parent;
+  private final ThumbnailCache thumbnails = new ThumbnailCache();
 
   public Pages(@Nonnull final MMDPrintPanel parent) {
     this.parent = parent;
@@ -105,10 +112,19 @@ class Pages extends JPanel {
 
     final boolean drawBorder = this.parent.isDrawBorder();
 
+    final Rectangle clipBounds = gfx.getClipBounds();
+    this.thumbnails.prepare(allPages, scale, AREA_WIDTH, AREA_HEIGHT);
+
     gfx.scale(scale, scale);
-    for (final PrintPage[] pages : allPages) {
+    for (int row = 0; row < allPages.length; row++) {
+      final PrintPage[] pages = allPages[row];
       int x = INTERVAL_X;
-      for (final PrintPage p : pages) {
+      for (int col = 0; col < pages.length; col++) {
+        if (clipBounds != null && !clipBounds.intersects((x - 1) * scale, (y - 1) * scale, (PAGE_WIDTH + SHADOW_X + 2) * scale, (PAGE_HEIGHT + SHADOW_Y + 2) * scale)) {
+          x += INTERVAL_X + PAGE_WIDTH;
+          continue;
+        }
+
         gfx.translate(x, y);
 
         gfx.setColor(SHADOW);
@@ -120,10 +136,7 @@ class Pages extends JPanel {
 
         gfx.translate(AREA_X, AREA_Y);
 
-        final Graphics2D gfxCopy = (Graphics2D) gfx.create();
-        gfxCopy.clip(pageArea);
-        p.print(gfxCopy);
-        gfxCopy.dispose();
+        gfx.drawImage(this.thumbnails.find(row, col, pages[col]), AffineTransform.getScaleInstance(1.0d / scale, 1.0d / scale), null);
 
         if (drawBorder) {
           final Stroke oldStroke = gfx.getStroke();
@@ -144,4 +157,52 @@ class Pages extends JPanel {
 
     paintBorder(g);
   }
+
+  /**
+   * Cache of page images rendered at preview scale. Only recently painted
+   * pages are kept, the cache is reset if pages or preview scale are
+   * changed.
+   */
+  private static final class ThumbnailCache {
+
+    private final Map<Long, BufferedImage> images = new LinkedHashMap<Long, BufferedImage>(64, 0.75f, true);
+    private PrintPage[][] pages;
+    private double scale;
+    private int width;
+    private int height;
+    private int maxImages;
+
+    void prepare(@Nonnull final PrintPage[][] pages, final double scale, final double areaWidth, final double areaHeight) {
+      if (this.pages != pages || Double.compare(this.scale, scale) != 0) {
+        this.images.clear();
+        this.pages = pages;
+        this.scale = scale;
+        this.width = Math.max(1, (int) Math.ceil(areaWidth * scale));
+        this.height = Math.max(1, (int) Math.ceil(areaHeight * scale));
+        this.maxImages = Math.max(4, THUMBNAIL_CACHE_PIXELS / Math.max(1, this.width * this.height));
+      }
+    }
+
+    @Nonnull
+    BufferedImage find(final int row, final int col, @Nonnull final PrintPage page) {
+      final Long key = ((long) row << 32) | (col & 0xFFFFFFFFL);
+      BufferedImage result = this.images.get(key);
+      if (result == null) {
+        result = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D gfx = result.createGraphics();
+        try {
+          gfx.clipRect(0, 0, this.width, this.height);
+          gfx.scale(this.scale, this.scale);
+          page.print(gfx);
+        } finally {
+          gfx.dispose();
+        }
+        this.images.put(key, result);
+        while (this.images.size() > this.maxImages) {
+          this.images.remove(this.images.keySet().iterator().next());
+        }
+      }
+      return result;
+    }
+  }
 }
@@ -19,6 +19,7 @@ package com.igormaznitsa.mindmap.swing.panel;
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.mindmap.model.Extra;
 import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.MountedSubMap;
 import com.igormaznitsa.mindmap.model.Topic;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
@@ -55,7 +56,13 @@ public class MMDTopicsTransferable implements Transferable {
     final MindMap fakeMap = new MindMap(false);
 
     for (int i = 0; i < topics.length; i++) {
-      this.topics[i] = new Topic(fakeMap, topics[i], true);
+      final Topic copy = new Topic(fakeMap, topics[i], true);
+      if (topics[i].isMounted()) {
+        MountedSubMap.detach(copy);
+      } else {
+        MountedSubMap.unmount(copy);
+      }
+      this.topics[i] = copy;
     }
   }
 
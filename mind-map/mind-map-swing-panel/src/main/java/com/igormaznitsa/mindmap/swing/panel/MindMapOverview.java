@@ -0,0 +1,484 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
+import com.igormaznitsa.mindmap.swing.panel.utils.KeyEventType;
+import java.awt.Color;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.swing.JComponent;
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * Overview navigator for mind map panel. It shows the whole map from a low
+ * resolution raster and a rectangle of the visible area of the panel
+ * viewport, the rectangle can be dragged by mouse to scroll the panel. The
+ * raster is rendered in background thread from copies of elements laid out by
+ * the panel with level of detail drawing and refreshed after changes of the panel with
+ * some delay, so that series of changes cause single rendering. Listeners are
+ * registered only while the overview is shown.
+ *
+ * @since 1.4.8
+ */
+public class MindMapOverview extends JComponent {
+
+  private static final long serialVersionUID = -3458457128542017384L;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MindMapOverview.class);
+
+  private static final int REFRESH_DELAY = 300;
+  private static final Color VIEW_AREA_FILL = new Color(0x30808080, true);
+
+  private final MindMapPanel panel;
+  private final Timer refreshTimer;
+  private final MindMapListener panelListener;
+  private final ComponentAdapter panelComponentListener;
+  private final HierarchyListener panelHierarchyListener;
+  private final ChangeListener viewportListener;
+
+  private transient ExecutorService renderExecutor;
+  private transient BufferedImage raster;
+  private transient double rasterScale;
+  private transient boolean installed;
+  private transient long renderId;
+  private transient JViewport viewport;
+
+  public MindMapOverview(@Nonnull final MindMapPanel panel) {
+    super();
+    this.panel = panel;
+    this.setOpaque(true);
+    this.setPreferredSize(new Dimension(200, 150));
+
+    this.refreshTimer = new Timer(REFRESH_DELAY, new ActionListener() {
+      @Override
+      public void actionPerformed(@Nonnull final ActionEvent e) {
+        startRendering();
+      }
+    });
+    this.refreshTimer.setRepeats(false);
+
+    this.panelListener = new MindMapListener() {
+      @Override
+      public void onMindMapModelChanged(@Nonnull final MindMapPanel source, final boolean saveToHistory) {
+        scheduleRefresh();
+      }
+
+      @Override
+      public void onComponentElementsLayouted(@Nonnull final MindMapPanel source, @Nonnull final Graphics2D g) {
+        scheduleRefresh();
+      }
+
+      @Override
+      public void onMindMapModelRealigned(@Nonnull final MindMapPanel source, @Nonnull final Dimension coveredAreaSize) {
+        scheduleRefresh();
+      }
+
+      @Override
+      public void onEnsureVisibilityOfTopic(@Nonnull final MindMapPanel source, @Nonnull final Topic topic) {
+      }
+
+      @Override
+      public void onTopicCollapsatorClick(@Nonnull final MindMapPanel source, @Nonnull final Topic topic, final boolean beforeAction) {
+      }
+
+      @Override
+      public void onScaledByMouse(@Nonnull final MindMapPanel source, @Nonnull final Point mousePoint, final double oldScale, final double newScale, @Nonnull final Dimension oldSize, @Nonnull final Dimension newSize) {
+        scheduleRefresh();
+      }
+
+      @Override
+      public void onClickOnExtra(@Nonnull final MindMapPanel source, final int modifiers, final int clicks, @Nonnull final Topic topic, @Nonnull final Extra<?> extra) {
+      }
+
+      @Override
+      public void onChangedSelection(@Nonnull final MindMapPanel source, @Nonnull @MustNotContainNull final Topic[] currentSelectedTopics) {
+      }
+
+      @Override
+      public boolean allowedRemovingOfTopics(@Nonnull final MindMapPanel source, @Nonnull @MustNotContainNull final Topic[] topics) {
+        return true;
+      }
+
+      @Override
+      public void onNonConsumedKeyEvent(@Nonnull final MindMapPanel source, @Nonnull final KeyEvent event, @Nonnull final KeyEventType type) {
+      }
+    };
+
+    this.panelComponentListener = new ComponentAdapter() {
+      @Override
+      public void componentResized(@Nonnull final ComponentEvent e) {
+        scheduleRefresh();
+      }
+    };
+
+    this.panelHierarchyListener = new HierarchyListener() {
+      @Override
+      public void hierarchyChanged(@Nonnull final HierarchyEvent e) {
+        if ((e.getChangeFlags() & HierarchyEvent.PARENT_CHANGED) != 0) {
+          bindViewport();
+        }
+      }
+    };
+
+    this.viewportListener = new ChangeListener() {
+      @Override
+      public void stateChanged(@Nonnull final ChangeEvent e) {
+        repaint();
+      }
+    };
+
+    final MouseAdapter mouseListener = new MouseAdapter() {
+      @Override
+      public void mousePressed(@Nonnull final MouseEvent e) {
+        if (SwingUtilities.isLeftMouseButton(e)) {
+          centerViewAt(e.getPoint());
+        }
+      }
+
+      @Override
+      public void mouseDragged(@Nonnull final MouseEvent e) {
+        if (SwingUtilities.isLeftMouseButton(e)) {
+          panel.markInteraction();
+          centerViewAt(e.getPoint());
+        }
+      }
+    };
+
+    this.addMouseListener(mouseListener);
+    this.addMouseMotionListener(mouseListener);
+
+    this.addComponentListener(new ComponentAdapter() {
+      @Override
+      public void componentResized(@Nonnull final ComponentEvent e) {
+        scheduleRefresh();
+      }
+    });
+
+  }
+
+  @Override
+  public void addNotify() {
+    super.addNotify();
+    install();
+  }
+
+  @Override
+  public void removeNotify() {
+    uninstall();
+    super.removeNotify();
+  }
+
+  private void install() {
+    if (!this.installed && !this.panel.isDisposed()) {
+      this.installed = true;
+      this.panel.addMindMapListener(this.panelListener);
+      this.panel.addComponentListener(this.panelComponentListener);
+      this.panel.addHierarchyListener(this.panelHierarchyListener);
+      bindViewport();
+      scheduleRefresh();
+    }
+  }
+
+  private void uninstall() {
+    this.refreshTimer.stop();
+    this.renderId++;
+    if (this.installed) {
+      this.installed = false;
+      this.panel.removeMindMapListener(this.panelListener);
+      this.panel.removeComponentListener(this.panelComponentListener);
+      this.panel.removeHierarchyListener(this.panelHierarchyListener);
+    }
+    if (this.viewport != null) {
+      this.viewport.removeChangeListener(this.viewportListener);
+      this.viewport = null;
+    }
+    if (this.renderExecutor != null) {
+      this.renderExecutor.shutdownNow();
+      this.renderExecutor = null;
+    }
+  }
+
+  /**
+   * Get the mind map panel shown by the overview.
+   *
+   * @return the panel, must not be null
+   */
+  @Nonnull
+  public MindMapPanel getPanel() {
+    return this.panel;
+  }
+
+  /**
+   * Request refresh of the overview raster, the raster will be rendered after
+   * short delay.
+   */
+  public void scheduleRefresh() {
+    if (SwingUtilities.isEventDispatchThread()) {
+      this.refreshTimer.restart();
+    } else {
+      SwingUtilities.invokeLater(new Runnable() {
+        @Override
+        public void run() {
+          refreshTimer.restart();
+        }
+      });
+    }
+  }
+
+  /**
+   * Release resources and remove all listeners registered by the overview.
+   */
+  public void dispose() {
+    uninstall();
+    this.raster = null;
+  }
+
+  private void bindViewport() {
+    final Container parent = this.panel.getParent();
+    final JViewport newViewport = parent instanceof JViewport ? (JViewport) parent : null;
+    if (newViewport != this.viewport) {
+      if (this.viewport != null) {
+        this.viewport.removeChangeListener(this.viewportListener);
+      }
+      this.viewport = newViewport;
+      if (this.viewport != null) {
+        this.viewport.addChangeListener(this.viewportListener);
+      }
+      repaint();
+    }
+  }
+
+  @Nullable
+  private Rectangle findRasterArea(@Nullable final BufferedImage image) {
+    if (image == null) {
+      return null;
+    }
+    final int x = (this.getWidth() - image.getWidth()) / 2;
+    final int y = (this.getHeight() - image.getHeight()) / 2;
+    return new Rectangle(x, y, image.getWidth(), image.getHeight());
+  }
+
+  private void centerViewAt(@Nonnull final Point point) {
+    final JViewport theViewport = this.viewport;
+    final Rectangle area = findRasterArea(this.raster);
+    if (theViewport == null || area == null || area.isEmpty()) {
+      return;
+    }
+
+    final Dimension viewSize = this.panel.getSize();
+    final Dimension extent = theViewport.getExtentSize();
+
+    final Point2D viewPoint = mapRasterToView(point, area, this.rasterScale);
+    final double viewX = viewPoint.getX();
+    final double viewY = viewPoint.getY();
+
+    final int newX = (int) Math.round(Math.max(0.0d, Math.min(viewSize.getWidth() - extent.getWidth(), viewX - extent.getWidth() / 2.0d)));
+    final int newY = (int) Math.round(Math.max(0.0d, Math.min(viewSize.getHeight() - extent.getHeight(), viewY - extent.getHeight() / 2.0d)));
+
+    theViewport.setViewPosition(new Point(newX, newY));
+  }
+
+  /**
+   * Calculate uniform scale to show panel inside overview area.
+   *
+   * @param overviewSize size of overview area
+   * @param panelSize    size of the panel
+   * @return scale for both axes
+   */
+  static double calcRasterScale(@Nonnull final Dimension overviewSize, @Nonnull final Dimension panelSize) {
+    return Math.min(overviewSize.getWidth() / panelSize.getWidth(), overviewSize.getHeight() / panelSize.getHeight());
+  }
+
+  /**
+   * Map visible rectangle of the panel to the overview.
+   *
+   * @param view  visible rectangle in panel coordinates
+   * @param area  area of the raster in the overview
+   * @param scale scale used for the raster rendering
+   * @return rectangle in overview coordinates
+   */
+  @Nonnull
+  static Rectangle mapViewToRaster(@Nonnull final Rectangle view, @Nonnull final Rectangle area, final double scale) {
+    final int x = area.x + (int) Math.round(view.x * scale);
+    final int y = area.y + (int) Math.round(view.y * scale);
+    final int w = Math.max(2, (int) Math.round(view.width * scale));
+    final int h = Math.max(2, (int) Math.round(view.height * scale));
+    return new Rectangle(x, y, w, h);
+  }
+
+  /**
+   * Map point of the overview to panel coordinates.
+   *
+   * @param point point in overview coordinates
+   * @param area  area of the raster in the overview
+   * @param scale scale used for the raster rendering
+   * @return point in panel coordinates
+   */
+  @Nonnull
+  static Point2D mapRasterToView(@Nonnull final Point point, @Nonnull final Rectangle area, final double scale) {
+    return new Point2D.Double((point.getX() - area.x) / scale, (point.getY() - area.y) / scale);
+  }
+
+  private void startRendering() {
+    final int width = this.getWidth();
+    final int height = this.getHeight();
+
+    if (this.panel.isDisposed() || width <= 0 || height <= 0 || this.panel.getWidth() <= 0 || this.panel.getHeight() <= 0) {
+      return;
+    }
+
+    if (this.panel.getModel().getRoot() == null) {
+      this.raster = null;
+      repaint();
+      return;
+    }
+
+    // elements of invalidated panel are created during its painting, so that they are made here if the panel has not been painted yet
+    this.panel.updateElementsAndSizeForCurrentGraphics(false, false);
+
+    final double scale = calcRasterScale(new Dimension(width, height), this.panel.getSize());
+    final int rasterWidth = Math.max(1, (int) Math.round(this.panel.getWidth() * scale));
+    final int rasterHeight = Math.max(1, (int) Math.round(this.panel.getHeight() * scale));
+
+    // elements are already scaled by the panel, so that only level of detail drawing is forced
+    final MindMapPanelConfig cfg = new MindMapPanelConfig(this.panel.getConfiguration(), false);
+    cfg.setLodGreekTextScale(Double.MAX_VALUE);
+    cfg.setLodHideImagesScale(Double.MAX_VALUE);
+    cfg.setLodSimpleConnectorsScale(Double.MAX_VALUE);
+    cfg.setDropShadow(false);
+    cfg.setDrawBackground(false);
+
+    final long id = ++this.renderId;
+
+    if (this.renderExecutor == null) {
+      this.renderExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        @Nonnull
+        public Thread newThread(@Nonnull final Runnable runnable) {
+          final Thread result = new Thread(runnable, "mmd-overview-render"); //NOI18N
+          result.setDaemon(true);
+          return result;
+        }
+      });
+    }
+
+    this.renderExecutor.submit(new Runnable() {
+      @Override
+      public void run() {
+        final BufferedImage image = new BufferedImage(rasterWidth, rasterHeight, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D gfx = image.createGraphics();
+        boolean rendered = false;
+        try {
+          gfx.setColor(cfg.getPaperColor());
+          gfx.fillRect(0, 0, rasterWidth, rasterHeight);
+          gfx.setClip(0, 0, rasterWidth, rasterHeight);
+          cfg.getRenderQuality().prepare(gfx);
+          gfx.scale(scale, scale);
+
+          // elements of the panel are changed only under its lock, so that they are copied under the lock and drawn without it
+          MindMap laidOutCopy = null;
+          if (panel.lockIfNotDisposed()) {
+            try {
+              laidOutCopy = MindMapPanel.makeLaidOutCopy(panel.getModel());
+            } finally {
+              panel.unlock();
+            }
+          }
+          if (laidOutCopy != null) {
+            MindMapPanel.drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), cfg, laidOutCopy, false, null);
+            rendered = true;
+          }
+        } catch (Exception ex) {
+          LOGGER.error("Error during overview rendering", ex); //NOI18N
+        } finally {
+          gfx.dispose();
+        }
+
+        final boolean done = rendered;
+        SwingUtilities.invokeLater(new Runnable() {
+          @Override
+          public void run() {
+            if (id == renderId) {
+              if (done) {
+                raster = image;
+                rasterScale = scale;
+                repaint();
+              } else {
+                // elements have been invalidated during rendering
+                scheduleRefresh();
+              }
+            }
+          }
+        });
+      }
+    });
+  }
+
+  @Override
+  protected void paintComponent(@Nonnull final Graphics g) {
+    final Graphics2D gfx = (Graphics2D) g;
+    gfx.setColor(this.getBackground() == null ? Color.LIGHT_GRAY : this.getBackground());
+    gfx.fillRect(0, 0, this.getWidth(), this.getHeight());
+
+    final BufferedImage image = this.raster;
+    final Rectangle area = findRasterArea(image);
+    if (area == null) {
+      return;
+    }
+    gfx.drawImage(image, area.x, area.y, null);
+
+    final JViewport theViewport = this.viewport;
+    if (theViewport != null) {
+      final Rectangle view = mapViewToRaster(theViewport.getViewRect(), area, this.rasterScale);
+      gfx.setColor(VIEW_AREA_FILL);
+      gfx.fillRect(view.x, view.y, view.width, view.height);
+      gfx.setColor(this.panel.getConfiguration().getSelectLineColor());
+      gfx.drawRect(view.x, view.y, view.width - 1, view.height - 1);
+    }
+  }
+}
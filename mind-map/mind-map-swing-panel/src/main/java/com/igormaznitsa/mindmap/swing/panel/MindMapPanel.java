@@ -28,7 +28,10 @@ import com.igormaznitsa.mindmap.model.ExtraLink;
 import com.igormaznitsa.mindmap.model.ExtraNote;
 import com.igormaznitsa.mindmap.model.ExtraTopic;
 import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.MindMapModelEvent;
+import com.igormaznitsa.mindmap.model.MindMapModelEventListener;
 import com.igormaznitsa.mindmap.model.ModelUtils;
+import com.igormaznitsa.mindmap.model.MountedSubMap;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.model.TopicChecker;
 import com.igormaznitsa.mindmap.model.logger.Logger;
@@ -44,17 +47,21 @@ import com.igormaznitsa.mindmap.swing.panel.ui.ElementLevelFirst;
 import com.igormaznitsa.mindmap.swing.panel.ui.ElementLevelOther;
 import com.igormaznitsa.mindmap.swing.panel.ui.ElementPart;
 import com.igormaznitsa.mindmap.swing.panel.ui.ElementRoot;
+import com.igormaznitsa.mindmap.swing.panel.ui.ElementSpatialIndex;
 import com.igormaznitsa.mindmap.swing.panel.ui.MouseSelectedArea;
+import com.igormaznitsa.mindmap.swing.panel.ui.RenderTileCache;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.StrokeType;
 import com.igormaznitsa.mindmap.swing.panel.utils.KeyEventType;
 import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
+import com.igormaznitsa.mindmap.swing.panel.utils.PngStreamWriter;
 import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
 import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
 import com.igormaznitsa.mindmap.swing.services.UIComponentFactory;
 import com.igormaznitsa.mindmap.swing.services.UIComponentFactoryProvider;
 import java.awt.AWTEvent;
+import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.BorderLayout;
 import java.awt.Color;
@@ -69,11 +76,14 @@ import java.awt.Image;
 import java.awt.Insets;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.RenderingHints;
 import java.awt.Toolkit;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.ClipboardOwner;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.event.KeyAdapter;
@@ -81,23 +91,41 @@ import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Dimension2D;
-import java.awt.geom.GeneralPath;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.UUID;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 import javax.annotation.Nonnull;
@@ -109,6 +137,9 @@ import javax.swing.JPopupMenu;
 import javax.swing.JTextArea;
 import javax.swing.JViewport;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.event.PopupMenuEvent;
@@ -120,6 +151,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   public static final long serialVersionUID = 2783412123454232L;
   public static final String ATTR_SHOW_JUMPS = "showJumps";
   private static final Logger LOGGER = LoggerFactory.getLogger(MindMapPanel.class);
+  private static final int PNG_BAND_PIXELS = 1024 * 1024;
   private static final UIComponentFactory UI_COMPO_FACTORY = UIComponentFactoryProvider.findInstance();
   private static final int ALL_SUPPORTED_MODIFIERS = KeyEvent.SHIFT_MASK | KeyEvent.ALT_MASK | KeyEvent.META_MASK | KeyEvent.CTRL_MASK;
   private static final ResourceBundle BUNDLE = java.util.ResourceBundle.getBundle("com/igormaznitsa/mindmap/swing/panel/Bundle");
@@ -127,6 +159,10 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   private static final double SCALE_MINIMUM = 0.3d;
   private static final double SCALE_MAXIMUM = 8.0d;
   private static final Color COLOR_MOUSE_DRAG_SELECTION = new Color(0x80000000, true);
+  private static final int TILE_SIZE = 256;
+  private static final int MAX_CACHED_TILES = 96;
+  private static final int FAST_ZOOM_SETTLE_DELAY = 250;
+  private static final int INTERACTION_IDLE_DELAY = 200;
   private static final int DRAG_POSITION_UNKNOWN = -1;
   private static final int DRAG_POSITION_LEFT = 1;
   private static final int DRAG_POSITION_TOP = 2;
@@ -140,11 +176,13 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   private final List<MindMapListener> mindMapListeners = new CopyOnWriteArrayList<>();
   private final JTextArea textEditor = UI_COMPO_FACTORY.makeTextArea();
   private final JPanel textEditorPanel = UI_COMPO_FACTORY.makePanel();
-  private final List<Topic> selectedTopics = new ArrayList<>();
+  private final Set<Topic> selectedTopics = new LinkedHashSet<>();
   private final MindMapPanelConfig config;
   private final AtomicBoolean popupMenuActive = new AtomicBoolean();
   private final AtomicBoolean removeEditedTopicForRollback = new AtomicBoolean();
   private final AtomicReference<Dimension> mindMapImageSize = new AtomicReference<>(new Dimension());
+  private final AtomicLong layoutRevision = new AtomicLong();
+  private final AtomicLong modelRevision = new AtomicLong();
   private volatile MindMap model;
   private volatile String errorText;
   private transient AbstractElement elementUnderEdit = null;
@@ -152,6 +190,57 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   private transient MouseSelectedArea mouseDragSelection = null;
   private transient DraggedElement draggedElement = null;
   private transient AbstractElement destinationElement = null;
+  private transient ElementSpatialIndex spatialIndex = null;
+  private transient ExecutorService layoutExecutor = null;
+  private transient Future<?> backgroundLayout = null;
+  private transient long backgroundLayoutId = 0L;
+  private transient Dimension layoutPageSize = null;
+  private transient boolean resizeInProgress = false;
+  private transient BufferedImage fastZoomFrame = null;
+  private transient Rectangle fastZoomArea = null;
+  private transient Point fastZoomAnchor = null;
+  private transient double fastZoomScale = 1.0d;
+  private transient Timer fastZoomTimer = null;
+  private transient boolean interactionActive = false;
+  private transient boolean lowQualityTilesPainted = false;
+  private transient Timer interactionTimer = null;
+  private final RenderTileCache tileCache = new RenderTileCache(TILE_SIZE, MAX_CACHED_TILES);
+  private final RenderTileCache.TilePainter tilePainter = new RenderTileCache.TilePainter() {
+    @Override
+    public void paintTile(@Nonnull final Graphics2D gfx) {
+      if (interactionActive) {
+        lowQualityTilesPainted = true;
+      }
+      getCurrentRenderQuality().prepare(gfx);
+      final MMGraphics wrapper = new MMGraphics2DWrapper(gfx);
+      drawBackground(wrapper, config);
+      drawTopics(wrapper, config, model);
+    }
+  };
+  private final MindMapConfigListener configListener = new MindMapConfigListener() {
+    @Override
+    public void onConfigurationPropertyChanged(@Nonnull final MindMapPanelConfig changedConfig) {
+      invalidateTileCache();
+    }
+  };
+  private final MindMapModelEventListener modelListener = new MindMapModelEventListener() {
+    @Override
+    public void onMindMapStructureChanged(@Nonnull final MindMapModelEvent event) {
+      // events can come from any thread so that result of started background layout is just marked as outdated
+      modelRevision.incrementAndGet();
+    }
+
+    @Override
+    public void onMindMapNodesChanged(@Nonnull final MindMapModelEvent event) {
+      modelRevision.incrementAndGet();
+    }
+  };
+  private final ChangeListener viewportListener = new ChangeListener() {
+    @Override
+    public void stateChanged(@Nonnull final ChangeEvent e) {
+      markInteraction();
+    }
+  };
   private final UUID uuid = UUID.randomUUID();
 
   @Nonnull
@@ -168,6 +257,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     this.controller = controller;
 
     this.config = new MindMapPanelConfig(panelConfig, false);
+    this.config.addConfigurationListener(this.configListener);
 
     this.textEditor.setMargin(new Insets(5, 5, 5, 5));
     this.textEditor.setBorder(BorderFactory.createEtchedBorder());
@@ -288,6 +378,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
             }
 
             textEditorPanel.setBounds(editorBounds);
+            textEditorPanel.validate();
             textEditorPanel.repaint();
           } finally {
             unlock();
@@ -334,12 +425,12 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
             if (config.isKeyEvent(MindMapPanelConfig.KEY_ADD_CHILD_AND_START_EDIT, e)) {
               e.consume();
               if (!selectedTopics.isEmpty()) {
-                makeNewChildAndStartEdit(selectedTopics.get(0), null);
+                makeNewChildAndStartEdit(selectedTopics.iterator().next(), null);
               }
             } else if (config.isKeyEvent(MindMapPanelConfig.KEY_ADD_SIBLING_AND_START_EDIT, e)) {
               e.consume();
               if (!hasActiveEditor() && hasOnlyTopicSelected()) {
-                final Topic baseTopic = selectedTopics.get(0);
+                final Topic baseTopic = selectedTopics.iterator().next();
                 makeNewChildAndStartEdit(baseTopic.getParent() == null ? baseTopic : baseTopic.getParent(), baseTopic);
               }
             } else if (config.isKeyEvent(MindMapPanelConfig.KEY_FOCUS_ROOT_OR_START_EDIT, e)) {
@@ -347,7 +438,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
               if (!hasSelectedTopics()) {
                 select(getModel().getRoot(), false);
               } else if (hasOnlyTopicSelected()) {
-                startEdit((AbstractElement) selectedTopics.get(0).getPayload());
+                startEdit((AbstractElement) selectedTopics.iterator().next().getPayload());
               }
             }
 
@@ -364,6 +455,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
       public void keyReleased(@Nonnull final KeyEvent e) {
         if (lockIfNotDisposed()) {
           try {
+            endFastZoom();
             if (config.isKeyEvent(MindMapPanelConfig.KEY_SHOW_POPUP, e)) {
               e.consume();
               processPopUpForShortcut();
@@ -505,6 +597,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
       public void mousePressed(@Nonnull final MouseEvent e) {
         if (!e.isConsumed() && lockIfNotDisposed()) {
           try {
+            endFastZoom();
             if (!controller.isMouseClickProcessingAllowed(theInstance)) {
               return;
             }
@@ -552,18 +645,11 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
               } else if (mouseDragSelection != null) {
                 final List<Topic> covered = mouseDragSelection.getAllSelectedElements(model);
                 if (e.isShiftDown()) {
-                  for (final Topic m : covered) {
-                    select(m, false);
-                  }
+                  select(covered, false);
                 } else if (e.isControlDown()) {
-                  for (final Topic m : covered) {
-                    select(m, true);
-                  }
+                  select(covered, true);
                 } else {
-                  removeAllSelection();
-                  for (final Topic m : covered) {
-                    select(m, false);
-                  }
+                  replaceSelection(covered);
                 }
               } else if (e.isPopupTrigger()) {
                 mouseDragSelection = null;
@@ -598,6 +684,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
       public void mouseDragged(@Nonnull final MouseEvent e) {
         if (!e.isConsumed() && lockIfNotDisposed()) {
           try {
+            markInteraction();
             if (!controller.isMouseMoveProcessingAllowed(theInstance)) {
               return;
             }
@@ -615,7 +702,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
                     }
                   }
                 } else if (controller.isElementDragAllowed(theInstance)) {
-                  if (elementUnderMouse.isMoveable() && isNonOverCollapsator(e, elementUnderMouse)) {
+                  if (elementUnderMouse.isMoveable() && !elementUnderMouse.getModel().isMounted() && isNonOverCollapsator(e, elementUnderMouse)) {
                     selectedTopics.clear();
 
                     final Point mouseOffset = new Point((int) Math.round(e.getPoint().getX() - elementUnderMouse.getBounds().getX()), (int) Math.round(e.getPoint().getY() - elementUnderMouse.getBounds().getY()));
@@ -657,6 +744,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         if (!e.isConsumed() && lockIfNotDisposed()) {
           try {
             if (controller.isMouseWheelProcessingAllowed(theInstance)) {
+              markInteraction();
               mouseDragSelection = null;
               draggedElement = null;
 
@@ -665,20 +753,21 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
               if (!e.isConsumed() && (theConfig != null && ((e.getModifiers() & theConfig.getScaleModifiers()) == theConfig.getScaleModifiers()))) {
                 endEdit(elementUnderEdit != null);
 
-                final Dimension oldSize = mindMapImageSize.get();
+                if (!theConfig.isFastZoomEnabled() || !doFastZoomStep(e.getPoint(), e.getWheelRotation())) {
+                  final Dimension oldSize = mindMapImageSize.get();
 
-                final double oldScale = getScale();
-                final double curScale = ((long) (10.0d * (oldScale + (SCALE_STEP * -e.getWheelRotation()) + (SCALE_STEP / 2.0d)))) / 10.0d;
-                final double newScale = Math.max(SCALE_MINIMUM, Math.min(curScale, SCALE_MAXIMUM));
+                  final double oldScale = getScale();
+                  final double newScale = calcScaleForWheelRotation(oldScale, e.getWheelRotation());
 
-                setScale(newScale, false);
-                MindMapPanel.this.doLayout();
-                MindMapPanel.this.revalidate();
-                MindMapPanel.this.repaint();
+                  setScale(newScale, false);
+                  MindMapPanel.this.doLayout();
+                  MindMapPanel.this.revalidate();
+                  MindMapPanel.this.repaint();
 
-                final Dimension newSize = mindMapImageSize.get().getSize();
+                  final Dimension newSize = mindMapImageSize.get().getSize();
 
-                fireNotificationScaledByMouse(e.getPoint(), oldScale, newScale, oldSize, newSize);
+                  fireNotificationScaledByMouse(e.getPoint(), oldScale, newScale, oldSize, newSize);
+                }
                 e.consume();
               } else {
                 sendToParent(e);
@@ -789,7 +878,9 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         addComponentListener(new ComponentAdapter() {
           @Override
           public void componentResized(@Nonnull final ComponentEvent e) {
-            doLayout();
+            if (!getPageSize().equals(layoutPageSize)) {
+              doLayout();
+            }
             updateEditorAfterResizing();
           }
         });
@@ -855,7 +946,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     }
   }
 
-  public static void drawOnGraphicsForConfiguration(@Nonnull final MMGraphics g, @Nonnull final MindMapPanelConfig config, @Nonnull final MindMap map, final boolean drawSelection, @Nullable @MustNotContainNull final List<Topic> selectedTopics) {
+  public static void drawOnGraphicsForConfiguration(@Nonnull final MMGraphics g, @Nonnull final MindMapPanelConfig config, @Nonnull final MindMap map, final boolean drawSelection, @Nullable @MustNotContainNull final Collection<Topic> selectedTopics) {
     drawBackground(g, config);
     drawTopics(g, config, map);
     if (drawSelection && selectedTopics != null && !selectedTopics.isEmpty()) {
@@ -863,7 +954,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     }
   }
 
-  private static void drawSelection(@Nonnull final MMGraphics g, @Nonnull final MindMapPanelConfig cfg, @Nullable @MustNotContainNull final List<Topic> selectedTopics) {
+  private static void drawSelection(@Nonnull final MMGraphics g, @Nonnull final MindMapPanelConfig cfg, @Nullable @MustNotContainNull final Collection<Topic> selectedTopics) {
     if (selectedTopics != null && !selectedTopics.isEmpty()) {
       final Color selectLineColor = cfg.getSelectLineColor();
       g.setStroke(cfg.safeScaleFloatValue(cfg.getSelectLineWidth(), 0.1f), StrokeType.DASHES);
@@ -905,17 +996,41 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   }
 
   private static void drawJumps(@Nonnull final MMGraphics gfx, @Nonnull final MindMap map, @Nonnull final MindMapPanelConfig cfg) {
-    final List<Topic> allTopicsWithJumps = map.findAllTopicsForExtraType(Extra.ExtraType.TOPIC);
+    final Topic root = map.getRoot();
+    final ElementRoot rootElement = root != null && root.getPayload() instanceof ElementRoot ? (ElementRoot) root.getPayload() : null;
+    final long revision = rootElement == null ? 0L : rootElement.getGeometryRevision();
+
+    Path2D[] shapes = rootElement == null ? null : rootElement.findJumpLinkShapes(revision, cfg.getScale(), cfg.getJumpLinkWidth());
+    if (shapes == null) {
+      shapes = makeJumpLinkShapes(map, cfg);
+      if (rootElement != null) {
+        rootElement.setJumpLinkShapes(shapes, revision, cfg.getScale(), cfg.getJumpLinkWidth());
+      }
+    }
 
-    final float scaledSize = cfg.safeScaleFloatValue(cfg.getJumpLinkWidth(), 0.1f);
+    final Path2D arrows = shapes[0];
+    final Path2D lines = shapes[1];
 
-    final float lineWidth = scaledSize;
-    final float arrowWidth = cfg.safeScaleFloatValue(cfg.getJumpLinkWidth() * 1.0f, 0.3f);
+    if (arrows.getCurrentPoint() != null) {
+      final Color jumpLinkColor = cfg.getJumpLinkColor();
+      final float lineWidth = cfg.safeScaleFloatValue(cfg.getJumpLinkWidth(), 0.1f);
+
+      gfx.setStroke(lineWidth, StrokeType.SOLID);
+      gfx.draw(arrows, null, jumpLinkColor);
+      gfx.setStroke(lineWidth, StrokeType.DOTS);
+      gfx.draw(lines, jumpLinkColor, null);
+    }
+  }
 
-    final Color jumpLinkColor = cfg.getJumpLinkColor();
+  @Nonnull
+  private static Path2D[] makeJumpLinkShapes(@Nonnull final MindMap map, @Nonnull final MindMapPanelConfig cfg) {
+    final List<Topic> allTopicsWithJumps = map.findAllTopicsForExtraType(Extra.ExtraType.TOPIC);
 
     final float arrowSize = cfg.safeScaleFloatValue(10.0f * cfg.getJumpLinkWidth(), 0.2f);
 
+    final Path2D arrows = new Path2D.Double();
+    final Path2D lines = new Path2D.Double();
+
     for (Topic src : allTopicsWithJumps) {
       final ExtraTopic extra = (ExtraTopic) assertNotNull(assertNotNull(src).getExtras()).get(Extra.ExtraType.TOPIC);
 
@@ -933,19 +1048,21 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
           if (dst != null) {
             final AbstractElement dstElement = (AbstractElement) dst.getPayload();
-            if (!MindMapUtils.isHidden(dst) && dstElement != null) {
-              final AbstractElement srcElement = assertNotNull((AbstractElement) assertNotNull(src).getPayload());
+            final AbstractElement srcElement = (AbstractElement) assertNotNull(src).getPayload();
+            if (!MindMapUtils.isHidden(dst) && dstElement != null && srcElement != null) {
               final Rectangle2D srcRect = srcElement.getBounds();
               final Rectangle2D dstRect = dstElement.getBounds();
-              drawArrowToDestination(gfx, srcRect, dstRect, lineWidth, arrowWidth, arrowSize, jumpLinkColor);
+              appendArrowToDestination(arrows, lines, srcRect, dstRect, arrowSize);
             }
           }
         }
       }
     }
+
+    return new Path2D[] {arrows, lines};
   }
 
-  private static void drawArrowToDestination(@Nonnull final MMGraphics gfx, @Nonnull final Rectangle2D start, @Nonnull final Rectangle2D destination, @Nonnull final float lineWidth, @Nonnull final float arrowWidth, final float arrowSize, @Nonnull final Color color) {
+  private static void appendArrowToDestination(@Nonnull final Path2D arrows, @Nonnull final Path2D lines, @Nonnull final Rectangle2D start, @Nonnull final Rectangle2D destination, final float arrowSize) {
 
     final double startx = start.getCenterX();
     final double starty = start.getCenterY();
@@ -953,8 +1070,6 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     final Point2D arrowPoint = Utils.findRectEdgeIntersection(destination, startx, starty);
 
     if (arrowPoint != null) {
-      gfx.setStroke(lineWidth, StrokeType.SOLID);
-
       double angle = findLineAngle(arrowPoint.getX(), arrowPoint.getY(), startx, starty);
 
       final double arrowAngle = Math.PI / 12.0d;
@@ -967,19 +1082,24 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
       final double cx = (arrowSize / 2.0f) * Math.cos(angle);
       final double cy = (arrowSize / 2.0f) * Math.sin(angle);
 
-      final GeneralPath polygon = new GeneralPath();
-      polygon.moveTo(arrowPoint.getX(), arrowPoint.getY());
-      polygon.lineTo(arrowPoint.getX() + x1, arrowPoint.getY() + y1);
-      polygon.lineTo(arrowPoint.getX() + x2, arrowPoint.getY() + y2);
-      polygon.closePath();
-      gfx.draw(polygon, null, color);
+      arrows.moveTo(arrowPoint.getX(), arrowPoint.getY());
+      arrows.lineTo(arrowPoint.getX() + x1, arrowPoint.getY() + y1);
+      arrows.lineTo(arrowPoint.getX() + x2, arrowPoint.getY() + y2);
+      arrows.closePath();
 
-      gfx.setStroke(lineWidth, StrokeType.DOTS);
-      gfx.drawLine((int) startx, (int) starty, (int) (arrowPoint.getX() + cx), (int) (arrowPoint.getY() + cy), color);
+      lines.moveTo((int) startx, (int) starty);
+      lines.lineTo((int) (arrowPoint.getX() + cx), (int) (arrowPoint.getY() + cy));
     }
   }
 
   private static void drawTopicTree(@Nonnull final MMGraphics gfx, @Nonnull final Topic topic, @Nonnull final MindMapPanelConfig cfg) {
+    final AbstractElement element = (AbstractElement) topic.getPayload();
+    if (element == null || element.isBlockVisibleInClip(gfx.getClipBounds(), cfg)) {
+      drawVisibleTopicTree(gfx, gfx.getClipBounds(), topic, cfg);
+    }
+  }
+
+  private static void drawVisibleTopicTree(@Nonnull final MMGraphics gfx, @Nullable final Rectangle clip, @Nonnull final Topic topic, @Nonnull final MindMapPanelConfig cfg) {
     paintTopic(gfx, topic, cfg);
     final AbstractElement w = (AbstractElement) topic.getPayload();
     if (w != null) {
@@ -987,7 +1107,10 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         return;
       }
       for (final Topic t : topic.getChildren()) {
-        drawTopicTree(gfx, t, cfg);
+        final AbstractElement child = (AbstractElement) t.getPayload();
+        if (child == null || child.isBlockVisibleInClip(clip, cfg)) {
+          drawVisibleTopicTree(gfx, clip, t, cfg);
+        }
       }
     }
   }
@@ -1045,12 +1168,23 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     }
 
     widget.updateElementBounds(gfx, cfg);
-    for (final Topic t : topic.getChildren()) {
-      setElementSizesForElementAndChildren(gfx, cfg, t, level + 1);
+    if (!widget.isCollapsed()) {
+      for (final Topic t : topic.getChildren()) {
+        setElementSizesForElementAndChildren(gfx, cfg, t, level + 1);
+      }
     }
     widget.updateBlockSize(cfg);
   }
 
+  private static void releaseElementsOfChildren(@Nonnull final Topic topic) {
+    for (final Topic t : topic.getChildren()) {
+      if (t.getPayload() != null) {
+        t.setPayload(null);
+        releaseElementsOfChildren(t);
+      }
+    }
+  }
+
   public static boolean calculateElementSizes(@Nonnull final MMGraphics gfx, @Nullable final MindMap model, @Nonnull final MindMapPanelConfig cfg) {
     boolean result = false;
 
@@ -1063,31 +1197,115 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     return result;
   }
 
+  private static boolean isElementForLevel(@Nonnull final AbstractElement element, final int level) {
+    switch (level) {
+      case 0:
+        return element.getClass() == ElementRoot.class;
+      case 1:
+        return element.getClass() == ElementLevelFirst.class;
+      default:
+        return element.getClass() == ElementLevelOther.class;
+    }
+  }
+
+  private static boolean prepareElementsOfSubtree(@Nonnull final MMGraphics gfx, @Nonnull final MindMapPanelConfig cfg, @Nonnull final Topic topic, final int level) {
+    final AbstractElement element = (AbstractElement) topic.getPayload();
+    if (element == null) {
+      setElementSizesForElementAndChildren(gfx, cfg, topic, level);
+      final AbstractElement parent = ((AbstractElement) assertNotNull(topic.getPayload())).getParent();
+      if (parent != null) {
+        parent.invalidateBlockSize();
+      }
+      return true;
+    }
+
+    if (!isElementForLevel(element, level)) {
+      return false;
+    }
+
+    if (element.isCollapsed()) {
+      releaseElementsOfChildren(topic);
+    } else {
+      for (final Topic t : topic.getChildren()) {
+        if (!prepareElementsOfSubtree(gfx, cfg, t, level + 1)) {
+          return false;
+        }
+      }
+    }
+    element.invalidateBlockSize();
+    return true;
+  }
+
+  /**
+   * Update elements only for changed topics instead of rebuilding of whole
+   * element tree. Changed topics are re-measured, elements are created for new
+   * topics in their subtrees and cached block sizes are recalculated only for
+   * changed subtrees and their ancestors. Layout must be made after the call.
+   *
+   * @param gfx    graphics to measure elements, must not be null
+   * @param model  mind map which elements should be updated, can be null
+   * @param cfg    configuration, must not be null
+   * @param topics changed topics, for removed topic its parent must be provided
+   * @return true if elements have been updated, false if full recalculation
+   * through {@link #calculateElementSizes(MMGraphics, MindMap, MindMapPanelConfig)}
+   * is needed
+   * @since 1.4.8
+   */
+  public static boolean updateElementSizesForTopics(@Nonnull final MMGraphics gfx, @Nullable final MindMap model, @Nonnull final MindMapPanelConfig cfg, @Nonnull @MustNotContainNull final Collection<Topic> topics) {
+    final Topic root = model == null ? null : model.getRoot();
+    if (root == null || root.getPayload() == null) {
+      return false;
+    }
+
+    for (final Topic t : topics) {
+      if (t.getRoot() != root) {
+        return false;
+      }
+
+      final AbstractElement element = (AbstractElement) t.getPayload();
+      if (element == null) {
+        final Topic parent = t.getParent();
+        if (parent == null || parent.getPayload() == null) {
+          return false;
+        }
+      } else {
+        element.refreshFromModel();
+        element.updateElementBounds(gfx, cfg);
+      }
+
+      if (!prepareElementsOfSubtree(gfx, cfg, t, t.getTopicLevel())) {
+        return false;
+      }
+    }
+
+    ((AbstractElement) root.getPayload()).getMeasuredBlockSize(cfg);
+    return true;
+  }
+
+  @Nullable
+  private static ElementRoot findRootElement(@Nullable final MindMap model) {
+    final Topic rootTopic = model == null ? null : model.getRoot();
+    final Object payload = rootTopic == null ? null : rootTopic.getPayload();
+    return payload instanceof ElementRoot ? (ElementRoot) payload : null;
+  }
+
   @Nullable
   public static Dimension2D layoutModelElements(@Nullable final MindMap model, @Nonnull final MindMapPanelConfig cfg) {
     Dimension2D result = null;
-    if (model != null) {
-      final Topic rootTopic = model.getRoot();
-      if (rootTopic != null) {
-        final AbstractElement root = (AbstractElement) rootTopic.getPayload();
-        if (root != null) {
-          root.alignElementAndChildren(cfg, true, 0, 0);
-          result = root.getBlockSize();
-        }
-      }
+    final ElementRoot root = findRootElement(model);
+    if (root != null) {
+      root.alignElementAndChildren(cfg, true, 0, 0);
+      root.markGeometryChanged();
+      result = root.getBlockSize();
     }
     return result;
   }
 
   protected static void moveDiagram(@Nullable final MindMap model, final double deltaX, final double deltaY) {
-    if (model != null) {
-      final Topic root = model.getRoot();
-      if (root != null) {
-        final AbstractElement element = (AbstractElement) root.getPayload();
-        if (element != null) {
-          element.moveWholeTreeBranchCoordinates(deltaX, deltaY);
-        }
-      }
+    final ElementRoot root = findRootElement(model);
+    if (root != null) {
+      root.moveWholeTreeBranchCoordinates(deltaX, deltaY);
+      root.markGeometryChanged();
     }
   }
 
@@ -1095,21 +1313,43 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   public static Dimension layoutFullDiagramWithCenteringToPaper(@Nonnull final MMGraphics gfx, @Nonnull final MindMap map, @Nonnull final MindMapPanelConfig cfg, @Nonnull final Dimension2D paperSize) {
     Dimension resultSize = null;
     if (calculateElementSizes(gfx, map, cfg)) {
-      Dimension2D rootBlockSize = layoutModelElements(map, cfg);
-      final double paperMargin = cfg.getPaperMargins() * cfg.getScale();
+      resultSize = layoutDiagramWithCenteringToPaper(map, cfg, paperSize);
+    }
+    return resultSize;
+  }
 
-      if (rootBlockSize != null) {
-        final ElementRoot rootElement = assertNotNull((ElementRoot) assertNotNull(map.getRoot()).getPayload());
+  /**
+   * Align already measured elements of mind map and center the diagram on
+   * paper. Elements are not re-measured.
+   *
+   * @param map       mind map which elements should be aligned, must not be
+   *                  null
+   * @param cfg       configuration, must not be null
+   * @param paperSize size of paper, must not be null
+   * @return size of the diagram with paper margins, can be null if there is
+   * no root element
+   * @since 1.4.8
+   */
+  @Nullable
+  public static Dimension layoutDiagramWithCenteringToPaper(@Nonnull final MindMap map, @Nonnull final MindMapPanelConfig cfg, @Nonnull final Dimension2D paperSize) {
+    Dimension resultSize = null;
+    final ElementRoot rootElement = findRootElement(map);
+    final double paperMargin = cfg.getPaperMargins() * cfg.getScale();
 
-        double rootOffsetXInBlock = rootElement.getLeftBlockSize().getWidth();
-        double rootOffsetYInBlock = (rootBlockSize.getHeight() - rootElement.getBounds().getHeight()) / 2;
+    if (rootElement != null) {
+      // geometry revision is changed once for whole layout pass
+      rootElement.alignElementAndChildren(cfg, true, 0, 0);
+      final Dimension2D rootBlockSize = rootElement.getBlockSize();
 
-        rootOffsetXInBlock += (paperSize.getWidth() - rootBlockSize.getWidth()) <= paperMargin ? paperMargin : (paperSize.getWidth() - rootBlockSize.getWidth()) / 2;
-        rootOffsetYInBlock += (paperSize.getHeight() - rootBlockSize.getHeight()) <= paperMargin ? paperMargin : (paperSize.getHeight() - rootBlockSize.getHeight()) / 2;
+      double rootOffsetXInBlock = rootElement.getLeftBlockSize().getWidth();
+      double rootOffsetYInBlock = (rootBlockSize.getHeight() - rootElement.getBounds().getHeight()) / 2;
 
-        moveDiagram(map, rootOffsetXInBlock, rootOffsetYInBlock);
-        resultSize = new Dimension((int) Math.round(rootBlockSize.getWidth() + paperMargin * 2), (int) Math.round(rootBlockSize.getHeight() + paperMargin * 2));
-      }
+      rootOffsetXInBlock += (paperSize.getWidth() - rootBlockSize.getWidth()) <= paperMargin ? paperMargin : (paperSize.getWidth() - rootBlockSize.getWidth()) / 2;
+      rootOffsetYInBlock += (paperSize.getHeight() - rootBlockSize.getHeight()) <= paperMargin ? paperMargin : (paperSize.getHeight() - rootBlockSize.getHeight()) / 2;
+
+      rootElement.moveWholeTreeBranchCoordinates(rootOffsetXInBlock, rootOffsetYInBlock);
+      rootElement.markGeometryChanged();
+      resultSize = new Dimension((int) Math.round(rootBlockSize.getWidth() + paperMargin * 2), (int) Math.round(rootBlockSize.getHeight() + paperMargin * 2));
     }
 
     return resultSize;
@@ -1192,6 +1432,158 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     return img;
   }
 
+  /**
+   * Render map as PNG image directly into output stream. The image is rendered
+   * by horizontal bands which are streamed into PNG encoder one by one, so
+   * that needed memory is proportional to band size instead of the whole image
+   * size.
+   *
+   * @param model model to be rendered, must not be null
+   * @param cfg configuration for rendering, must not be null
+   * @param expandAll true if all collapsed topics should be expanded
+   * @param quality render quality, must not be null
+   * @param out stream to write PNG image, it is not closed, must not be null
+   * @return false if there is nothing to render, true otherwise
+   * @throws IOException if error during writing
+   * @since 1.4.8
+   */
+  public static boolean renderMindMapAsPng(@Nonnull final MindMap model, @Nonnull final MindMapPanelConfig cfg, final boolean expandAll, @Nonnull final RenderQuality quality, @Nonnull final OutputStream out) throws IOException {
+    return renderMindMapAsPng(model, cfg, expandAll, quality, out, 1);
+  }
+
+  /**
+   * Render map as PNG image directly into output stream with several threads.
+   * Bands of the image are rendered concurrently from the same layout and
+   * compressed concurrently by chunks. Bands have the same height for any
+   * number of threads, so that the image doesn't depend on the machine where
+   * it is rendered.
+   *
+   * @param model model to be rendered, must not be null
+   * @param cfg configuration for rendering, must not be null
+   * @param expandAll true if all collapsed topics should be expanded
+   * @param quality render quality, must not be null
+   * @param out stream to write PNG image, it is not closed, must not be null
+   * @param threads number of threads to be used, if 1 then everything is
+   * made in the caller thread
+   * @return false if there is nothing to render, true otherwise
+   * @throws IOException if error during writing
+   * @since 1.4.8
+   */
+  public static boolean renderMindMapAsPng(@Nonnull final MindMap model, @Nonnull final MindMapPanelConfig cfg, final boolean expandAll, @Nonnull final RenderQuality quality, @Nonnull final OutputStream out, final int threads) throws IOException {
+    final MindMap workMap = new MindMap(model);
+    workMap.resetPayload();
+
+    if (expandAll) {
+      MindMapUtils.removeCollapseAttr(workMap);
+    }
+
+    final Dimension2D blockSize = calculateSizeOfMapInPixels(workMap, null, cfg, expandAll, quality);
+    if (blockSize == null) {
+      return false;
+    }
+
+    final int parallelism = Math.max(1, threads);
+    final int width = Math.max(1, (int) blockSize.getWidth());
+    final int height = Math.max(1, (int) blockSize.getHeight());
+    final boolean alpha = !cfg.isDrawBackground();
+    final int bandHeight = Math.max(1, Math.min(height, PNG_BAND_PIXELS / width));
+    final int imageType = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+    final Graphics2D layoutGraphics = new BufferedImage(1, 1, imageType).createGraphics();
+    final MMGraphics layoutGfx = new MMGraphics2DWrapper(layoutGraphics);
+    try {
+      quality.prepare(layoutGraphics);
+      layoutFullDiagramWithCenteringToPaper(layoutGfx, workMap, cfg, blockSize);
+    } finally {
+      layoutGfx.dispose();
+    }
+
+    if (parallelism == 1) {
+      final BufferedImage band = new BufferedImage(width, bandHeight, imageType);
+      final PngStreamWriter writer = new PngStreamWriter(out, width, height, alpha);
+      for (int bandY = 0; bandY < height; bandY += bandHeight) {
+        final int rows = Math.min(bandHeight, height - bandY);
+        renderPngBand(band, workMap, cfg, quality, bandY, rows, alpha);
+        writer.writeRows(band, rows);
+      }
+      writer.close();
+    } else {
+      final ExecutorService executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+        @Override
+        @Nonnull
+        public Thread newThread(@Nonnull final Runnable runnable) {
+          final Thread result = new Thread(runnable, "mmd-png-export"); //NOI18N
+          result.setDaemon(true);
+          return result;
+        }
+      });
+      try {
+        final int bandNumber = (height + bandHeight - 1) / bandHeight;
+        final Queue<BufferedImage> freeBands = new ArrayDeque<>();
+        for (int i = 0; i < Math.min(parallelism, bandNumber); i++) {
+          freeBands.add(new BufferedImage(width, bandHeight, imageType));
+        }
+        final int maxBandsInWork = freeBands.size();
+
+        final PngStreamWriter writer = new PngStreamWriter(out, width, height, alpha, executor, parallelism);
+        final Queue<Future<BufferedImage>> bandsInWork = new ArrayDeque<>();
+        int nextBandY = 0;
+        int writtenBandY = 0;
+        while (writtenBandY < height) {
+          while (nextBandY < height && bandsInWork.size() < maxBandsInWork) {
+            final BufferedImage band = freeBands.remove();
+            final int bandY = nextBandY;
+            final int rows = Math.min(bandHeight, height - bandY);
+            bandsInWork.add(executor.submit(new Callable<BufferedImage>() {
+              @Override
+              @Nonnull
+              public BufferedImage call() {
+                renderPngBand(band, workMap, cfg, quality, bandY, rows, alpha);
+                return band;
+              }
+            }));
+            nextBandY += bandHeight;
+          }
+
+          final BufferedImage rendered;
+          try {
+            rendered = bandsInWork.remove().get();
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during band rendering");
+          } catch (ExecutionException ex) {
+            throw new IOException("Can't render band", ex.getCause());
+          }
+          writer.writeRows(rendered, Math.min(bandHeight, height - writtenBandY));
+          freeBands.add(rendered);
+          writtenBandY += bandHeight;
+        }
+        writer.close();
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    return true;
+  }
+
+  private static void renderPngBand(@Nonnull final BufferedImage band, @Nonnull final MindMap map, @Nonnull final MindMapPanelConfig cfg, @Nonnull final RenderQuality quality, final int bandY, final int rows, final boolean alpha) {
+    final Graphics2D g = band.createGraphics();
+    final MMGraphics gfx = new MMGraphics2DWrapper(g);
+    try {
+      if (alpha) {
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, band.getWidth(), band.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+      }
+      quality.prepare(g);
+      g.translate(0, -bandY);
+      gfx.setClip(0, bandY, band.getWidth(), rows);
+      drawOnGraphicsForConfiguration(gfx, cfg, map, false, null);
+    } finally {
+      gfx.dispose();
+    }
+  }
+
   @Nonnull
   @MustNotContainNull
   private static Topic[] ensureNoRootInArray(@Nonnull @MustNotContainNull final Topic... topics) {
@@ -1217,11 +1609,12 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
       }
     }
 
+    final List<Topic> diapasone = new ArrayList<>();
     if (selectedSibling != null) {
       boolean select = false;
       for (final Topic t : parent.getModel().getChildren()) {
         if (select && element.isLeftDirection() == AbstractCollapsableElement.isLeftSidedTopic(t)) {
-          select(t, false);
+          diapasone.add(t);
         }
 
         if (t == element.getModel() || t == selectedSibling) {
@@ -1232,11 +1625,13 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         }
       }
     }
-    select(element.getModel(), false);
+    diapasone.add(element.getModel());
+    select(diapasone, false);
   }
 
   private void doFoldOrUnfoldTopic(@Nonnull @MustNotContainNull final List<AbstractElement> elements, final boolean fold, final boolean onlyFirstLevel) {
     boolean changed = false;
+    boolean mountChanged = false;
 
     for (final AbstractElement e : elements) {
       if (fold) {
@@ -1247,19 +1642,41 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
             changed = true;
           }
         }
+        mountChanged |= MountedSubMap.unmount(e.getModel());
       } else {
+        mountChanged |= mountSubMapIfNeeded(e.getModel());
         changed |= MindMapUtils.foldOrUnfoldChildren(e.getModel(), false, onlyFirstLevel ? 1 : Integer.MAX_VALUE);
       }
     }
 
+    if (changed || mountChanged) {
+      final List<Topic> changedTopics = new ArrayList<Topic>(elements.size());
+      for (final AbstractElement e : elements) {
+        changedTopics.add(e.getModel());
+      }
+      this.doLayoutForTopics(changedTopics);
+    }
+
+    // mounted content is not a part of the document so that it doesn't make the map changed
     if (changed) {
-      this.doLayout();
-      this.revalidate();
-      this.repaint();
       this.fireNotificationMindMapChanged(true);
     }
   }
 
+  private boolean mountSubMapIfNeeded(@Nonnull final Topic topic) {
+    boolean result = false;
+    if (MountedSubMap.isMountPoint(topic)) {
+      final File projectFolder = this.controller.makePluginContext(this).getProjectFolder();
+      try {
+        result = MountedSubMap.mount(topic, projectFolder);
+      } catch (IOException ex) {
+        LOGGER.error("Can't mount sub-map for topic {}", topic, ex);
+        this.controller.getDialogProvider(this).msgError(null, String.format(BUNDLE.getString("MindMapPanel.msgCantMountMap"), topic.getText()));
+      }
+    }
+    return result;
+  }
+
   /**
    * Get saved session object. Object is presented and saved only for the
    * current panel and only in memory.
@@ -1413,7 +1830,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     final AbstractElement dragged = draggedElement.getElement();
     final Point dropPoint = draggedElement.getPosition();
 
-    final boolean ignore = dragged.getModel() == destination.getModel() || dragged.getBounds().contains(dropPoint) || destination.getModel().hasAncestor(dragged.getModel());
+    final boolean ignore = dragged.getModel() == destination.getModel() || dragged.getBounds().contains(dropPoint) || destination.getModel().hasAncestor(dragged.getModel()) || dragged.getModel().isMounted() || destination.getModel().isMounted();
     if (ignore) {
       return false;
     }
@@ -1487,7 +1904,8 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   }
 
   private void processMoveFocusByKey(@Nonnull final KeyEvent key) {
-    final AbstractElement lastSelectedTopic = this.selectedTopics.isEmpty() ? null : (AbstractElement) this.selectedTopics.get(this.selectedTopics.size() - 1).getPayload();
+    final Topic lastSelected = findLastSelectedTopic();
+    final AbstractElement lastSelectedTopic = lastSelected == null ? null : (AbstractElement) lastSelected.getPayload();
     if (lastSelectedTopic == null) {
       return;
     }
@@ -1533,12 +1951,16 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
       if (processFirstChild) {
         if (lastSelectedTopic.hasChildren()) {
+          final Topic parentTopic = lastSelectedTopic.getModel();
           if (lastSelectedTopic.isCollapsed()) {
+            mountSubMapIfNeeded(parentTopic);
             ((AbstractCollapsableElement) lastSelectedTopic).setCollapse(false);
             modelChanged = true;
+            // children of collapsed topic don't have elements, they must be laid out before focusing
+            doLayoutForTopics(Collections.singletonList(parentTopic));
           }
 
-          nextFocused = (AbstractElement) (lastSelectedTopic.getModel().getChildren().get(0)).getPayload();
+          nextFocused = parentTopic.getChildren().isEmpty() ? null : (AbstractElement) parentTopic.getChildren().get(0).getPayload();
         }
       }
     } else if (config.isKeyEventDetected(key, MindMapPanelConfig.KEY_FOCUS_MOVE_LEFT, MindMapPanelConfig.KEY_FOCUS_MOVE_LEFT_ADD_FOCUSED)) {
@@ -1624,6 +2046,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     if (lockIfNotDisposed()) {
       try {
         this.model.setAttribute(ATTR_SHOW_JUMPS, flag ? "true" : null);
+        invalidateTileCache();
         repaint();
         fireNotificationMindMapChanged(true);
       } finally {
@@ -1645,7 +2068,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   public void makeNewChildAndStartEdit(@Nullable final Topic parent, @Nullable final Topic baseTopic) {
     if (this.lockIfNotDisposed()) {
       try {
-        if (parent != null) {
+        if (parent != null && !parent.isMounted()) {
           final Topic currentSelected = getFirstSelected();
           this.pathToPrevTopicBeforeEdit = currentSelected == null ? null : currentSelected.getPositionPath();
 
@@ -1762,11 +2185,19 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     }
   }
 
-  public void deleteTopics(final boolean force, @Nonnull @MustNotContainNull final Topic... topics) {
+  public void deleteTopics(final boolean force, @Nonnull @MustNotContainNull final Topic... topicsToDelete) {
     if (lockIfNotDisposed()) {
       try {
         endEdit(false);
 
+        final List<Topic> ownTopics = new ArrayList<Topic>(topicsToDelete.length);
+        for (final Topic t : topicsToDelete) {
+          if (!t.isMounted()) {
+            ownTopics.add(t);
+          }
+        }
+        final Topic[] topics = ownTopics.toArray(new Topic[ownTopics.size()]);
+
         final List<ModelAwarePlugin> plugins = MindMapPluginRegistry.getInstance().findFor(ModelAwarePlugin.class);
 
         boolean allowed = true;
@@ -1803,11 +2234,17 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
         final Topic topic = this.model.getRoot();
 
-        if (topic != null && MindMapUtils.foldOrUnfoldChildren(topic, collapse, Integer.MAX_VALUE)) {
-          doLayout();
-          revalidate();
-          repaint();
-          fireNotificationMindMapChanged(true);
+        if (topic != null) {
+          final boolean changed = MindMapUtils.foldOrUnfoldChildren(topic, collapse, Integer.MAX_VALUE);
+          final boolean unmounted = collapse && MountedSubMap.unmount(topic);
+          if (changed || unmounted) {
+            doLayout();
+            revalidate();
+            repaint();
+          }
+          if (changed) {
+            fireNotificationMindMapChanged(true);
+          }
         }
       } finally {
         this.unlock();
@@ -1822,7 +2259,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
       try {
         if (!this.selectedTopics.isEmpty()) {
           if (this.selectedTopics.size() == 1) {
-            nextToFocus = this.selectedTopics.get(0).getParent();
+            nextToFocus = this.selectedTopics.iterator().next().getParent();
           }
 
           deleteTopics(force, this.selectedTopics.toArray(new Topic[this.selectedTopics.size()]));
@@ -1861,10 +2298,32 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   public void removeFromSelection(@Nonnull final Topic t) {
     if (this.lockIfNotDisposed()) {
       try {
-        if (this.selectedTopics.contains(t)) {
-          if (this.selectedTopics.remove(t)) {
-            fireNotificationSelectionChanged();
-          }
+        if (this.selectedTopics.remove(t)) {
+          fireNotificationSelectionChanged();
+          repaint();
+        }
+      } finally {
+        this.unlock();
+      }
+    }
+  }
+
+  /**
+   * Remove topics from selection, listeners get single notification if
+   * selection has been changed.
+   *
+   * @param topics topics to be removed from selection
+   * @since 1.4.8
+   */
+  public void removeFromSelection(@Nonnull @MustNotContainNull final Collection<Topic> topics) {
+    if (this.lockIfNotDisposed()) {
+      try {
+        boolean changed = false;
+        for (final Topic t : topics) {
+          changed |= this.selectedTopics.remove(t);
+        }
+        if (changed) {
+          fireNotificationSelectionChanged();
           repaint();
         }
       } finally {
@@ -1877,10 +2336,8 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     if (this.lockIfNotDisposed()) {
       try {
         if (this.controller.isSelectionAllowed(this) && t != null) {
-          if (!this.selectedTopics.contains(t)) {
-            if (this.selectedTopics.add(t)) {
-              fireNotificationSelectionChanged();
-            }
+          if (this.selectedTopics.add(t)) {
+            fireNotificationSelectionChanged();
             fireNotificationEnsureTopicVisibility(t);
             repaint();
           } else if (removeIfPresented) {
@@ -1893,6 +2350,84 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     }
   }
 
+  /**
+   * Add topics to selection, listeners get single notification if selection
+   * has been changed.
+   *
+   * @param topics            topics to be selected
+   * @param removeIfPresented if true then already selected topics are removed
+   *                          from selection
+   * @since 1.4.8
+   */
+  public void select(@Nonnull @MustNotContainNull final Collection<Topic> topics, final boolean removeIfPresented) {
+    if (this.lockIfNotDisposed()) {
+      try {
+        if (this.controller.isSelectionAllowed(this)) {
+          boolean changed = false;
+          Topic lastAdded = null;
+          for (final Topic t : topics) {
+            if (this.selectedTopics.add(t)) {
+              lastAdded = t;
+              changed = true;
+            } else if (removeIfPresented) {
+              changed |= this.selectedTopics.remove(t);
+            }
+          }
+          if (changed) {
+            fireNotificationSelectionChanged();
+            if (lastAdded != null) {
+              fireNotificationEnsureTopicVisibility(lastAdded);
+            }
+            repaint();
+          }
+        }
+      } finally {
+        this.unlock();
+      }
+    }
+  }
+
+  /**
+   * Replace current selection by topics, listeners get single notification if
+   * selection has been changed.
+   *
+   * @param topics topics to be selected
+   * @since 1.4.8
+   */
+  public void replaceSelection(@Nonnull @MustNotContainNull final Collection<Topic> topics) {
+    if (this.lockIfNotDisposed()) {
+      try {
+        final Set<Topic> newSelection = this.controller.isSelectionAllowed(this) ? new LinkedHashSet<>(topics) : Collections.<Topic>emptySet();
+        if (!new ArrayList<>(this.selectedTopics).equals(new ArrayList<>(newSelection))) {
+          Topic lastAdded = null;
+          for (final Topic t : newSelection) {
+            if (!this.selectedTopics.contains(t)) {
+              lastAdded = t;
+            }
+          }
+          this.selectedTopics.clear();
+          this.selectedTopics.addAll(newSelection);
+          fireNotificationSelectionChanged();
+          if (lastAdded != null) {
+            fireNotificationEnsureTopicVisibility(lastAdded);
+          }
+          repaint();
+        }
+      } finally {
+        this.unlock();
+      }
+    }
+  }
+
+  @Nullable
+  private Topic findLastSelectedTopic() {
+    Topic result = null;
+    for (final Topic t : this.selectedTopics) {
+      result = t;
+    }
+    return result;
+  }
+
   @Nonnull
   @MustNotContainNull
   public Topic[] getSelectedTopics() {
@@ -1913,6 +2448,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
           this.textEditorPanel.setBounds((int) element.getBounds().getX(), (int) element.getBounds().getY(), textBlockSize.width, textBlockSize.height);
           this.textEditor.setMinimumSize(textBlockSize);
           this.textEditorPanel.setVisible(true);
+          this.textEditorPanel.validate();
           this.textEditor.requestFocus();
         }
       } finally {
@@ -1960,9 +2496,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
             }
             this.textEditorPanel.setVisible(false);
 
-            doLayout();
-            revalidate();
-            repaint();
+            doLayoutForTopics(Collections.singletonList(editedTopic));
             fireNotificationEnsureTopicVisibility(editedTopic);
 
             if (contentChanged) {
@@ -1973,11 +2507,16 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
             this.focusTo(editedTopic);
           } else {
             if (this.removeEditedTopicForRollback.get()) {
+              final Topic parent = editedTopic.getParent();
               this.selectedTopics.remove(editedTopic);
               this.model.removeTopic(editedTopic);
-              doLayout();
-              revalidate();
-              repaint();
+              if (parent == null) {
+                doLayout();
+                revalidate();
+                repaint();
+              } else {
+                doLayoutForTopics(Collections.singletonList(parent));
+              }
             }
           }
         }
@@ -1998,7 +2537,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   public void startEdit(@Nullable final AbstractElement element) {
     if (this.lockIfNotDisposed()) {
       try {
-        if (element == null) {
+        if (element == null || element.getModel().isMounted()) {
           this.elementUnderEdit = null;
           this.textEditorPanel.setVisible(false);
         } else {
@@ -2011,6 +2550,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
           textEditor.setMinimumSize(textBlockSize);
 
           textEditorPanel.setVisible(true);
+          textEditorPanel.validate();
           textEditor.requestFocus();
         }
       } finally {
@@ -2022,8 +2562,8 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   private void findDestinationElementForDragged() {
     final Topic theroot = this.model.getRoot();
     if (this.draggedElement != null && theroot != null) {
-      final AbstractElement root = (AbstractElement) assertNotNull(theroot.getPayload());
-      this.destinationElement = root.findNearestOpenedTopicToPoint(this.draggedElement.getElement(), this.draggedElement.getPosition());
+      final ElementSpatialIndex index = assertNotNull(getSpatialIndex());
+      this.destinationElement = index.findNearest(this.draggedElement.getElement(), this.draggedElement.getPosition());
     } else {
       this.destinationElement = null;
     }
@@ -2032,7 +2572,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   protected void processPopUpForShortcut() {
     if (this.lockIfNotDisposed()) {
       try {
-        final Topic topic = this.selectedTopics.isEmpty() ? null : this.selectedTopics.get(0);
+        final Topic topic = this.selectedTopics.isEmpty() ? null : this.selectedTopics.iterator().next();
 
         if (topic != null) {
           fireNotificationEnsureTopicVisibility(topic);
@@ -2146,14 +2686,23 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
       this.selectedTopics.clear();
 
       final MindMap oldModel = this.model;
+      if (oldModel != null) {
+        oldModel.removeMindMapModelEventListener(this.modelListener);
+      }
       this.model = assertNotNull("Model must not be null", model);
+      this.model.addMindMapModelEventListener(this.modelListener);
 
       for (final PanelAwarePlugin p : MindMapPluginRegistry.getInstance().findFor(PanelAwarePlugin.class)) {
         p.onPanelModelChange(this, oldModel, this.model);
       }
 
-      doLayout();
-      revalidate();
+      if (isBackgroundLayoutAllowed()) {
+        invalidate();
+        doLayoutInBackground();
+      } else {
+        doLayout();
+        revalidate();
+      }
 
       boolean selectionChanged = false;
       for (final int[] posPath : selectedPaths) {
@@ -2328,25 +2877,408 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     }
   }
 
-  public boolean updateElementsAndSizeForGraphics(@Nullable final Graphics2D graph, final boolean forceLayout, final boolean doListenerNotification) {
+  /**
+   * Make layout of whole diagram in background thread. Elements are created
+   * and measured for snapshot of the model and published in the Swing
+   * thread, until then already existing elements are shown. Any started but
+   * not published background layout is cancelled, also it is cancelled by
+   * synchronous layout and invalidation. Result made for model changed during
+   * layout is dropped, the diagram is laid out synchronously in the case.
+   *
+   * @since 1.4.8
+   */
+  public void doLayoutInBackground() {
+    if (lockIfNotDisposed()) {
+      try {
+        cancelBackgroundLayout();
+        if (this.model.getRoot() == null) {
+          return;
+        }
+
+        final long id = this.backgroundLayoutId;
+        final long revision = this.modelRevision.get();
+        final MindMap liveModel = this.model;
+        final MindMap snapshot = new MindMap(liveModel);
+        final List<Topic> liveTopics = new ArrayList<Topic>();
+        collectVisibleTopics(liveModel.getRoot(), liveTopics);
+        final int[] structure = makeStructureSignature(liveTopics);
+        final MindMapPanelConfig cfg = new MindMapPanelConfig(this.config, false);
+        final Dimension pageSize = getPageSize();
+        final AffineTransform deviceTransform = this.getGraphicsConfiguration() == null ? new AffineTransform() : this.getGraphicsConfiguration().getDefaultTransform();
+
+        if (this.layoutExecutor == null) {
+          this.layoutExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            @Nonnull
+            public Thread newThread(@Nonnull final Runnable runnable) {
+              final Thread result = new Thread(runnable, "mmd-panel-layout"); //NOI18N
+              result.setDaemon(true);
+              return result;
+            }
+          });
+        }
+
+        this.backgroundLayout = this.layoutExecutor.submit(new Runnable() {
+          @Override
+          public void run() {
+            Dimension size = null;
+            AbstractElement[] elements = null;
+            final Graphics2D gfx = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+            try {
+              gfx.setTransform(deviceTransform);
+              cfg.getRenderQuality().prepare(gfx);
+              if (calculateElementSizes(new MMGraphics2DWrapper(gfx), snapshot, cfg) && !Thread.currentThread().isInterrupted()) {
+                size = layoutDiagramWithCenteringToPaper(snapshot, cfg, pageSize);
+              }
+              if (size != null && revision == modelRevision.get()) {
+                elements = makeElementsForTopics(snapshot, liveTopics);
+              }
+            } catch (Exception ex) {
+              LOGGER.error("Error during background layout", ex); //NOI18N
+            } finally {
+              gfx.dispose();
+            }
+
+            if (!Thread.currentThread().isInterrupted()) {
+              final Dimension diagramSize = elements == null ? null : size;
+              final AbstractElement[] liveElements = elements;
+              SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                  publishBackgroundLayout(id, revision, liveModel, liveTopics, structure, liveElements, pageSize, diagramSize);
+                }
+              });
+            }
+          }
+        });
+      } finally {
+        unlock();
+      }
+    }
+  }
+
+  private void publishBackgroundLayout(final long id, final long revision, @Nonnull final MindMap liveModel, @Nonnull @MustNotContainNull final List<Topic> liveTopics, @Nonnull final int[] structure, @Nullable @MustNotContainNull final AbstractElement[] elements, @Nonnull final Dimension pageSize, @Nullable final Dimension size) {
+    if (lockIfNotDisposed()) {
+      try {
+        if (id != this.backgroundLayoutId || this.backgroundLayout == null || this.model != liveModel) {
+          return;
+        }
+        this.backgroundLayout = null;
+        this.backgroundLayoutId++;
+
+        // result made for changed model is outdated, so that synchronous layout will be made during painting
+        if (size != null && elements != null && revision == this.modelRevision.get() && Arrays.equals(structure, makeStructureSignature(liveTopics))) {
+          for (int i = 0; i < elements.length; i++) {
+            liveTopics.get(i).setPayload(elements[i]);
+          }
+          this.layoutPageSize = pageSize;
+          changeSizeOfComponent(size, true);
+        } else {
+          liveModel.resetPayload();
+        }
+        onLayoutChanged();
+        repaint();
+      } finally {
+        unlock();
+      }
+    }
+  }
+
+  private static void collectVisibleTopics(@Nullable final Topic topic, @Nonnull @MustNotContainNull final List<Topic> result) {
+    if (topic != null) {
+      result.add(topic);
+      // elements of hidden children are created lazily
+      if (!isChildrenHidden(topic)) {
+        for (final Topic c : topic.getChildren()) {
+          collectVisibleTopics(c, result);
+        }
+      }
+    }
+  }
+
+  /**
+   * Make copies of elements laid out for snapshot, bound to topics of the
+   * live model. It is called outside of the Swing thread.
+   *
+   * @param snapshot   laid out snapshot of the live model
+   * @param liveTopics visible topics of the live model in the same order as
+   *                   they are collected for the snapshot
+   * @return copies of elements or null if they can't be made
+   */
+  @Nullable
+  @MustNotContainNull
+  private static AbstractElement[] makeElementsForTopics(@Nonnull final MindMap snapshot, @Nonnull @MustNotContainNull final List<Topic> liveTopics) {
+    final List<Topic> snapshotTopics = new ArrayList<Topic>(liveTopics.size());
+    collectVisibleTopics(snapshot.getRoot(), snapshotTopics);
+    if (snapshotTopics.size() != liveTopics.size()) {
+      return null;
+    }
+    final AbstractElement[] result = new AbstractElement[snapshotTopics.size()];
+    for (int i = 0; i < result.length; i++) {
+      final AbstractElement element = (AbstractElement) snapshotTopics.get(i).getPayload();
+      final AbstractElement copy = element == null ? null : element.makeCopyFor(liveTopics.get(i));
+      if (copy == null) {
+        return null;
+      }
+      result[i] = copy;
+    }
+    return result;
+  }
+
+  /**
+   * Make copy of the model together with copies of its laid out elements, so
+   * that the copy can be drawn without lock of the panel. It must be called
+   * under lock of the panel which elements are copied.
+   *
+   * @param model model with laid out elements, must not be null
+   * @return copy of the model with elements or null if elements of the model
+   * are not presented
+   */
+  @Nullable
+  static MindMap makeLaidOutCopy(@Nonnull final MindMap model) {
+    final Topic root = model.getRoot();
+    if (root == null || root.getPayload() == null) {
+      return null;
+    }
+    final MindMap result = new MindMap(model);
+    final List<Topic> copiedTopics = new ArrayList<Topic>();
+    collectVisibleTopics(result.getRoot(), copiedTopics);
+    final AbstractElement[] elements = makeElementsForTopics(model, copiedTopics);
+    if (elements == null) {
+      return null;
+    }
+    for (int i = 0; i < elements.length; i++) {
+      copiedTopics.get(i).setPayload(elements[i]);
+    }
+    return result;
+  }
+
+  private static boolean isChildrenHidden(@Nonnull final Topic topic) {
+    // root can't be collapsed
+    return topic.getParent() != null && MindMapUtils.isCollapsed(topic);
+  }
+
+  /**
+   * Make cheap signature of topics structure, model can be changed without
+   * events so that it is checked before publishing of background layout.
+   *
+   * @param topics visible topics
+   * @return number of children for every topic, -1 for collapsed topic
+   */
+  @Nonnull
+  private static int[] makeStructureSignature(@Nonnull @MustNotContainNull final List<Topic> topics) {
+    final int[] result = new int[topics.size()];
+    for (int i = 0; i < result.length; i++) {
+      final Topic topic = topics.get(i);
+      result[i] = isChildrenHidden(topic) ? -1 : topic.getChildren().size();
+    }
+    return result;
+  }
+
+  private static double calcScaleForWheelRotation(final double scale, final int wheelRotation) {
+    final double result = ((long) (10.0d * (scale + (SCALE_STEP * -wheelRotation) + (SCALE_STEP / 2.0d)))) / 10.0d;
+    return Math.max(SCALE_MINIMUM, Math.min(result, SCALE_MAXIMUM));
+  }
+
+  /**
+   * Make zoom step without layout. The first step captures visible area of
+   * the diagram and the frame is shown scaled around the mouse point till
+   * wheel events stop, then real layout is made once for the final scale.
+   *
+   * @param point         mouse point in component coordinates
+   * @param wheelRotation number of wheel clicks
+   * @return false if fast zoom can't be used, true otherwise
+   */
+  private boolean doFastZoomStep(@Nonnull final Point point, final int wheelRotation) {
+    if (this.fastZoomFrame == null) {
+      final Rectangle area = this.getVisibleRect();
+      if (area.isEmpty() || this.model.getRoot() == null || this.model.getRoot().getPayload() == null) {
+        return false;
+      }
+
+      final BufferedImage frame = new BufferedImage(area.width, area.height, BufferedImage.TYPE_INT_ARGB);
+      final Graphics2D gfx = frame.createGraphics();
+      try {
+        this.config.getRenderQuality().prepare(gfx);
+        gfx.translate(-area.x, -area.y);
+        gfx.setClip(area);
+        drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), this.config, this.model, false, null);
+      } finally {
+        gfx.dispose();
+      }
+
+      if (this.fastZoomTimer == null) {
+        this.fastZoomTimer = new Timer(FAST_ZOOM_SETTLE_DELAY, new ActionListener() {
+          @Override
+          public void actionPerformed(@Nonnull final ActionEvent e) {
+            endFastZoom();
+          }
+        });
+        this.fastZoomTimer.setRepeats(false);
+      }
+
+      this.fastZoomFrame = frame;
+      this.fastZoomArea = area;
+      this.fastZoomScale = getScale();
+    }
+
+    this.fastZoomScale = calcScaleForWheelRotation(this.fastZoomScale, wheelRotation);
+    this.fastZoomAnchor = new Point(point);
+    this.fastZoomTimer.restart();
+    repaint();
+    return true;
+  }
+
+  private void drawFastZoomFrame(@Nonnull final Graphics2D gfx) {
+    final double factor = this.fastZoomScale / getScale();
+    final Rectangle area = this.fastZoomArea;
+    final Point anchor = this.fastZoomAnchor;
+
+    drawBackground(new MMGraphics2DWrapper(gfx), this.config);
+    gfx.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+    final double x = anchor.getX() + (area.getX() - anchor.getX()) * factor;
+    final double y = anchor.getY() + (area.getY() - anchor.getY()) * factor;
+    gfx.drawImage(this.fastZoomFrame, (int) Math.round(x), (int) Math.round(y), (int) Math.round(area.getWidth() * factor), (int) Math.round(area.getHeight() * factor), null);
+  }
+
+  private void endFastZoom() {
+    if (this.lockIfNotDisposed()) {
+      try {
+        if (this.fastZoomFrame != null) {
+          this.fastZoomTimer.stop();
+          this.fastZoomFrame = null;
+          this.fastZoomArea = null;
+
+          final double oldScale = getScale();
+          final double newScale = this.fastZoomScale;
+
+          if (Double.compare(oldScale, newScale) == 0) {
+            repaint();
+          } else {
+            final Dimension oldSize = this.mindMapImageSize.get();
+
+            setScale(newScale, false);
+            doLayout();
+            revalidate();
+            repaint();
+
+            fireNotificationScaledByMouse(this.fastZoomAnchor, oldScale, newScale, oldSize, this.mindMapImageSize.get().getSize());
+          }
+        }
+      } finally {
+        this.unlock();
+      }
+    }
+  }
+
+  @Nonnull
+  private RenderQuality getCurrentRenderQuality() {
+    return this.interactionActive ? RenderQuality.SPEED : this.config.getRenderQuality();
+  }
+
+  /**
+   * Notify the panel about started or continued user interaction (drag,
+   * scroll or zoom). If adaptive render quality is enabled then the panel is
+   * painted with fast rendering hints till end of interaction and repainted
+   * with configured quality after short idle period.
+   *
+   * @since 1.4.8
+   */
+  public void markInteraction() {
+    if (this.lockIfNotDisposed()) {
+      try {
+        if (this.config.isAdaptiveRenderQualityEnabled()) {
+          if (this.interactionTimer == null) {
+            this.interactionTimer = new Timer(INTERACTION_IDLE_DELAY, new ActionListener() {
+              @Override
+              public void actionPerformed(@Nonnull final ActionEvent e) {
+                endInteraction();
+              }
+            });
+            this.interactionTimer.setRepeats(false);
+          }
+          this.interactionActive = true;
+          this.interactionTimer.restart();
+        }
+      } finally {
+        this.unlock();
+      }
+    }
+  }
+
+  private void endInteraction() {
+    if (this.lockIfNotDisposed()) {
+      try {
+        if (this.interactionActive) {
+          this.interactionActive = false;
+          if (this.lowQualityTilesPainted) {
+            this.lowQualityTilesPainted = false;
+            this.tileCache.clear();
+          }
+          repaint();
+        }
+      } finally {
+        this.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void addNotify() {
+    super.addNotify();
+    final Container parent = this.getParent();
+    if (parent instanceof JViewport) {
+      ((JViewport) parent).addChangeListener(this.viewportListener);
+    }
+  }
+
+  @Override
+  public void removeNotify() {
+    final Container parent = this.getParent();
+    if (parent instanceof JViewport) {
+      ((JViewport) parent).removeChangeListener(this.viewportListener);
+    }
+    super.removeNotify();
+  }
+
+  private void cancelBackgroundLayout() {
+    if (this.backgroundLayout != null) {
+      this.backgroundLayout.cancel(true);
+      this.backgroundLayout = null;
+    }
+    this.backgroundLayoutId++;
+  }
+
+  private boolean isBackgroundLayoutAllowed() {
+    final int threshold = this.config.getBackgroundLayoutThreshold();
+    final Topic root = this.model == null ? null : this.model.getRoot();
+    return threshold > 0 && root != null && countTopics(root, threshold) >= threshold;
+  }
+
+  private static int countTopics(@Nonnull final Topic topic, final int limit) {
+    int result = 1;
+    for (final Topic t : topic.getChildren()) {
+      if (result >= limit) {
+        break;
+      }
+      result += countTopics(t, limit - result);
+    }
+    return result;
+  }
+
+  public boolean updateElementsAndSizeForGraphics(@Nullable final Graphics2D graph, final boolean forceLayout, final boolean doListenerNotification) {
     boolean result = true;
     if (forceLayout || !isValid()) {
       if (lockIfNotDisposed()) {
         try {
           if (graph != null) {
+            cancelBackgroundLayout();
             final MMGraphics gfx = new MMGraphics2DWrapper(graph);
             if (calculateElementSizes(gfx, this.model, this.config)) {
-
-              Dimension pageSize = getSize();
-
-              final Container parent = this.getParent();
-              if (parent != null) {
-                if (parent instanceof JViewport) {
-                  pageSize = ((JViewport) parent).getExtentSize();
-                }
-              }
-
-              changeSizeOfComponent(layoutFullDiagramWithCenteringToPaper(gfx, this.model, this.config, pageSize), doListenerNotification);
+              this.layoutPageSize = getPageSize();
+              changeSizeOfComponent(layoutDiagramWithCenteringToPaper(this.model, this.config, this.layoutPageSize), doListenerNotification);
+              onLayoutChanged();
               result = true;
 
               if (doListenerNotification) {
@@ -2362,6 +3294,140 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     return result;
   }
 
+  private void onLayoutChanged() {
+    this.spatialIndex = null;
+    this.layoutRevision.incrementAndGet();
+  }
+
+  /**
+   * Get revision of element layout. It is changed every time when elements
+   * are invalidated or laid out, so that it can be used as a key for data
+   * calculated for element positions.
+   *
+   * @return current layout revision
+   * @since 1.4.8
+   */
+  public long getLayoutRevision() {
+    return this.layoutRevision.get();
+  }
+
+  /**
+   * Drop cached rendered fragments of diagram. Must be called if visual
+   * representation of topics has been changed without layout.
+   *
+   * @since 1.4.8
+   */
+  public void invalidateTileCache() {
+    if (this.lockIfNotDisposed()) {
+      try {
+        this.tileCache.clear();
+      } finally {
+        this.unlock();
+      }
+    }
+  }
+
+  /**
+   * Drop cached rendered fragments of diagram which intersect area.
+   *
+   * @param area area in component coordinates, must not be null
+   * @since 1.4.8
+   */
+  public void invalidateTileCache(@Nonnull final Rectangle2D area) {
+    if (this.lockIfNotDisposed()) {
+      try {
+        this.tileCache.invalidate(area);
+      } finally {
+        this.unlock();
+      }
+    }
+  }
+
+  @Nullable
+  private ElementSpatialIndex getSpatialIndex() {
+    final Topic root = this.model == null ? null : this.model.getRoot();
+    final AbstractElement rootElement = root == null ? null : (AbstractElement) root.getPayload();
+    if (rootElement == null) {
+      return null;
+    }
+
+    ElementSpatialIndex result = this.spatialIndex;
+    if (result == null || result.getRoot() != rootElement) {
+      result = new ElementSpatialIndex(rootElement);
+      this.spatialIndex = result;
+    }
+    return result;
+  }
+
+  @Nonnull
+  private Dimension getPageSize() {
+    Dimension pageSize = getSize();
+
+    final Container parent = this.getParent();
+    if (parent != null) {
+      if (parent instanceof JViewport) {
+        pageSize = ((JViewport) parent).getExtentSize();
+      }
+    }
+    return pageSize;
+  }
+
+  /**
+   * Update elements and layout only for changed topics. If elements can't be
+   * updated incrementally (for instance topic has been moved to another level
+   * or elements are not created yet) then nothing is changed and false is
+   * returned, full layout should be made in the case.
+   *
+   * @param topics                 changed topics, for removed topic its
+   *                               parent must be provided
+   * @param doListenerNotification notify listeners about layout
+   * @return true if elements have been updated and aligned, false otherwise
+   * @since 1.4.8
+   */
+  public boolean updateElementsAndSizeForTopics(@Nonnull @MustNotContainNull final Collection<Topic> topics, final boolean doListenerNotification) {
+    boolean result = false;
+    if (lockIfNotDisposed()) {
+      try {
+        cancelBackgroundLayout();
+        Graphics2D graph = (Graphics2D) this.getGraphics();
+        if (graph == null) {
+          graph = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB).createGraphics();
+        }
+        try {
+          final MMGraphics gfx = new MMGraphics2DWrapper(graph);
+          if (updateElementSizesForTopics(gfx, this.model, this.config, topics)) {
+            this.layoutPageSize = getPageSize();
+            changeSizeOfComponent(layoutDiagramWithCenteringToPaper(this.model, this.config, this.layoutPageSize), doListenerNotification);
+            onLayoutChanged();
+            result = true;
+
+            if (doListenerNotification) {
+              fireNotificationComponentElementsLayouted(graph);
+            }
+          }
+        } finally {
+          graph.dispose();
+        }
+      } finally {
+        unlock();
+      }
+    }
+    return result;
+  }
+
+  private void doLayoutForTopics(@Nonnull @MustNotContainNull final Collection<Topic> topics) {
+    final Dimension oldSize = this.getPreferredSize();
+    if (!updateElementsAndSizeForTopics(topics, false)) {
+      doLayout();
+    }
+    // revalidate() would call invalidate() and drop just made layout, so only parent is informed about new size
+    final Container parent = this.getParent();
+    if (parent instanceof JComponent && !oldSize.equals(this.getPreferredSize())) {
+      ((JComponent) parent).revalidate();
+    }
+    repaint();
+  }
+
   public boolean updateElementsAndSizeForCurrentGraphics(final boolean enforce, final boolean doListenerNotification) {
     assertSwingDispatchThread();
     Graphics2D gfx = (Graphics2D) this.getGraphics();
@@ -2369,7 +3435,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
       if (gfx == null) {
         gfx = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB).createGraphics();
       }
-      return updateElementsAndSizeForGraphics((Graphics2D) getGraphics(), enforce, doListenerNotification);
+      return updateElementsAndSizeForGraphics(gfx, enforce, doListenerNotification);
     } finally {
       gfx.dispose();
     }
@@ -2395,6 +3461,9 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   public boolean isValid() {
     if (this.lockIfNotDisposed()) {
       try {
+        if (this.backgroundLayout != null) {
+          return true;
+        }
         if (this.model != null) {
           final Topic root = this.model.getRoot();
           AbstractElement rootElement = null;
@@ -2420,15 +3489,31 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     if (lockIfNotDisposed()) {
       try {
         super.invalidate();
-        if (this.model != null && this.model.getRoot() != null) {
+        // changes of the text editor and resize with the same page size don't change the diagram, so that its layout is kept
+        final boolean layoutActual = this.elementUnderEdit != null || (this.resizeInProgress && getPageSize().equals(this.layoutPageSize));
+        if (this.model != null && this.model.getRoot() != null && !layoutActual) {
+          cancelBackgroundLayout();
+          this.layoutPageSize = null;
           this.model.resetPayload();
         }
+        onLayoutChanged();
       } finally {
         this.unlock();
       }
     }
   }
 
+  @Override
+  public void setBounds(final int x, final int y, final int width, final int height) {
+    final boolean prev = this.resizeInProgress;
+    this.resizeInProgress = true;
+    try {
+      super.setBounds(x, y, width, height);
+    } finally {
+      this.resizeInProgress = prev;
+    }
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public void paintComponent(@Nonnull final Graphics g) {
@@ -2438,15 +3523,30 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         try {
           final String error = this.errorText;
 
-          this.getConfiguration().getRenderQuality().prepare(gfx);
+          getCurrentRenderQuality().prepare(gfx);
 
           if (error != null) {
             drawErrorText(gfx, this.getSize(), error);
+          } else if (this.fastZoomFrame != null) {
+            drawFastZoomFrame(gfx);
           } else {
             if (this.model.getRoot().getPayload() == null) {
-              updateElementsAndSizeForGraphics(gfx, true, false);
+              if (this.backgroundLayout == null) {
+                // text must be measured with configured hints, else layout made during interaction is kept after its end
+                this.config.getRenderQuality().prepare(gfx);
+                updateElementsAndSizeForGraphics(gfx, true, false);
+                getCurrentRenderQuality().prepare(gfx);
+              }
+            }
+            if (this.model.getRoot().getPayload() == null) {
+              drawBackground(new MMGraphics2DWrapper(gfx), this.config);
+            } else if (this.config.isTileCacheEnabled()) {
+              final Rectangle clip = gfx.getClipBounds();
+              this.tileCache.paint(gfx, clip == null ? new Rectangle(this.getSize()) : clip, this.config.getScale(), getLayoutRevision(), !this.config.isDrawBackground(), this.tilePainter);
+              drawSelection(new MMGraphics2DWrapper(gfx), this.config, this.selectedTopics);
+            } else {
+              drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), this.config, this.model, true, this.selectedTopics);
             }
-            drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), this.config, this.model, true, this.selectedTopics);
             drawDestinationElement(gfx, this.config);
           }
 
@@ -2471,18 +3571,8 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   public AbstractElement findTopicUnderPoint(@Nonnull final Point point) {
     if (this.lockIfNotDisposed()) {
       try {
-        AbstractElement result = null;
-        if (this.model != null) {
-          final Topic root = this.model.getRoot();
-          if (root != null) {
-            final AbstractElement rootWidget = (AbstractElement) root.getPayload();
-            if (rootWidget != null) {
-              result = rootWidget.findForPoint(point);
-            }
-          }
-        }
-
-        return result;
+        final ElementSpatialIndex index = getSpatialIndex();
+        return index == null ? null : index.findForPoint(point);
       } finally {
         this.unlock();
       }
@@ -2540,7 +3630,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   public boolean cloneTopic(@Nullable final Topic topic, final boolean cloneSubtree) {
     this.lock();
     try {
-      if (topic == null || topic.getTopicLevel() == 0) {
+      if (topic == null || topic.getTopicLevel() == 0 || topic.isMounted()) {
         return false;
       }
 
@@ -2584,7 +3674,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   public Topic getFirstSelected() {
     if (this.lockIfNotDisposed()) {
       try {
-        return this.selectedTopics.isEmpty() ? null : this.selectedTopics.get(0);
+        return this.selectedTopics.isEmpty() ? null : this.selectedTopics.iterator().next();
       } finally {
         this.unlock();
       }
@@ -2706,6 +3796,9 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
               if (selected.length > 0) {
                 for (final Topic s : selected) {
+                  if (s.isMounted()) {
+                    continue;
+                  }
                   for (final Topic t : container.getTopics()) {
                     final Topic newTopic = new Topic(this.model, t, true);
                     newTopic.removeExtra(Extra.ExtraType.TOPIC);
@@ -2753,6 +3846,9 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
                 if (selectedTopics.length > 0) {
                   for (final Topic s : selectedTopics) {
+                    if (s.isMounted()) {
+                      continue;
+                    }
                     final Topic newTopic;
                     if (extraNoteText == null) {
                       newTopic = new Topic(this.model, s, topicText);
@@ -2791,6 +3887,23 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         if (this.disposed.compareAndSet(false, true)) {
           this.weakTable.clear();
           this.selectedTopics.clear();
+          this.tileCache.clear();
+          cancelBackgroundLayout();
+          if (this.model != null) {
+            this.model.removeMindMapModelEventListener(this.modelListener);
+          }
+          if (this.fastZoomTimer != null) {
+            this.fastZoomTimer.stop();
+          }
+          this.fastZoomFrame = null;
+          if (this.interactionTimer != null) {
+            this.interactionTimer.stop();
+          }
+          if (this.layoutExecutor != null) {
+            this.layoutExecutor.shutdownNow();
+            this.layoutExecutor = null;
+          }
+          this.config.removeConfigurationListener(this.configListener);
           this.mindMapListeners.clear();
 
           for (final PanelAwarePlugin p : MindMapPluginRegistry.getInstance().findFor(PanelAwarePlugin.class)) {
@@ -22,6 +22,7 @@ import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.annotation.ReturnsOriginal;
 import com.igormaznitsa.meta.common.utils.GetUtils;
+import com.igormaznitsa.mindmap.swing.panel.ui.TextMetricsCache;
 import com.igormaznitsa.mindmap.swing.panel.utils.KeyShortcut;
 import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
 import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
@@ -111,8 +112,16 @@ public final class MindMapPanelConfig implements Serializable {
   private Font font = new Font(Font.SERIF, Font.BOLD, 18);
   private double scale = 1.0d;
   private boolean dropShadow = true;
+  private boolean tileCacheEnabled = false;
+  private boolean fastZoomEnabled = false;
+  private boolean adaptiveRenderQualityEnabled = false;
+  private double lodGreekTextScale = 0.0d;
+  private double lodHideImagesScale = 0.0d;
+  private double lodSimpleConnectorsScale = 0.0d;
+  private int backgroundLayoutThreshold = 0;
   private RenderQuality renderQuality = Utils.getDefaultRenderQialityForOs();
   private transient volatile boolean notificationEnabled = true;
+  private transient volatile TextMetricsCache textMetricsCache;
 
   public MindMapPanelConfig(@Nonnull final MindMapPanelConfig cfg, final boolean copyListeners) {
     this();
@@ -367,6 +376,27 @@ public final class MindMapPanelConfig implements Serializable {
     }
   }
 
+  /**
+   * Get cache of scaled fonts and text measurements bound to the config.
+   *
+   * @return text metrics cache
+   * @since 1.4.8
+   */
+  @Nonnull
+  public TextMetricsCache getTextMetricsCache() {
+    TextMetricsCache result = this.textMetricsCache;
+    if (result == null) {
+      synchronized (this) {
+        result = this.textMetricsCache;
+        if (result == null) {
+          result = new TextMetricsCache();
+          this.textMetricsCache = result;
+        }
+      }
+    }
+    return result;
+  }
+
   public float safeScaleFloatValue(final float value, final float minimal) {
     final float result = (float) (this.scale * (double) value);
     return Float.compare(result, minimal) >= 0 ? result : minimal;
@@ -385,6 +415,8 @@ public final class MindMapPanelConfig implements Serializable {
               }
             }
           }
+        } else if (f.getName().equals("textMetricsCache")) { //NOI18N
+          // every config keeps own cache
         } else if ((f.getModifiers() & (Modifier.STATIC | Modifier.FINAL)) == 0) {
           try {
             f.set(this, f.get(src));
@@ -796,6 +828,129 @@ public final class MindMapPanelConfig implements Serializable {
     notifyCfgListenersAboutChange();
   }
 
+  /**
+   * Check that rendered diagram fragments are cached and reused for repaint.
+   *
+   * @return true if tile cache is enabled, false otherwise
+   * @since 1.4.8
+   */
+  public boolean isTileCacheEnabled() {
+    return this.tileCacheEnabled;
+  }
+
+  public void setTileCacheEnabled(final boolean value) {
+    this.tileCacheEnabled = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  /**
+   * Check that zoom by mouse wheel shows scaled image of the diagram while
+   * wheel is rotated and makes layout only once for the final scale.
+   *
+   * @return true if fast zoom is enabled, false otherwise
+   * @since 1.4.8
+   */
+  public boolean isFastZoomEnabled() {
+    return this.fastZoomEnabled;
+  }
+
+  public void setFastZoomEnabled(final boolean value) {
+    this.fastZoomEnabled = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  /**
+   * Check that panel is painted with fast rendering hints during drag, scroll
+   * and zoom and repainted with configured render quality when user stops.
+   *
+   * @return true if adaptive render quality is enabled, false otherwise
+   * @since 1.4.8
+   */
+  public boolean isAdaptiveRenderQualityEnabled() {
+    return this.adaptiveRenderQualityEnabled;
+  }
+
+  public void setAdaptiveRenderQualityEnabled(final boolean value) {
+    this.adaptiveRenderQualityEnabled = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  /**
+   * Get scale threshold, below it text of topics is not rendered but shown as
+   * bars and measured approximately. Zero disables the mode.
+   *
+   * @return scale threshold for greeked text
+   * @since 1.4.8
+   */
+  public double getLodGreekTextScale() {
+    return this.lodGreekTextScale;
+  }
+
+  public void setLodGreekTextScale(final double value) {
+    this.lodGreekTextScale = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  /**
+   * Get scale threshold, below it extras icons and images of visual attributes
+   * are neither measured nor rendered. Zero disables the mode.
+   *
+   * @return scale threshold for hidden images
+   * @since 1.4.8
+   */
+  public double getLodHideImagesScale() {
+    return this.lodHideImagesScale;
+  }
+
+  public void setLodHideImagesScale(final double value) {
+    this.lodHideImagesScale = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  /**
+   * Get scale threshold, below it connectors are drawn as straight lines.
+   * Zero disables the mode.
+   *
+   * @return scale threshold for simplified connectors
+   * @since 1.4.8
+   */
+  public double getLodSimpleConnectorsScale() {
+    return this.lodSimpleConnectorsScale;
+  }
+
+  public void setLodSimpleConnectorsScale(final double value) {
+    this.lodSimpleConnectorsScale = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  /**
+   * Get number of topics, since which layout of whole diagram is calculated
+   * in background thread. Zero disables the mode.
+   *
+   * @return threshold number of topics for background layout
+   * @since 1.4.8
+   */
+  public int getBackgroundLayoutThreshold() {
+    return this.backgroundLayoutThreshold;
+  }
+
+  public void setBackgroundLayoutThreshold(final int value) {
+    this.backgroundLayoutThreshold = value;
+    notifyCfgListenersAboutChange();
+  }
+
+  public boolean isLodGreekText() {
+    return this.scale < this.lodGreekTextScale;
+  }
+
+  public boolean isLodHideImages() {
+    return this.scale < this.lodHideImagesScale;
+  }
+
+  public boolean isLodSimpleConnectors() {
+    return this.scale < this.lodSimpleConnectorsScale;
+  }
+
   @Nonnull
   public RenderQuality getRenderQuality() {
     return this.renderQuality;
@@ -19,6 +19,7 @@ package com.igormaznitsa.mindmap.swing.panel.ui;
 import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
 
 
+import com.igormaznitsa.mindmap.model.MountedSubMap;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute;
@@ -28,6 +29,7 @@ import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.geom.Dimension2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
@@ -39,7 +41,11 @@ public abstract class AbstractCollapsableElement extends AbstractElement {
   protected final Rectangle2D collapsatorZone = new Rectangle2D.Double();
 
   protected AbstractCollapsableElement(@Nonnull final AbstractCollapsableElement element) {
-    super(element);
+    this(element, element.model);
+  }
+
+  protected AbstractCollapsableElement(@Nonnull final AbstractCollapsableElement element, @Nonnull final Topic model) {
+    super(element, model);
     this.collapsatorZone.setRect(element.collapsatorZone);
   }
 
@@ -95,7 +101,7 @@ public abstract class AbstractCollapsableElement extends AbstractElement {
 
   @Override
   public boolean isCollapsed() {
-    return MindMapUtils.isCollapsed(this.model);
+    return MindMapUtils.isCollapsed(this.model) || (MountedSubMap.isMountPoint(this.model) && !MountedSubMap.isMountedContentPresented(this.model));
   }
 
   public void setCollapse(final boolean collapseElementFlag) {
@@ -147,9 +153,9 @@ public abstract class AbstractCollapsableElement extends AbstractElement {
           } else {
             notFirstChiild = true;
           }
-          ((AbstractElement) assertNotNull(t.getPayload())).calcBlockSize(cfg, result, false);
-          width = Math.max(baseWidth + result.getWidth(), width);
-          childrenHeight += result.getHeight();
+          final Dimension2D childBlockSize = ((AbstractElement) assertNotNull(t.getPayload())).getMeasuredBlockSize(cfg);
+          width = Math.max(baseWidth + childBlockSize.getWidth(), width);
+          childrenHeight += childBlockSize.getHeight();
         }
 
         height = Math.max(height, childrenHeight);
@@ -211,23 +217,26 @@ public abstract class AbstractCollapsableElement extends AbstractElement {
   }
 
   @Override
-  public void doPaintConnectors(@Nonnull final MMGraphics g, final boolean leftDirection, @Nonnull final MindMapPanelConfig cfg) {
-    final Rectangle2D source = new Rectangle2D.Double(this.bounds.getX() + this.collapsatorZone.getX(), this.bounds.getY() + this.collapsatorZone.getY(), this.collapsatorZone.getWidth(), this.collapsatorZone.getHeight());
-    final boolean lefDir = isLeftDirection();
-    for (final Topic t : this.model.getChildren()) {
-      this.drawConnector(g, source, (assertNotNull((AbstractElement) t.getPayload())).getBounds(), lefDir, cfg);
-    }
+  @Nonnull
+  protected Rectangle2D getConnectorSource() {
+    return new Rectangle2D.Double(this.bounds.getX() + this.collapsatorZone.getX(), this.bounds.getY() + this.collapsatorZone.getY(), this.collapsatorZone.getWidth(), this.collapsatorZone.getHeight());
   }
 
   @Override
-  public void drawConnector(@Nonnull final MMGraphics g, @Nonnull final Rectangle2D source, @Nonnull final Rectangle2D destination, final boolean leftDirection, @Nonnull final MindMapPanelConfig cfg) {
-    g.setStroke(cfg.safeScaleFloatValue(cfg.getConnectorWidth(), 0.1f), StrokeType.SOLID);
+  protected boolean isVisibleInClip(@Nullable final Rectangle clip, @Nonnull final MindMapPanelConfig cfg) {
+    if (super.isVisibleInClip(clip, cfg)) {
+      return true;
+    }
+    return this.hasChildren() && clip.intersects(this.bounds.getX() + this.collapsatorZone.getX(), this.bounds.getY() + this.collapsatorZone.getY(), this.collapsatorZone.getWidth(), this.collapsatorZone.getHeight());
+  }
 
+  @Override
+  public void appendConnector(@Nonnull final Path2D path, @Nonnull final Rectangle2D source, @Nonnull final Rectangle2D destination, final boolean leftDirection, @Nonnull final MindMapPanelConfig cfg) {
     final double dy = Math.abs(destination.getCenterY() - source.getCenterY());
     if (dy < (16.0d * cfg.getScale())) {
-      g.drawLine((int) source.getCenterX(), (int) source.getCenterY(), (int) destination.getCenterX(), (int) source.getCenterY(), cfg.getConnectorColor());
+      path.moveTo((int) source.getCenterX(), (int) source.getCenterY());
+      path.lineTo((int) destination.getCenterX(), (int) source.getCenterY());
     } else {
-      final Path2D path = new Path2D.Double();
       path.moveTo(source.getCenterX(), source.getCenterY());
 
       if (leftDirection) {
@@ -241,8 +250,6 @@ public abstract class AbstractCollapsableElement extends AbstractElement {
         path.lineTo((source.getCenterX() + dx / 2), destination.getCenterY());
         path.lineTo(destination.getCenterX(), destination.getCenterY());
       }
-
-      g.draw(path, cfg.getConnectorColor(), null);
     }
   }
 
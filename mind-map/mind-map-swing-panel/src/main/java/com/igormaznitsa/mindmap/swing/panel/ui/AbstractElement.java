@@ -17,20 +17,20 @@
 package com.igormaznitsa.mindmap.swing.panel.ui;
 
 import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
-import static com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute.ATTR_BORDER_COLOR;
-import static com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute.ATTR_FILL_COLOR;
-import static com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute.ATTR_TEXT_COLOR;
 
 
+import com.igormaznitsa.mindmap.model.MountedSubMap;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
-import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.StrokeType;
+import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.Dimension2D;
+import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -50,17 +50,27 @@ public abstract class AbstractElement {
   protected final Rectangle2D bounds = new Rectangle2D.Double();
   protected final Dimension2D blockSize = new Dimension();
 
+  protected boolean blockSizeDirty = true;
+
   protected Color fillColor;
   protected Color textColor;
   protected Color borderColor;
 
+  private ConnectorsCache connectorsCache;
+  private ElementRoot rootElement;
+
   protected AbstractElement(@Nonnull final AbstractElement orig) {
-    this.model = orig.model;
+    this(orig, orig.model);
+  }
+
+  protected AbstractElement(@Nonnull final AbstractElement orig, @Nonnull final Topic model) {
+    this.model = model;
     this.textBlock = new TextBlock(orig.textBlock);
-    this.extrasIconBlock = new IconBlock(orig.extrasIconBlock);
-    this.visualAttributeImageBlock = new VisualAttributeImageBlock(orig.visualAttributeImageBlock);
+    this.extrasIconBlock = new IconBlock(orig.extrasIconBlock, model);
+    this.visualAttributeImageBlock = new VisualAttributeImageBlock(orig.visualAttributeImageBlock, model);
     this.bounds.setRect(orig.bounds);
     this.blockSize.setSize(orig.blockSize);
+    this.blockSizeDirty = orig.blockSizeDirty;
     this.fillColor = orig.fillColor;
     this.textColor = orig.textColor;
     this.borderColor = orig.borderColor;
@@ -68,10 +78,11 @@ public abstract class AbstractElement {
 
   public AbstractElement(@Nonnull final Topic model) {
     this.model = model;
-    this.textBlock = new TextBlock(this.model.getText(), TextAlign.findForName(model.getAttribute("align")));
-    this.textBlock.setTextAlign(TextAlign.findForName(model.getAttribute("align"))); //NOI18N
+    this.textBlock = new TextBlock(this.model.getText(), TopicStyle.of(model).getTextAlign());
     this.extrasIconBlock = new IconBlock(model);
     this.visualAttributeImageBlock = new VisualAttributeImageBlock(model);
+    final AbstractElement parent = getParent();
+    this.rootElement = parent == null ? null : parent.findRootElement();
     updateColorAttributeFromModel();
   }
 
@@ -85,10 +96,23 @@ public abstract class AbstractElement {
     this.textBlock.updateText(text);
   }
 
+  /**
+   * Refresh text, text alignment and colors of the element from its model
+   * topic. Bounds of the element must be updated after the call.
+   *
+   * @since 1.4.8
+   */
+  public void refreshFromModel() {
+    this.textBlock.updateText(this.model.getText());
+    this.textBlock.setTextAlign(TopicStyle.of(this.model).getTextAlign());
+    updateColorAttributeFromModel();
+  }
+
   public final void updateColorAttributeFromModel() {
-    this.borderColor = Utils.html2color(this.model.getAttribute(ATTR_BORDER_COLOR.getText()), false);
-    this.textColor = Utils.html2color(this.model.getAttribute(ATTR_TEXT_COLOR.getText()), false);
-    this.fillColor = Utils.html2color(this.model.getAttribute(ATTR_FILL_COLOR.getText()), false);
+    final TopicStyle style = TopicStyle.of(this.model);
+    this.borderColor = style.getBorderColor();
+    this.textColor = style.getTextColor();
+    this.fillColor = style.getFillColor();
   }
 
   @Nullable
@@ -130,6 +154,8 @@ public abstract class AbstractElement {
       width += this.extrasIconBlock.getBounds().getWidth() + scaledHorzBlockGap;
     }
 
+    invalidateBlockSize();
+
     this.bounds.setRect(
         0d,
         0d,
@@ -143,8 +169,83 @@ public abstract class AbstractElement {
     );
   }
 
+  /**
+   * Find element of the root topic of the tree which the element belongs to.
+   * The root element keeps geometry revision of its tree. The root element is
+   * taken from the parent element during creation, for copies of elements it
+   * is found once when the copies have been placed into the topic tree.
+   *
+   * @return root element or null if it is not created yet
+   * @since 1.4.8
+   */
+  @Nullable
+  public ElementRoot findRootElement() {
+    ElementRoot result = this.rootElement;
+    if (result == null) {
+      Topic topic = this.model;
+      while (topic.getParent() != null) {
+        topic = topic.getParent();
+      }
+      final Object payload = topic.getPayload();
+      if (payload instanceof ElementRoot) {
+        result = (ElementRoot) payload;
+        this.rootElement = result;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Recalculate cached block size of the element. Block sizes of children are
+   * taken from their caches, so that the method must be called for children
+   * before their parent (bottom-up) to measure whole tree in linear time.
+   *
+   * @param cfg config to be used for calculation, must not be null
+   */
   public void updateBlockSize(@Nonnull final MindMapPanelConfig cfg) {
     this.calcBlockSize(cfg, this.blockSize, false);
+    this.blockSizeDirty = false;
+  }
+
+  /**
+   * Get block size of the element, it will be recalculated if it is marked as
+   * dirty.
+   *
+   * @param cfg config to be used for calculation, must not be null
+   * @return cached block size, must not be null
+   * @since 1.4.8
+   */
+  @Nonnull
+  public Dimension2D getMeasuredBlockSize(@Nonnull final MindMapPanelConfig cfg) {
+    if (this.blockSizeDirty) {
+      updateBlockSize(cfg);
+    }
+    return this.blockSize;
+  }
+
+  /**
+   * Check that cached block size must be recalculated.
+   *
+   * @return true if block size is not actual
+   * @since 1.4.8
+   */
+  public boolean isBlockSizeDirty() {
+    return this.blockSizeDirty;
+  }
+
+  /**
+   * Mark cached block size of the element and all its parents as dirty. Walk
+   * stops on the first already dirty element because parents of a dirty
+   * element are always dirty.
+   *
+   * @since 1.4.8
+   */
+  public void invalidateBlockSize() {
+    AbstractElement current = this;
+    while (current != null && !current.blockSizeDirty) {
+      current.blockSizeDirty = true;
+      current = current.getParent();
+    }
   }
 
   @Nonnull
@@ -172,35 +273,148 @@ public abstract class AbstractElement {
   }
 
   public final void doPaint(@Nonnull final MMGraphics g, @Nonnull final MindMapPanelConfig cfg, final boolean drawCollapsator) {
-    final MMGraphics gfx = g.copy();
-    try {
-      if (this.hasChildren() && !isCollapsed()) {
-        doPaintConnectors(g, isLeftDirection(), cfg);
-      }
-
-      final Rectangle clip = g.getClipBounds();
+    if (this.hasChildren() && !isCollapsed()) {
+      doPaintConnectors(g, isLeftDirection(), cfg);
+    }
 
-      if (clip == null) {
-        gfx.translate(this.bounds.getX(), this.bounds.getY());
-        drawComponent(gfx, cfg, drawCollapsator);
-      } else if (clip.intersects(this.bounds)) {
+    if (isVisibleInClip(g.getClipBounds(), cfg)) {
+      final MMGraphics gfx = g.copy();
+      try {
         gfx.translate(this.bounds.getX(), this.bounds.getY());
         drawComponent(gfx, cfg, drawCollapsator);
+      } finally {
+        gfx.dispose();
       }
-    } finally {
-      gfx.dispose();
     }
   }
 
+  /**
+   * Check that the element body must be painted for clip. Element border and
+   * shadow can be painted outside of element bounds so that they are taken
+   * into account.
+   *
+   * @param clip clip bounds, null means whole area
+   * @param cfg  configuration used for paint
+   * @return true if the element body intersects the clip
+   * @since 1.4.8
+   */
+  protected boolean isVisibleInClip(@Nullable final Rectangle clip, @Nonnull final MindMapPanelConfig cfg) {
+    if (clip == null) {
+      return true;
+    }
+    final double margin = (cfg.getElementBorderWidth() + (cfg.isDropShadow() ? cfg.getShadowOffset() : 0.0f)) * cfg.getScale() + 1.0d;
+    return clip.intersects(this.bounds.getX() - margin, this.bounds.getY() - margin, this.bounds.getWidth() + margin * 2.0d, this.bounds.getHeight() + margin * 2.0d);
+  }
+
+  /**
+   * Check that the area occupied by the element together with its visible
+   * descendants intersects clip. Children blocks are placed inside the parent
+   * block so that the whole subtree can be skipped if its block is out of the
+   * clip.
+   *
+   * @param clip clip bounds, null means whole area
+   * @param cfg  configuration used for layout
+   * @return true if the subtree block intersects the clip
+   * @since 1.4.8
+   */
+  public boolean isBlockVisibleInClip(@Nullable final Rectangle clip, @Nonnull final MindMapPanelConfig cfg) {
+    if (clip == null) {
+      return true;
+    }
+    final double margin = cfg.getCollapsatorSize() * cfg.getScale();
+    return clip.intersects(calcBlockX() - margin, calcBlockY() - margin, this.blockSize.getWidth() + margin * 2.0d, this.blockSize.getHeight() + margin * 2.0d);
+  }
+
+  /**
+   * Add straight line between centers of rectangles into path, it is used
+   * for low level of detail.
+   *
+   * @param path        path to be extended
+   * @param source      connector source rectangle
+   * @param destination connector destination rectangle
+   * @since 1.4.8
+   */
+  protected static void appendSimpleConnector(@Nonnull final Path2D path, @Nonnull final Rectangle2D source, @Nonnull final Rectangle2D destination) {
+    path.moveTo(Math.round(source.getCenterX()), Math.round(source.getCenterY()));
+    path.lineTo(Math.round(destination.getCenterX()), Math.round(destination.getCenterY()));
+  }
+
+  /**
+   * Get rectangle which is used as start point of connectors to children.
+   *
+   * @return source rectangle for connectors
+   * @since 1.4.8
+   */
+  @Nonnull
+  protected Rectangle2D getConnectorSource() {
+    return this.bounds;
+  }
+
+  /**
+   * Get shape containing connectors to all children. The shape is cached and
+   * rebuilt only if geometry revision, scale or level of detail have been
+   * changed.
+   *
+   * @param leftDirection direction of connectors
+   * @param cfg           configuration used for layout
+   * @return shape of all connectors to children
+   * @since 1.4.8
+   */
+  @Nonnull
+  public Path2D getConnectorsShape(final boolean leftDirection, @Nonnull final MindMapPanelConfig cfg) {
+    final ElementRoot root = findRootElement();
+    final long revision = root == null ? 0L : root.getGeometryRevision();
+    final double scale = cfg.getScale();
+    final boolean simple = cfg.isLodSimpleConnectors();
+
+    ConnectorsCache cache = this.connectorsCache;
+    if (cache == null || !cache.isValid(root, revision, scale, simple, leftDirection)) {
+      final Rectangle2D source = getConnectorSource();
+      final Path2D path = new Path2D.Double();
+      for (final Topic t : this.model.getChildren()) {
+        final Rectangle2D destination = (assertNotNull((AbstractElement) t.getPayload())).getBounds();
+        if (simple) {
+          appendSimpleConnector(path, source, destination);
+        } else {
+          appendConnector(path, source, destination, leftDirection, cfg);
+        }
+      }
+      cache = new ConnectorsCache(path, root, revision, scale, simple, leftDirection);
+      this.connectorsCache = cache;
+    }
+    return cache.shape;
+  }
+
   public void doPaintConnectors(@Nonnull final MMGraphics g, final boolean leftDirection, @Nonnull final MindMapPanelConfig cfg) {
-    final Rectangle2D source = this.bounds;
-    for (final Topic t : this.model.getChildren()) {
-      drawConnector(g, source, (assertNotNull((AbstractElement) t.getPayload())).getBounds(), leftDirection, cfg);
+    final Path2D connectors = getConnectorsShape(leftDirection, cfg);
+    if (connectors.getCurrentPoint() == null) {
+      return;
+    }
+    final float width = cfg.safeScaleFloatValue(cfg.getConnectorWidth(), 0.1f);
+    final Rectangle clip = g.getClipBounds();
+    if (clip != null) {
+      final Rectangle2D area = connectors.getBounds2D();
+      if (!clip.intersects(area.getX() - width, area.getY() - width, area.getWidth() + width * 2.0d, area.getHeight() + width * 2.0d)) {
+        return;
+      }
     }
+    g.setStroke(width, StrokeType.SOLID);
+    g.draw(connectors, cfg.getConnectorColor(), null);
+  }
+
+  public void drawConnector(@Nonnull final MMGraphics g, @Nonnull final Rectangle2D source, @Nonnull final Rectangle2D destination, final boolean leftDirection, @Nonnull final MindMapPanelConfig cfg) {
+    final Path2D path = new Path2D.Double();
+    if (cfg.isLodSimpleConnectors()) {
+      appendSimpleConnector(path, source, destination);
+    } else {
+      appendConnector(path, source, destination, leftDirection, cfg);
+    }
+    g.setStroke(cfg.safeScaleFloatValue(cfg.getConnectorWidth(), 0.1f), StrokeType.SOLID);
+    g.draw(path, cfg.getConnectorColor(), null);
   }
 
   public boolean hasChildren() {
-    return this.model.hasChildren();
+    return this.model.hasChildren() || MountedSubMap.isMountPoint(this.model);
   }
 
   @Nonnull
@@ -211,7 +425,17 @@ public abstract class AbstractElement {
 
   public abstract void drawComponent(@Nonnull MMGraphics g, @Nonnull MindMapPanelConfig cfg, boolean drawCollapsator);
 
-  public abstract void drawConnector(@Nonnull MMGraphics g, @Nonnull Rectangle2D source, @Nonnull Rectangle2D destination, boolean leftDirection, @Nonnull MindMapPanelConfig cfg);
+  /**
+   * Add connector between two rectangles into path.
+   *
+   * @param path          path to be extended
+   * @param source        connector source rectangle
+   * @param destination   connector destination rectangle
+   * @param leftDirection direction of connector
+   * @param cfg           configuration used for layout
+   * @since 1.4.8
+   */
+  public abstract void appendConnector(@Nonnull Path2D path, @Nonnull Rectangle2D source, @Nonnull Rectangle2D destination, boolean leftDirection, @Nonnull MindMapPanelConfig cfg);
 
   public abstract boolean isMoveable();
 
@@ -431,7 +655,9 @@ public abstract class AbstractElement {
     if (this.hasChildren()) {
       for (final Topic t : this.model.getChildren()) {
         final AbstractElement e = (AbstractElement) t.getPayload();
-        if (e != null) {
+        if (e == null) {
+          result |= collapseOrExpandTopicAndChildren(t, collapse);
+        } else {
           result |= e.collapseOrExpandAllChildren(collapse);
         }
       }
@@ -440,6 +666,18 @@ public abstract class AbstractElement {
     return result;
   }
 
+  private static boolean collapseOrExpandTopicAndChildren(@Nonnull final Topic topic, final boolean collapse) {
+    boolean result = false;
+    if (MindMapUtils.isCollapsed(topic) != collapse) {
+      MindMapUtils.setCollapsed(topic, collapse);
+      result = true;
+    }
+    for (final Topic t : topic.getChildren()) {
+      result |= collapseOrExpandTopicAndChildren(t, collapse);
+    }
+    return result;
+  }
+
   @Nonnull
   public abstract Color getBackgroundColor(@Nonnull MindMapPanelConfig config);
 
@@ -455,4 +693,48 @@ public abstract class AbstractElement {
   @Nonnull
   public abstract AbstractElement makeCopy();
 
+  /**
+   * Make copy of the element bound to another topic, the topic must have the same structure as the element topic.
+   * By default copy is not supported, in the case diagram is laid out in the Swing thread.
+   *
+   * @param model topic to be used by the copy
+   * @return copy of the element or null if it is not supported
+   * @since 1.4.8
+   */
+  @Nullable
+  public AbstractElement makeCopyFor(@Nonnull final Topic model) {
+    return null;
+  }
+
+  /**
+   * Immutable cached connectors with parameters used for their calculation, it
+   * allows to share cache between threads painting the same element tree.
+   */
+  private static final class ConnectorsCache {
+
+    private final Path2D shape;
+    private final ElementRoot root;
+    private final long revision;
+    private final double scale;
+    private final boolean simple;
+    private final boolean leftDirection;
+
+    private ConnectorsCache(@Nonnull final Path2D shape, @Nullable final ElementRoot root, final long revision, final double scale, final boolean simple, final boolean leftDirection) {
+      this.shape = shape;
+      this.root = root;
+      this.revision = revision;
+      this.scale = scale;
+      this.simple = simple;
+      this.leftDirection = leftDirection;
+    }
+
+    private boolean isValid(@Nullable final ElementRoot root, final long revision, final double scale, final boolean simple, final boolean leftDirection) {
+      // revision is counted by root element so that cache made without root or for another root is not valid
+      return root != null && this.root == root
+          && this.revision == revision
+          && Double.compare(this.scale, scale) == 0
+          && this.simple == simple
+          && this.leftDirection == leftDirection;
+    }
+  }
 }
@@ -35,12 +35,22 @@ public class ElementLevelFirst extends AbstractCollapsableElement {
     super(element);
   }
 
+  protected ElementLevelFirst(@Nonnull final ElementLevelFirst element, @Nonnull final Topic model) {
+    super(element, model);
+  }
+
   @Override
   @Nonnull
   public AbstractElement makeCopy() {
     return new ElementLevelFirst(this);
   }
 
+  @Override
+  @Nonnull
+  public AbstractElement makeCopyFor(@Nonnull final Topic model) {
+    return new ElementLevelFirst(this, model);
+  }
+
   @Nonnull
   protected Shape makeShape(@Nonnull final MindMapPanelConfig cfg, final double x, final double y) {
     return new Rectangle2D.Double(x, y, this.bounds.getWidth(), this.bounds.getHeight());
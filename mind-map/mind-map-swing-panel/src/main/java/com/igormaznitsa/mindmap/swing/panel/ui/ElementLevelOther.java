@@ -39,12 +39,22 @@ public class ElementLevelOther extends ElementLevelFirst {
     super(element);
   }
 
+  protected ElementLevelOther(@Nonnull final ElementLevelOther element, @Nonnull final Topic model) {
+    super(element, model);
+  }
+
   @Override
   @Nonnull
   public AbstractElement makeCopy() {
     return new ElementLevelOther(this);
   }
 
+  @Override
+  @Nonnull
+  public AbstractElement makeCopyFor(@Nonnull final Topic model) {
+    return new ElementLevelOther(this, model);
+  }
+
   @Override
   public void drawComponent(@Nonnull final MMGraphics g, @Nonnull final MindMapPanelConfig cfg, final boolean drawCollapsator) {
     g.setStroke(cfg.safeScaleFloatValue(cfg.getElementBorderWidth(), 0.1f), StrokeType.SOLID);
@@ -73,14 +83,6 @@ public class ElementLevelOther extends ElementLevelFirst {
     }
   }
 
-  @Override
-  public void doPaintConnectors(@Nonnull final MMGraphics g, final boolean leftDirection, @Nonnull final MindMapPanelConfig cfg) {
-    final Rectangle2D source = new Rectangle2D.Double(this.bounds.getX() + this.collapsatorZone.getX(), this.bounds.getY() + this.collapsatorZone.getY(), this.collapsatorZone.getWidth(), this.collapsatorZone.getHeight());
-    for (final Topic t : this.model.getChildren()) {
-      this.drawConnector(g, source, assertNotNull(((AbstractElement) t.getPayload())).getBounds(), leftDirection, cfg);
-    }
-  }
-
   @Override
   public boolean isLeftDirection() {
     Topic topic = this.model.getParent();
@@ -26,12 +26,15 @@ import com.igormaznitsa.mindmap.swing.panel.ui.gfx.StrokeType;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.Dimension2D;
+import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.geom.RoundRectangle2D;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -40,12 +43,20 @@ public final class ElementRoot extends AbstractElement {
   private final Dimension2D leftBlockSize = new Dimension();
   private final Dimension2D rightBlockSize = new Dimension();
 
+  private final AtomicLong geometryRevision = new AtomicLong();
+
+  private JumpLinksCache jumpLinksCache;
+
   public ElementRoot(@Nonnull final Topic topic) {
     super(topic);
   }
 
   protected ElementRoot(@Nonnull final ElementRoot element) {
-    super(element);
+    this(element, element.model);
+  }
+
+  protected ElementRoot(@Nonnull final ElementRoot element, @Nonnull final Topic model) {
+    super(element, model);
     this.leftBlockSize.setSize(element.leftBlockSize);
     this.rightBlockSize.setSize(element.rightBlockSize);
   }
@@ -56,6 +67,76 @@ public final class ElementRoot extends AbstractElement {
     return new ElementRoot(this);
   }
 
+  @Override
+  @Nonnull
+  public AbstractElement makeCopyFor(@Nonnull final Topic model) {
+    return new ElementRoot(this, model);
+  }
+
+  @Override
+  @Nonnull
+  public ElementRoot findRootElement() {
+    return this;
+  }
+
+  /**
+   * Get current revision of geometry of the element tree. The revision is
+   * changed after every layout of the element tree so that shapes calculated
+   * for the same revision are still valid.
+   *
+   * @return current geometry revision
+   * @since 1.4.8
+   */
+  public long getGeometryRevision() {
+    return this.geometryRevision.get();
+  }
+
+  /**
+   * Notify that bounds of elements of the tree have been changed, all cached
+   * geometry of the element tree becomes invalid. It should be called once
+   * after layout of the tree.
+   *
+   * @since 1.4.8
+   */
+  public void markGeometryChanged() {
+    this.geometryRevision.incrementAndGet();
+  }
+
+  /**
+   * Find cached shapes of jump links of the map.
+   *
+   * @param revision geometry revision
+   * @param scale    scale of the map
+   * @param width    jump link width from configuration
+   * @return cached shapes or null if there is no valid cache for parameters
+   * @see #getGeometryRevision()
+   * @since 1.4.8
+   */
+  @Nullable
+  public Path2D[] findJumpLinkShapes(final long revision, final double scale, final float width) {
+    final JumpLinksCache cache = this.jumpLinksCache;
+    if (cache != null
+        && cache.revision == revision
+        && Double.compare(cache.scale, scale) == 0
+        && Float.compare(cache.width, width) == 0) {
+      return cache.shapes;
+    }
+    return null;
+  }
+
+  /**
+   * Cache shapes of jump links of the map.
+   *
+   * @param shapes   shapes to be cached
+   * @param revision geometry revision used for calculation
+   * @param scale    scale of the map
+   * @param width    jump link width from configuration
+   * @since 1.4.8
+   */
+  public void setJumpLinkShapes(@Nonnull final Path2D[] shapes, final long revision, final double scale, final float width) {
+    this.jumpLinksCache = new JumpLinksCache(shapes, revision, scale, width);
+  }
+
 
   @Override
   public boolean isMoveable() {
@@ -98,9 +179,7 @@ public final class ElementRoot extends AbstractElement {
   }
 
   @Override
-  public void drawConnector(@Nonnull final MMGraphics g, @Nonnull final Rectangle2D source, @Nonnull final Rectangle2D destination, final boolean leftDirection, @Nonnull final MindMapPanelConfig cfg) {
-    g.setStroke(cfg.safeScaleFloatValue(cfg.getConnectorWidth(), 0.1f), StrokeType.SOLID);
-
+  public void appendConnector(@Nonnull final Path2D path, @Nonnull final Rectangle2D source, @Nonnull final Rectangle2D destination, final boolean leftDirection, @Nonnull final MindMapPanelConfig cfg) {
     final double startX;
     if (destination.getCenterX() < source.getCenterX()) {
       // left
@@ -110,7 +189,8 @@ public final class ElementRoot extends AbstractElement {
       startX = source.getCenterX() + source.getWidth() / 4;
     }
 
-    g.drawCurve(startX, source.getCenterY(), destination.getCenterX(), destination.getCenterY(), cfg.getConnectorColor());
+    path.moveTo(startX, source.getCenterY());
+    path.curveTo(startX, destination.getCenterY(), startX, destination.getCenterY(), destination.getCenterX(), destination.getCenterY());
   }
 
   private double calcTotalChildrenHeight(final double vertInset, final boolean left) {
@@ -206,19 +286,19 @@ public final class ElementRoot extends AbstractElement {
     for (final Topic t : this.model.getChildren()) {
       final ElementLevelFirst w = assertNotNull((ElementLevelFirst) t.getPayload());
 
-      w.calcBlockSize(cfg, result, false);
+      final Dimension2D childBlockSize = w.getMeasuredBlockSize(cfg);
 
       if (w.isLeftDirection()) {
-        leftWidth = Math.max(leftWidth, result.getWidth());
-        leftHeight += result.getHeight();
+        leftWidth = Math.max(leftWidth, childBlockSize.getWidth());
+        leftHeight += childBlockSize.getHeight();
         if (nonfirstOnLeft) {
           leftHeight += insetV;
         } else {
           nonfirstOnLeft = true;
         }
       } else {
-        rightWidth = Math.max(rightWidth, result.getWidth());
-        rightHeight += result.getHeight();
+        rightWidth = Math.max(rightWidth, childBlockSize.getWidth());
+        rightHeight += childBlockSize.getHeight();
         if (nonfirstOnRight) {
           rightHeight += insetV;
         } else {
@@ -244,6 +324,17 @@ public final class ElementRoot extends AbstractElement {
     return result;
   }
 
+  @Override
+  public boolean isBlockVisibleInClip(@Nullable final Rectangle clip, @Nonnull final MindMapPanelConfig cfg) {
+    if (clip == null) {
+      return true;
+    }
+    final double margin = cfg.getCollapsatorSize() * cfg.getScale();
+    final double blockX = this.bounds.getX() - this.leftBlockSize.getWidth();
+    final double blockY = this.bounds.getCenterY() - this.blockSize.getHeight() / 2;
+    return clip.intersects(blockX - margin, blockY - margin, this.blockSize.getWidth() + margin * 2.0d, this.blockSize.getHeight() + margin * 2.0d);
+  }
+
   @Override
   public boolean hasDirection() {
     return true;
@@ -317,4 +408,18 @@ public final class ElementRoot extends AbstractElement {
     return dflt;
   }
 
+  private static final class JumpLinksCache {
+
+    private final Path2D[] shapes;
+    private final long revision;
+    private final double scale;
+    private final float width;
+
+    private JumpLinksCache(@Nonnull final Path2D[] shapes, final long revision, final double scale, final float width) {
+      this.shapes = shapes;
+      this.revision = revision;
+      this.scale = scale;
+      this.width = width;
+    }
+  }
 }
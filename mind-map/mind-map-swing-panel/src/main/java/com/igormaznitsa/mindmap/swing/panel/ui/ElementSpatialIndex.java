@@ -0,0 +1,324 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel.ui;
+
+import com.igormaznitsa.mindmap.model.Topic;
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Spatial index over visible elements of laid out mind map. It is a R-tree
+ * packed by Sort-Tile-Recursive algorithm, it is built once for layout and
+ * provides the same results as recursive search through element tree but in
+ * logarithmic time. Elements placed earlier in depth-first order win if several
+ * elements are found for point.
+ *
+ * @since 1.4.8
+ */
+public final class ElementSpatialIndex {
+
+  private static final int NODE_CAPACITY = 16;
+
+  private final AbstractElement root;
+  private final AbstractElement[] elements;
+  private final Node top;
+
+  /**
+   * Build index for visible elements of laid out element tree.
+   *
+   * @param root root element, must not be null
+   */
+  public ElementSpatialIndex(@Nonnull final AbstractElement root) {
+    this.root = root;
+
+    final List<AbstractElement> visible = new ArrayList<AbstractElement>();
+    collectVisible(root, visible);
+    this.elements = visible.toArray(new AbstractElement[visible.size()]);
+
+    final Node[] leaves = new Node[this.elements.length];
+    for (int i = 0; i < leaves.length; i++) {
+      leaves[i] = new Node(i, makeHitArea(this.elements[i]));
+    }
+
+    Node[] level = leaves;
+    while (level.length > 1) {
+      level = packLevel(level);
+    }
+    this.top = level.length == 0 ? null : level[0];
+  }
+
+  private static void collectVisible(@Nonnull final AbstractElement element, @Nonnull final List<AbstractElement> result) {
+    result.add(element);
+    if (!element.isCollapsed()) {
+      for (final Topic t : element.getModel().getChildren()) {
+        final AbstractElement child = (AbstractElement) t.getPayload();
+        if (child != null) {
+          collectVisible(child, result);
+        }
+      }
+    }
+  }
+
+  @Nonnull
+  private static Rectangle2D makeHitArea(@Nonnull final AbstractElement element) {
+    final Rectangle2D bounds = element.getBounds();
+    final Rectangle2D result = new Rectangle2D.Double(bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight());
+    if (element instanceof AbstractCollapsableElement && element.hasChildren()) {
+      final Rectangle2D collapsator = ((AbstractCollapsableElement) element).getCollapsatorArea();
+      result.add(new Rectangle2D.Double(bounds.getX() + collapsator.getX(), bounds.getY() + collapsator.getY(), collapsator.getWidth(), collapsator.getHeight()));
+    }
+    return result;
+  }
+
+  @Nonnull
+  private static Node[] packLevel(@Nonnull final Node[] nodes) {
+    final int numberOfNodes = (nodes.length + NODE_CAPACITY - 1) / NODE_CAPACITY;
+
+    double x1 = Double.MAX_VALUE;
+    double y1 = Double.MAX_VALUE;
+    double x2 = -Double.MAX_VALUE;
+    double y2 = -Double.MAX_VALUE;
+    for (final Node n : nodes) {
+      x1 = Math.min(x1, n.minX);
+      y1 = Math.min(y1, n.minY);
+      x2 = Math.max(x2, n.maxX);
+      y2 = Math.max(y2, n.maxY);
+    }
+
+    // number of vertical slices depends on aspect ratio because mind maps are usually much taller than wide
+    final double aspect = (x2 - x1) / Math.max(1.0d, y2 - y1);
+    final int numberOfSlices = Math.max(1, Math.min(numberOfNodes, (int) Math.round(Math.sqrt(numberOfNodes * aspect))));
+    final int nodesInSlice = (numberOfNodes + numberOfSlices - 1) / numberOfSlices;
+    final int sliceSize = nodesInSlice * NODE_CAPACITY;
+
+    final Node[] sorted = nodes.clone();
+    Arrays.sort(sorted, CENTER_X);
+
+    final List<Node> result = new ArrayList<Node>(numberOfNodes);
+    for (int sliceStart = 0; sliceStart < sorted.length; sliceStart += sliceSize) {
+      final int sliceEnd = Math.min(sliceStart + sliceSize, sorted.length);
+      Arrays.sort(sorted, sliceStart, sliceEnd, CENTER_Y);
+      for (int i = sliceStart; i < sliceEnd; i += NODE_CAPACITY) {
+        result.add(new Node(Arrays.copyOfRange(sorted, i, Math.min(i + NODE_CAPACITY, sliceEnd))));
+      }
+    }
+    return result.toArray(new Node[result.size()]);
+  }
+
+  /**
+   * Get root element which was used to build the index.
+   *
+   * @return the root element, must not be null
+   */
+  @Nonnull
+  public AbstractElement getRoot() {
+    return this.root;
+  }
+
+  /**
+   * Get number of indexed visible elements.
+   *
+   * @return number of elements
+   */
+  public int size() {
+    return this.elements.length;
+  }
+
+  /**
+   * Find element which bounds or collapsator contain point. It provides the
+   * same result as {@link AbstractElement#findForPoint(Point)} for root
+   * element.
+   *
+   * @param point point to be checked, can be null
+   * @return found element or null
+   */
+  @Nullable
+  public AbstractElement findForPoint(@Nullable final Point point) {
+    if (point == null || this.top == null) {
+      return null;
+    }
+    final double x = point.getX();
+    final double y = point.getY();
+
+    final int found;
+    if (this.top.children == null) {
+      found = this.top.containsPoint(x, y) && isHit(this.elements[this.top.index], x, y) ? this.top.index : Integer.MAX_VALUE;
+    } else {
+      found = findForPoint(this.top, x, y, Integer.MAX_VALUE);
+    }
+    return found == Integer.MAX_VALUE ? null : this.elements[found];
+  }
+
+  private int findForPoint(@Nonnull final Node node, final double x, final double y, int best) {
+    for (final Node c : node.children) {
+      if (c.containsPoint(x, y)) {
+        if (c.children == null) {
+          if (c.index < best && isHit(this.elements[c.index], x, y)) {
+            best = c.index;
+          }
+        } else {
+          best = findForPoint(c, x, y, best);
+        }
+      }
+    }
+    return best;
+  }
+
+  private static boolean isHit(@Nonnull final AbstractElement element, final double x, final double y) {
+    final Rectangle2D bounds = element.getBounds();
+    boolean result = bounds.contains(x, y);
+    if (!result && element instanceof AbstractCollapsableElement && element.hasChildren()) {
+      result = ((AbstractCollapsableElement) element).getCollapsatorArea().contains(x - bounds.getX(), y - bounds.getY());
+    }
+    return result;
+  }
+
+  /**
+   * Find visible element nearest to point. It provides the same result as
+   * {@link AbstractElement#findNearestOpenedTopicToPoint(AbstractElement, Point)}
+   * for root element.
+   *
+   * @param elementToIgnore element to be ignored, can be null
+   * @param point           point, must not be null
+   * @return nearest element or null if there is no element
+   */
+  @Nullable
+  public AbstractElement findNearest(@Nullable final AbstractElement elementToIgnore, @Nonnull final Point point) {
+    if (this.top == null) {
+      return null;
+    }
+
+    final double x = point.getX();
+    final double y = point.getY();
+
+    final PriorityQueue<Candidate> queue = new PriorityQueue<Candidate>();
+    queue.add(new Candidate(this.top, this.top.distanceTo(x, y)));
+
+    int bestIndex = -1;
+    double bestDistance = Double.MAX_VALUE;
+
+    while (!queue.isEmpty()) {
+      final Candidate candidate = queue.poll();
+      if (candidate.distance > bestDistance) {
+        break;
+      }
+      final Node node = candidate.node;
+      if (node.children == null) {
+        final AbstractElement element = this.elements[node.index];
+        if (element != elementToIgnore) {
+          final double distance = element.calcAverageDistanceToPoint(point);
+          if (distance < bestDistance || (distance == bestDistance && node.index < bestIndex)) {
+            bestDistance = distance;
+            bestIndex = node.index;
+          }
+        }
+      } else {
+        for (final Node c : node.children) {
+          final double distance = c.distanceTo(x, y);
+          if (distance <= bestDistance) {
+            queue.add(new Candidate(c, distance));
+          }
+        }
+      }
+    }
+    return bestIndex < 0 ? null : this.elements[bestIndex];
+  }
+
+  private static final Comparator<Node> CENTER_X = new Comparator<Node>() {
+    @Override
+    public int compare(@Nonnull final Node o1, @Nonnull final Node o2) {
+      return Double.compare(o1.minX + o1.maxX, o2.minX + o2.maxX);
+    }
+  };
+
+  private static final Comparator<Node> CENTER_Y = new Comparator<Node>() {
+    @Override
+    public int compare(@Nonnull final Node o1, @Nonnull final Node o2) {
+      return Double.compare(o1.minY + o1.maxY, o2.minY + o2.maxY);
+    }
+  };
+
+  private static final class Node {
+
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+    private final int index;
+    private final Node[] children;
+
+    private Node(final int index, @Nonnull final Rectangle2D area) {
+      this.index = index;
+      this.children = null;
+      this.minX = area.getMinX();
+      this.minY = area.getMinY();
+      this.maxX = area.getMaxX();
+      this.maxY = area.getMaxY();
+    }
+
+    private Node(@Nonnull final Node[] children) {
+      this.index = -1;
+      this.children = children;
+      double x1 = Double.MAX_VALUE;
+      double y1 = Double.MAX_VALUE;
+      double x2 = -Double.MAX_VALUE;
+      double y2 = -Double.MAX_VALUE;
+      for (final Node c : children) {
+        x1 = Math.min(x1, c.minX);
+        y1 = Math.min(y1, c.minY);
+        x2 = Math.max(x2, c.maxX);
+        y2 = Math.max(y2, c.maxY);
+      }
+      this.minX = x1;
+      this.minY = y1;
+      this.maxX = x2;
+      this.maxY = y2;
+    }
+
+    private boolean containsPoint(final double x, final double y) {
+      return x >= this.minX && x <= this.maxX && y >= this.minY && y <= this.maxY;
+    }
+
+    private double distanceTo(final double x, final double y) {
+      final double dx = x < this.minX ? this.minX - x : (x > this.maxX ? x - this.maxX : 0.0d);
+      final double dy = y < this.minY ? this.minY - y : (y > this.maxY ? y - this.maxY : 0.0d);
+      return Math.sqrt(dx * dx + dy * dy);
+    }
+  }
+
+  private static final class Candidate implements Comparable<Candidate> {
+
+    private final Node node;
+    private final double distance;
+
+    private Candidate(@Nonnull final Node node, final double distance) {
+      this.node = node;
+      this.distance = distance;
+    }
+
+    @Override
+    public int compareTo(@Nonnull final Candidate that) {
+      return Double.compare(this.distance, that.distance);
+    }
+  }
+}
@@ -38,8 +38,19 @@ public class IconBlock {
   private Extra<?>[] currentExtras = null;
 
   public IconBlock(@Nonnull final IconBlock orig) {
+    this(orig, orig.model);
+  }
+
+  /**
+   * Make copy of block but bound to another topic.
+   *
+   * @param orig  original block
+   * @param model topic to be used by the copy
+   * @since 1.4.8
+   */
+  public IconBlock(@Nonnull final IconBlock orig, @Nonnull final Topic model) {
     this.bounds.setRect(orig.bounds);
-    this.model = orig.model;
+    this.model = model;
     this.scale = orig.scale;
     this.contentPresented = orig.contentPresented;
     this.currentExtras = orig.currentExtras == null ? null : orig.currentExtras.clone();
@@ -56,7 +67,7 @@ public class IconBlock {
   public void updateSize(@Nonnull final MMGraphics gfx, @Nonnull final MindMapPanelConfig cfg) {
     final int numberOfIcons = this.model.getNumberOfExtras();
     this.scale = cfg.getScale();
-    if (numberOfIcons == 0) {
+    if (numberOfIcons == 0 || cfg.isLodHideImages()) {
       this.bounds.setRect(0d, 0d, 0d, 0d);
       this.contentPresented = false;
     } else {
@@ -78,7 +89,7 @@ public class IconBlock {
 
   public void paint(@Nonnull final MMGraphics gfx) {
     final int numberOfIcons = this.model.getNumberOfExtras();
-    if (numberOfIcons != 0) {
+    if (numberOfIcons != 0 && this.contentPresented) {
       double offsetX = this.bounds.getX();
       final int offsetY = (int) Math.round(this.bounds.getY());
       final double scaledIconWidth = ScalableIcon.BASE_WIDTH * this.scale;
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.igormaznitsa.mindmap.swing.panel.ui;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Cache of rendered diagram fragments. Diagram plane is split into square
+ * tiles of fixed size, each tile is rendered once into an off-screen image and
+ * then just composited on repaint. Cached tiles are valid only for the scale
+ * and the layout revision they have been rendered for, change of any of them
+ * drops all tiles. Only the most recently used tiles are kept.
+ *
+ * @since 1.4.8
+ */
+public final class RenderTileCache {
+
+  /**
+   * Painter of diagram content for a tile.
+   */
+  public interface TilePainter {
+
+    /**
+     * Paint diagram content. Graphics is translated to diagram coordinates and
+     * clipped by the tile area.
+     *
+     * @param gfx graphics to paint, must not be null
+     */
+    void paintTile(@Nonnull Graphics2D gfx);
+  }
+
+  private final int tileSize;
+  private final Map<Long, BufferedImage> tiles;
+
+  private double scale = Double.NaN;
+  private long layoutRevision = Long.MIN_VALUE;
+  private double deviceScaleX = 1.0d;
+  private double deviceScaleY = 1.0d;
+  private boolean transparent;
+
+  /**
+   * Constructor.
+   *
+   * @param tileSize size of tile side in pixels, must be positive
+   * @param maxTiles max number of tiles kept in memory, must be positive
+   */
+  public RenderTileCache(final int tileSize, final int maxTiles) {
+    if (tileSize <= 0 || maxTiles <= 0) {
+      throw new IllegalArgumentException("Tile size and max tiles number must be positive");
+    }
+    this.tileSize = tileSize;
+    this.tiles = new LinkedHashMap<Long, BufferedImage>(maxTiles, 0.75f, true) {
+      private static final long serialVersionUID = 1944206137414434575L;
+
+      @Override
+      protected boolean removeEldestEntry(@Nonnull final Map.Entry<Long, BufferedImage> eldest) {
+        return this.size() > maxTiles;
+      }
+    };
+  }
+
+  private static int floorDiv(final int value, final int divider) {
+    return (int) Math.floor((double) value / (double) divider);
+  }
+
+  private static long makeKey(final int column, final int row) {
+    return ((long) column << 32) | (row & 0xFFFFFFFFL);
+  }
+
+  public int getTileSize() {
+    return this.tileSize;
+  }
+
+  /**
+   * Get number of cached tiles.
+   *
+   * @return number of tiles in cache
+   */
+  public int size() {
+    return this.tiles.size();
+  }
+
+  /**
+   * Drop all cached tiles.
+   */
+  public void clear() {
+    this.tiles.clear();
+  }
+
+  /**
+   * Drop cached tiles intersecting area.
+   *
+   * @param area area in diagram coordinates, must not be null
+   */
+  public void invalidate(@Nonnull final Rectangle2D area) {
+    final Iterator<Long> iterator = this.tiles.keySet().iterator();
+    while (iterator.hasNext()) {
+      final long key = iterator.next();
+      final int column = (int) (key >> 32);
+      final int row = (int) key;
+      if (area.intersects((double) column * this.tileSize, (double) row * this.tileSize, this.tileSize, this.tileSize)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Paint area through cached tiles. Missing tiles are rendered by painter.
+   *
+   * @param gfx            target graphics, must not be null
+   * @param area           area in diagram coordinates to be painted, must not be null
+   * @param scale          diagram scale used for rendering
+   * @param layoutRevision revision of diagram layout
+   * @param transparent    true if diagram doesn't fill its background
+   * @param painter        painter of diagram content, must not be null
+   */
+  public void paint(@Nonnull final Graphics2D gfx, @Nonnull final Rectangle area, final double scale, final long layoutRevision, final boolean transparent, @Nonnull final TilePainter painter) {
+    final AffineTransform transform = gfx.getTransform();
+    final double deviceX = Math.abs(transform.getScaleX());
+    final double deviceY = Math.abs(transform.getScaleY());
+
+    if (Double.compare(this.scale, scale) != 0
+        || this.layoutRevision != layoutRevision
+        || this.transparent != transparent
+        || Double.compare(this.deviceScaleX, deviceX) != 0
+        || Double.compare(this.deviceScaleY, deviceY) != 0) {
+      this.tiles.clear();
+      this.scale = scale;
+      this.layoutRevision = layoutRevision;
+      this.transparent = transparent;
+      this.deviceScaleX = deviceX;
+      this.deviceScaleY = deviceY;
+    }
+
+    final int firstColumn = floorDiv(area.x, this.tileSize);
+    final int lastColumn = floorDiv(area.x + area.width - 1, this.tileSize);
+    final int firstRow = floorDiv(area.y, this.tileSize);
+    final int lastRow = floorDiv(area.y + area.height - 1, this.tileSize);
+
+    for (int row = firstRow; row <= lastRow; row++) {
+      for (int column = firstColumn; column <= lastColumn; column++) {
+        final long key = makeKey(column, row);
+        BufferedImage tile = this.tiles.get(key);
+        if (tile == null) {
+          tile = renderTile(gfx.getDeviceConfiguration(), column, row, painter);
+          this.tiles.put(key, tile);
+        }
+        gfx.drawImage(tile, column * this.tileSize, row * this.tileSize, this.tileSize, this.tileSize, null);
+      }
+    }
+  }
+
+  @Nonnull
+  private BufferedImage renderTile(@Nonnull final GraphicsConfiguration config, final int column, final int row, @Nonnull final TilePainter painter) {
+    final int width = Math.max(1, (int) Math.ceil(this.tileSize * this.deviceScaleX));
+    final int height = Math.max(1, (int) Math.ceil(this.tileSize * this.deviceScaleY));
+    final BufferedImage result = config.createCompatibleImage(width, height, this.transparent ? Transparency.TRANSLUCENT : Transparency.OPAQUE);
+
+    final int tileX = column * this.tileSize;
+    final int tileY = row * this.tileSize;
+
+    final Graphics2D tileGfx = result.createGraphics();
+    try {
+      tileGfx.scale(this.deviceScaleX, this.deviceScaleY);
+      tileGfx.translate(-tileX, -tileY);
+      tileGfx.setClip(tileX, tileY, this.tileSize, this.tileSize);
+      painter.paintTile(tileGfx);
+    } finally {
+      tileGfx.dispose();
+    }
+    return result;
+  }
+}
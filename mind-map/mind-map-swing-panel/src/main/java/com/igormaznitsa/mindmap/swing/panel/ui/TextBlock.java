@@ -24,7 +24,6 @@ import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -33,15 +32,18 @@ import javax.swing.text.JTextComponent;
 public final class TextBlock implements Cloneable {
 
   private static final Rectangle2D ZERO = new Rectangle2D.Double();
+  private static final String FONT_SAMPLE = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 "; //NOI18N
   private final Rectangle2D bounds = new Rectangle2D.Double();
   private String text;
   private Line[] lines;
   private Font font;
   private double maxLineAscent;
   private TextAlign textAlign;
+  private boolean greeked;
 
   public TextBlock(@Nonnull final TextBlock orig) {
     this.text = orig.text;
+    this.greeked = orig.greeked;
     this.lines = orig.lines.clone();
     this.font = orig.font;
     this.maxLineAscent = orig.maxLineAscent;
@@ -88,10 +90,12 @@ public final class TextBlock implements Cloneable {
   }
 
   public void updateSize(@Nonnull final MMGraphics gfx, @Nonnull final MindMapPanelConfig cfg) {
-    this.font = cfg.getFont().deriveFont(AffineTransform.getScaleInstance(cfg.getScale(), cfg.getScale()));
+    final TextMetricsCache metrics = cfg.getTextMetricsCache();
+    this.font = metrics.getScaledFont(cfg.getFont(), cfg.getScale());
     gfx.setFont(font);
 
-    this.maxLineAscent = gfx.getFontMaxAscent();
+    this.maxLineAscent = metrics.getFontMaxAscent(gfx, this.font);
+    this.greeked = cfg.isLodGreekText();
 
     double maxWidth = 0.0d;
     double maxHeight = 0.0d;
@@ -100,45 +104,82 @@ public final class TextBlock implements Cloneable {
 
     this.lines = new Line[brokenText.length];
 
-    int index = 0;
-    for (final String s : brokenText) {
-      final Rectangle2D lineBounds = gfx.getStringBounds(s);
-      maxWidth = Math.max(lineBounds.getWidth(), maxWidth);
-      maxHeight += lineBounds.getHeight();
-      this.lines[index++] = new Line(s, lineBounds);
+    if (this.greeked) {
+      final Rectangle2D sampleBounds = metrics.getStringBounds(gfx, this.font, FONT_SAMPLE);
+      final double charWidth = sampleBounds.getWidth() / FONT_SAMPLE.length();
+      int index = 0;
+      for (final String s : brokenText) {
+        final Rectangle2D lineBounds = new Rectangle2D.Double(0.0d, sampleBounds.getY(), s.length() * charWidth, sampleBounds.getHeight());
+        maxWidth = Math.max(lineBounds.getWidth(), maxWidth);
+        maxHeight += lineBounds.getHeight();
+        this.lines[index++] = new Line(s, lineBounds);
+      }
+    } else {
+      int index = 0;
+      for (final String s : brokenText) {
+        final Rectangle2D lineBounds = metrics.getStringBounds(gfx, this.font, s);
+        maxWidth = Math.max(lineBounds.getWidth(), maxWidth);
+        maxHeight += lineBounds.getHeight();
+        this.lines[index++] = new Line(s, lineBounds);
+      }
     }
     this.bounds.setRect(0.0d, 0.0d, maxWidth, maxHeight);
   }
 
+  public boolean isGreeked() {
+    return this.greeked;
+  }
+
   public void paint(@Nonnull final MMGraphics gfx, @Nonnull final Color color) {
     if (this.font != null && this.lines != null) {
+      if (this.greeked) {
+        paintGreeked(gfx, color);
+        return;
+      }
       double posy = this.bounds.getY() + this.maxLineAscent;
       gfx.setFont(this.font);
       for (final Line l : this.lines) {
-        final double drawX;
-        switch (this.textAlign) {
-          case LEFT: {
-            drawX = this.bounds.getX();
-          }
-          break;
-          case CENTER: {
-            drawX = this.bounds.getX() + (this.bounds.getWidth() - l.bounds.getWidth()) / 2;
-          }
-          break;
-          case RIGHT: {
-            drawX = this.bounds.getX() + (this.bounds.getWidth() - l.bounds.getWidth());
-          }
-          break;
-          default:
-            throw new Error("unexpected situation #283794"); //NOI18N
-        }
-
+        final double drawX = calcLineX(l);
         gfx.drawString(l.line, (int) Math.round(drawX), (int) Math.round(posy), color);
         posy += l.bounds.getHeight();
       }
     }
   }
 
+  private void paintGreeked(@Nonnull final MMGraphics gfx, @Nonnull final Color color) {
+    double posy = this.bounds.getY();
+    for (final Line l : this.lines) {
+      final double lineHeight = l.bounds.getHeight();
+      if (!l.line.trim().isEmpty()) {
+        final double drawX = calcLineX(l);
+        final int barHeight = Math.max(1, (int) Math.round(lineHeight / 2));
+        gfx.drawRect((int) Math.round(drawX), (int) Math.round(posy + (lineHeight - barHeight) / 2), Math.max(1, (int) Math.round(l.bounds.getWidth())), barHeight, null, color);
+      }
+      posy += lineHeight;
+    }
+  }
+
+  private double calcLineX(@Nonnull final Line line) {
+    final double result;
+    switch (this.textAlign) {
+      case LEFT: {
+        result = this.bounds.getX();
+      }
+      break;
+      case CENTER: {
+        result = this.bounds.getX() + (this.bounds.getWidth() - line.bounds.getWidth()) / 2;
+      }
+      break;
+      case RIGHT: {
+        result = this.bounds.getX() + (this.bounds.getWidth() - line.bounds.getWidth());
+      }
+      break;
+      default:
+        throw new Error("unexpected situation #283794"); //NOI18N
+    }
+    return result;
+  }
+
   private static final class Line {
 
     private final Rectangle2D bounds;
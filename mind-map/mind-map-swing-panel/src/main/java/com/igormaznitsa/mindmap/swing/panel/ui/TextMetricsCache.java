@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.ui;
+
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.HasFontRenderContext;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Cache of scaled fonts and text measurements. Layout of big maps derives the
+ * same scaled font and measures the same strings again and again, the cache
+ * keeps derived fonts and bounds of recently measured strings. Measurement
+ * results depend on graphics implementation and its font render context, so
+ * they are the part of keys. Measurements of graphics which doesn't implement
+ * {@link HasFontRenderContext} are not cached.
+ *
+ * @since 1.4.8
+ */
+public final class TextMetricsCache {
+
+  private static final int MAX_FONTS = 32;
+  private static final int MAX_STRINGS = 65536;
+
+  private final Map<FontKey, Font> fonts = new LruMap<FontKey, Font>(MAX_FONTS);
+  private final Map<StringKey, Float> ascents = new LruMap<StringKey, Float>(MAX_FONTS);
+  private final Map<StringKey, Rectangle2D> strings = new LruMap<StringKey, Rectangle2D>(MAX_STRINGS);
+
+  /**
+   * Get font scaled by both axes.
+   *
+   * @param base  base font, must not be null
+   * @param scale scale factor
+   * @return scaled font
+   */
+  @Nonnull
+  public synchronized Font getScaledFont(@Nonnull final Font base, final double scale) {
+    final FontKey key = new FontKey(base, scale);
+    Font result = this.fonts.get(key);
+    if (result == null) {
+      result = base.deriveFont(AffineTransform.getScaleInstance(scale, scale));
+      this.fonts.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Get max ascent of font.
+   *
+   * @param gfx  graphics which current font is the font, must not be null
+   * @param font font to be measured, must not be null
+   * @return max ascent of the font
+   */
+  public synchronized float getFontMaxAscent(@Nonnull final MMGraphics gfx, @Nonnull final Font font) {
+    if (!(gfx instanceof HasFontRenderContext)) {
+      return gfx.getFontMaxAscent();
+    }
+    final StringKey key = new StringKey(gfx, font, ""); //NOI18N
+    Float result = this.ascents.get(key);
+    if (result == null) {
+      result = gfx.getFontMaxAscent();
+      this.ascents.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Get bounds of string. Returned rectangle is shared and must not be
+   * changed.
+   *
+   * @param gfx  graphics which current font is the font, must not be null
+   * @param font font of the string, must not be null
+   * @param text string to be measured, must not be null
+   * @return bounds of the string
+   */
+  @Nonnull
+  public synchronized Rectangle2D getStringBounds(@Nonnull final MMGraphics gfx, @Nonnull final Font font, @Nonnull final String text) {
+    if (!(gfx instanceof HasFontRenderContext)) {
+      return gfx.getStringBounds(text);
+    }
+    final StringKey key = new StringKey(gfx, font, text);
+    Rectangle2D result = this.strings.get(key);
+    if (result == null) {
+      result = gfx.getStringBounds(text);
+      this.strings.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Drop all cached values.
+   */
+  public synchronized void clear() {
+    this.fonts.clear();
+    this.ascents.clear();
+    this.strings.clear();
+  }
+
+  private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = -2930425306441958127L;
+
+    private final int maxSize;
+
+    private LruMap(final int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(@Nonnull final Map.Entry<K, V> eldest) {
+      return this.size() > this.maxSize;
+    }
+  }
+
+  private static final class FontKey {
+
+    private final Font font;
+    private final double scale;
+
+    private FontKey(@Nonnull final Font font, final double scale) {
+      this.font = font;
+      this.scale = scale;
+    }
+
+    @Override
+    public int hashCode() {
+      final long bits = Double.doubleToLongBits(this.scale);
+      return this.font.hashCode() * 31 + (int) (bits ^ (bits >>> 32));
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj instanceof FontKey) {
+        final FontKey that = (FontKey) obj;
+        return Double.compare(this.scale, that.scale) == 0 && this.font.equals(that.font);
+      }
+      return false;
+    }
+  }
+
+  private static final class StringKey {
+
+    private final Class<?> graphicsClass;
+    private final FontRenderContext context;
+    private final Font font;
+    private final String text;
+    private final int hash;
+
+    private StringKey(@Nonnull final MMGraphics gfx, @Nonnull final Font font, @Nonnull final String text) {
+      this.graphicsClass = gfx.getClass();
+      this.context = ((HasFontRenderContext) gfx).getFontRenderContext();
+      this.font = font;
+      this.text = text;
+      this.hash = ((this.text.hashCode() * 31 + this.font.hashCode()) * 31 + this.context.hashCode()) * 31 + this.graphicsClass.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj instanceof StringKey) {
+        final StringKey that = (StringKey) obj;
+        return this.hash == that.hash
+            && this.graphicsClass == that.graphicsClass
+            && this.text.equals(that.text)
+            && this.font.equals(that.font)
+            && this.context.equals(that.context);
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.ui;
+
+import static com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute.ATTR_BORDER_COLOR;
+import static com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute.ATTR_FILL_COLOR;
+import static com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute.ATTR_TEXT_COLOR;
+
+
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
+import java.awt.Color;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Colors and text alignment decoded from topic attributes. Decoded style is
+ * kept in the attributes cache of the topic, so that attributes are parsed
+ * only once after their change and not for every new element.
+ *
+ * @see Topic#getAttributesCache()
+ * @since 1.4.8
+ */
+public final class TopicStyle {
+
+  private final Color fillColor;
+  private final Color textColor;
+  private final Color borderColor;
+  private final TextAlign textAlign;
+
+  private TopicStyle(@Nonnull final Topic topic) {
+    this.fillColor = Utils.html2color(topic.getAttribute(ATTR_FILL_COLOR.getText()), false);
+    this.textColor = Utils.html2color(topic.getAttribute(ATTR_TEXT_COLOR.getText()), false);
+    this.borderColor = Utils.html2color(topic.getAttribute(ATTR_BORDER_COLOR.getText()), false);
+    this.textAlign = TextAlign.findForName(topic.getAttribute("align")); //NOI18N
+  }
+
+  /**
+   * Get decoded style of topic, attributes are decoded only if there is no
+   * cached style for the topic.
+   *
+   * @param topic topic which attributes should be decoded
+   * @return decoded style, must not be null
+   */
+  @Nonnull
+  public static TopicStyle of(@Nonnull final Topic topic) {
+    final Object cached = topic.getAttributesCache();
+    if (cached instanceof TopicStyle) {
+      return (TopicStyle) cached;
+    }
+    final TopicStyle result = new TopicStyle(topic);
+    topic.setAttributesCache(result);
+    return result;
+  }
+
+  @Nullable
+  public Color getFillColor() {
+    return this.fillColor;
+  }
+
+  @Nullable
+  public Color getTextColor() {
+    return this.textColor;
+  }
+
+  @Nullable
+  public Color getBorderColor() {
+    return this.borderColor;
+  }
+
+  @Nonnull
+  public TextAlign getTextAlign() {
+    return this.textAlign;
+  }
+}
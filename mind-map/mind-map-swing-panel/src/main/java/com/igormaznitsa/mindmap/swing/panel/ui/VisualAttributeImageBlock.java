@@ -40,8 +40,19 @@ public class VisualAttributeImageBlock {
   private VisualItem[] items = null;
 
   public VisualAttributeImageBlock(@Nonnull final VisualAttributeImageBlock orig) {
+    this(orig, orig.model);
+  }
+
+  /**
+   * Make copy of block but bound to another topic.
+   *
+   * @param orig  original block
+   * @param model topic to be used by the copy
+   * @since 1.4.8
+   */
+  public VisualAttributeImageBlock(@Nonnull final VisualAttributeImageBlock orig, @Nonnull final Topic model) {
     this.bounds.setRect(orig.bounds);
-    this.model = orig.model;
+    this.model = model;
     this.contentPresented = orig.contentPresented;
     if (orig.items == null) {
       this.items = null;
@@ -65,7 +76,7 @@ public class VisualAttributeImageBlock {
     final List<VisualAttributePlugin> pluginsFromRegistry = MindMapPluginRegistry.getInstance().findFor(VisualAttributePlugin.class);
     int x = 0;
     int maxheight = 0;
-    if (pluginsFromRegistry.isEmpty()) {
+    if (pluginsFromRegistry.isEmpty() || cfg.isLodHideImages()) {
       this.items = VisualItem.EMPTY;
     } else {
       final List<VisualAttributePlugin> detectedPlugins = new ArrayList<VisualAttributePlugin>();
@@ -24,12 +24,13 @@ import java.awt.Image;
 import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
 import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-public class MMGraphics2DWrapper implements MMGraphics {
+public class MMGraphics2DWrapper implements MMGraphics, HasFontRenderContext {
 
   private final Graphics2D wrapped;
   private StrokeType strokeType = StrokeType.SOLID;
@@ -176,6 +177,12 @@ public class MMGraphics2DWrapper implements MMGraphics {
     return this.wrapped.getFont().getStringBounds(str, this.wrapped.getFontRenderContext());
   }
 
+  @Override
+  @Nonnull
+  public FontRenderContext getFontRenderContext() {
+    return this.wrapped.getFontRenderContext();
+  }
+
   @Override
   public void setFont(@Nonnull final Font font) {
     this.wrapped.setFont(font);
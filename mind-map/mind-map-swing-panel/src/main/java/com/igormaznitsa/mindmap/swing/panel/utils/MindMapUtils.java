@@ -29,6 +29,7 @@ import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanel;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.Texts;
+import com.igormaznitsa.mindmap.swing.panel.ui.TopicStyle;
 import java.awt.Color;
 import java.io.File;
 import java.util.ArrayList;
@@ -63,13 +64,13 @@ public final class MindMapUtils {
       final Color color;
       switch (colorType) {
         case BORDER:
-          color = Utils.html2color(topic.getAttribute(ATTR_BORDER_COLOR.getText()), false);
+          color = TopicStyle.of(topic).getBorderColor();
           break;
         case FILL:
-          color = Utils.html2color(topic.getAttribute(ATTR_FILL_COLOR.getText()), false);
+          color = TopicStyle.of(topic).getFillColor();
           break;
         case TEXT:
-          color = Utils.html2color(topic.getAttribute(ATTR_TEXT_COLOR.getText()), false);
+          color = TopicStyle.of(topic).getTextColor();
           break;
         default:
           throw new Error("Unexpected color type: " + colorType);
@@ -189,7 +190,7 @@ public final class MindMapUtils {
 
   @Nonnull
   public static Color getBackgroundColor(@Nonnull final MindMapPanelConfig cfg, @Nonnull final Topic topic) {
-    final Color extracted = Utils.html2color(topic.getAttribute(ATTR_FILL_COLOR.getText()), false);
+    final Color extracted = TopicStyle.of(topic).getFillColor();
     final Color result;
     if (extracted == null) {
       switch (topic.getTopicLevel()) {
@@ -214,7 +215,7 @@ public final class MindMapUtils {
 
   @Nonnull
   public static Color getTextColor(@Nonnull final MindMapPanelConfig cfg, @Nonnull final Topic topic) {
-    final Color extracted = Utils.html2color(topic.getAttribute(ATTR_TEXT_COLOR.getText()), false);
+    final Color extracted = TopicStyle.of(topic).getTextColor();
     final Color result;
     if (extracted == null) {
       switch (topic.getTopicLevel()) {
@@ -239,7 +240,7 @@ public final class MindMapUtils {
 
   @Nonnull
   public static Color getBorderColor(@Nonnull final MindMapPanelConfig cfg, @Nonnull final Topic topic) {
-    final Color extracted = Utils.html2color(topic.getAttribute(ATTR_BORDER_COLOR.getText()), false);
+    final Color extracted = TopicStyle.of(topic).getBorderColor();
     return extracted == null ? cfg.getElementBorderColor() : extracted;
   }
 
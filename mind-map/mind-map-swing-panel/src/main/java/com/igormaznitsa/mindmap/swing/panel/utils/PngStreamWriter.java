@@ -0,0 +1,597 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.utils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Writer of PNG image which gets image rows sequentially and streams them
+ * into output, so that the whole image is never kept in memory. Rows are
+ * filtered with adaptive filter selection, alpha channel is written only if
+ * requested. Closing of the writer doesn't close the output stream.
+ * <p>
+ * If executor is provided then rows are grouped into chunks of fixed size
+ * which are filtered and compressed concurrently, every chunk is compressed
+ * with the tail of the previous chunk as dictionary and chunks are written in
+ * their order. Chunk size doesn't depend on the number of threads so that the
+ * output is the same for the same image.
+ *
+ * @since 1.4.8
+ */
+public final class PngStreamWriter implements Closeable {
+
+  private static final byte[] SIGNATURE = new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+  private static final int IDAT_CHUNK_SIZE = 64 * 1024;
+  private static final int PARALLEL_CHUNK_SIZE = 256 * 1024;
+  private static final int DICTIONARY_SIZE = 32 * 1024;
+  private static final int COMPRESSION_LEVEL = Deflater.DEFAULT_COMPRESSION;
+
+  private static final int FILTER_NONE = 0;
+  private static final int FILTER_SUB = 1;
+  private static final int FILTER_UP = 2;
+  private static final int FILTER_AVERAGE = 3;
+  private static final int FILTER_PAETH = 4;
+
+  private final OutputStream out;
+  private final int width;
+  private final int height;
+  private final boolean alpha;
+  private final int bytesPerPixel;
+  private final int rowLength;
+  private final IdatOutputStream idatOutput;
+  private final int[] rowPixels;
+
+  private final Deflater deflater;
+  private final DeflaterOutputStream idatStream;
+  private byte[] currentRow;
+  private byte[] previousRow;
+  private final byte[][] filteredRows;
+
+  private final ExecutorService executor;
+  private final int maxChunksInWork;
+  private final int rowsPerChunk;
+  private final Deque<Future<CompressionChunk>> chunksInWork;
+  private final Adler32 adler;
+  private byte[] chunkRows;
+  private int chunkRowCounter;
+  private byte[] chunkPriorRow;
+  private CompressionChunk lastChunk;
+
+  private int writtenRows;
+  private boolean closed;
+
+  /**
+   * Create writer and write PNG header into the stream.
+   *
+   * @param out stream to write image, must not be null
+   * @param width image width in pixels
+   * @param height image height in pixels
+   * @param alpha true if alpha channel should be written, false if image is
+   * opaque
+   * @throws IOException if header can't be written
+   */
+  public PngStreamWriter(@Nonnull final OutputStream out, final int width, final int height, final boolean alpha) throws IOException {
+    this(out, width, height, alpha, null, 1);
+  }
+
+  /**
+   * Create writer and write PNG header into the stream.
+   *
+   * @param out stream to write image, must not be null
+   * @param width image width in pixels
+   * @param height image height in pixels
+   * @param alpha true if alpha channel should be written, false if image is
+   * opaque
+   * @param executor executor to compress image chunks concurrently, if null
+   * then image is compressed in the caller thread
+   * @param parallelism number of threads of the executor, it limits number of
+   * chunks in work
+   * @throws IOException if header can't be written
+   */
+  public PngStreamWriter(@Nonnull final OutputStream out, final int width, final int height, final boolean alpha, @Nullable final ExecutorService executor, final int parallelism) throws IOException {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Wrong image size : " + width + 'x' + height);
+    }
+    this.out = out;
+    this.width = width;
+    this.height = height;
+    this.alpha = alpha;
+    this.bytesPerPixel = alpha ? 4 : 3;
+    this.rowLength = this.width * this.bytesPerPixel;
+    this.rowPixels = new int[this.width];
+
+    this.out.write(SIGNATURE);
+
+    final byte[] header = new byte[13];
+    writeInt(header, 0, width);
+    writeInt(header, 4, height);
+    header[8] = 8;
+    header[9] = (byte) (alpha ? 6 : 2);
+    header[10] = 0;
+    header[11] = 0;
+    header[12] = 0;
+    writeChunk("IHDR", header, 0, header.length); //NOI18N
+
+    this.idatOutput = new IdatOutputStream();
+    this.executor = executor;
+
+    if (executor == null) {
+      this.currentRow = new byte[this.rowLength];
+      this.previousRow = new byte[this.rowLength];
+      this.filteredRows = makeFilterBuffers(this.rowLength);
+      this.deflater = new Deflater(COMPRESSION_LEVEL);
+      this.idatStream = new DeflaterOutputStream(this.idatOutput, this.deflater, IDAT_CHUNK_SIZE);
+
+      this.maxChunksInWork = 0;
+      this.rowsPerChunk = 0;
+      this.chunksInWork = null;
+      this.adler = null;
+    } else {
+      this.filteredRows = null;
+      this.deflater = null;
+      this.idatStream = null;
+
+      this.maxChunksInWork = Math.max(1, parallelism) * 2;
+      this.rowsPerChunk = Math.max(1, PARALLEL_CHUNK_SIZE / (this.rowLength + 1));
+      this.chunksInWork = new ArrayDeque<Future<CompressionChunk>>();
+      this.adler = new Adler32();
+      this.chunkRows = new byte[Math.min(this.rowsPerChunk, this.height) * this.rowLength];
+
+      // zlib header for deflate without preset dictionary
+      this.idatOutput.write(0x78);
+      this.idatOutput.write(0x9C);
+    }
+  }
+
+  public int getWidth() {
+    return this.width;
+  }
+
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Get number of already written rows.
+   *
+   * @return number of rows written into stream
+   */
+  public int getWrittenRows() {
+    return this.writtenRows;
+  }
+
+  /**
+   * Write first rows of image. Width of the image must be the same as width of
+   * the PNG image.
+   *
+   * @param image source image, must not be null
+   * @param rows number of rows from the image top to be written
+   * @throws IOException if rows can't be written
+   */
+  public void writeRows(@Nonnull final BufferedImage image, final int rows) throws IOException {
+    if (image.getWidth() != this.width || rows > image.getHeight()) {
+      throw new IllegalArgumentException("Image doesn't match PNG size");
+    }
+
+    final boolean directAccess = (image.getType() == BufferedImage.TYPE_INT_ARGB || image.getType() == BufferedImage.TYPE_INT_RGB)
+        && image.getRaster().getDataBuffer() instanceof DataBufferInt
+        && image.getRaster().getSampleModelTranslateX() == 0
+        && image.getRaster().getSampleModelTranslateY() == 0;
+
+    if (directAccess) {
+      final int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+      final boolean hasAlpha = image.getType() == BufferedImage.TYPE_INT_ARGB;
+      for (int y = 0; y < rows; y++) {
+        writeRow(data, y * this.width, hasAlpha);
+      }
+    } else {
+      for (int y = 0; y < rows; y++) {
+        image.getRGB(0, y, this.width, 1, this.rowPixels, 0, this.width);
+        writeRow(this.rowPixels, 0, true);
+      }
+    }
+  }
+
+  /**
+   * Write single image row.
+   *
+   * @param pixels array contains pixels in ARGB format
+   * @param offset offset of the first row pixel in the array
+   * @param hasAlpha true if the array contains alpha, if false then pixels
+   * are processed as opaque ones
+   * @throws IOException if the row can't be written
+   */
+  public void writeRow(@Nonnull final int[] pixels, final int offset, final boolean hasAlpha) throws IOException {
+    if (this.closed) {
+      throw new IOException("Writer is closed");
+    }
+    if (this.writtenRows >= this.height) {
+      throw new IOException("All rows already written");
+    }
+
+    if (this.executor == null) {
+      final byte[] row = this.currentRow;
+      toBytes(pixels, offset, hasAlpha, row, 0);
+
+      final byte[] best = filterRow(row, this.previousRow, this.writtenRows != 0, this.bytesPerPixel, this.filteredRows);
+      this.idatStream.write(best, 0, best.length);
+
+      this.currentRow = this.previousRow;
+      this.previousRow = row;
+      this.writtenRows++;
+    } else {
+      toBytes(pixels, offset, hasAlpha, this.chunkRows, this.chunkRowCounter * this.rowLength);
+      this.chunkRowCounter++;
+      this.writtenRows++;
+      if (this.chunkRowCounter == this.rowsPerChunk || this.writtenRows == this.height) {
+        startChunkCompression();
+      }
+    }
+  }
+
+  /**
+   * Finish image and write end chunk. All rows must be written before call.
+   *
+   * @throws IOException if not all rows written or the stream can't be
+   * written
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    try {
+      if (this.writtenRows != this.height) {
+        throw new IOException("Written " + this.writtenRows + " rows but expected " + this.height);
+      }
+      if (this.executor == null) {
+        this.idatStream.finish();
+      } else {
+        while (!this.chunksInWork.isEmpty()) {
+          writeFirstChunkInWork();
+        }
+        final byte[] checksum = new byte[4];
+        writeInt(checksum, 0, (int) this.adler.getValue());
+        this.idatOutput.write(checksum);
+      }
+      this.idatOutput.flush();
+      writeChunk("IEND", new byte[0], 0, 0); //NOI18N
+      this.out.flush();
+    } finally {
+      if (this.deflater != null) {
+        this.deflater.end();
+      }
+      if (this.chunksInWork != null) {
+        for (final Future<CompressionChunk> f : this.chunksInWork) {
+          f.cancel(true);
+        }
+        this.chunksInWork.clear();
+      }
+    }
+  }
+
+  private void toBytes(@Nonnull final int[] pixels, final int offset, final boolean hasAlpha, @Nonnull final byte[] buffer, final int bufferOffset) {
+    int pos = bufferOffset;
+    for (int x = 0; x < this.width; x++) {
+      final int argb = pixels[offset + x];
+      buffer[pos++] = (byte) (argb >>> 16);
+      buffer[pos++] = (byte) (argb >>> 8);
+      buffer[pos++] = (byte) argb;
+      if (this.alpha) {
+        buffer[pos++] = hasAlpha ? (byte) (argb >>> 24) : (byte) 0xFF;
+      }
+    }
+  }
+
+  private void startChunkCompression() throws IOException {
+    final boolean last = this.writtenRows == this.height;
+    final int rows = this.chunkRowCounter;
+    final byte[] rowData = this.chunkRows;
+
+    final CompressionChunk chunk = new CompressionChunk(rowData, rows, this.rowLength, this.bytesPerPixel, this.chunkPriorRow, this.lastChunk, last);
+    this.lastChunk = chunk;
+    this.chunkPriorRow = Arrays.copyOfRange(rowData, (rows - 1) * this.rowLength, rows * this.rowLength);
+    this.chunkRowCounter = 0;
+    this.chunkRows = last ? null : new byte[Math.min(this.rowsPerChunk, this.height - this.writtenRows) * this.rowLength];
+
+    this.chunksInWork.add(this.executor.submit(chunk));
+
+    while (this.chunksInWork.size() > this.maxChunksInWork || (!this.chunksInWork.isEmpty() && this.chunksInWork.peekFirst().isDone())) {
+      writeFirstChunkInWork();
+    }
+  }
+
+  private void writeFirstChunkInWork() throws IOException {
+    final CompressionChunk chunk;
+    try {
+      chunk = this.chunksInWork.peekFirst().get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted during chunk compression");
+    } catch (ExecutionException ex) {
+      throw new IOException("Can't compress chunk", ex.getCause());
+    }
+    this.chunksInWork.removeFirst();
+    this.adler.update(chunk.filtered);
+    this.idatOutput.write(chunk.compressed);
+  }
+
+  @Nonnull
+  private static byte[][] makeFilterBuffers(final int rowLength) {
+    final byte[][] result = new byte[5][];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = new byte[rowLength + 1];
+      result[i][0] = (byte) i;
+    }
+    return result;
+  }
+
+  @Nonnull
+  private static byte[] filterRow(@Nonnull final byte[] row, @Nonnull final byte[] prior, final boolean hasPrior, final int bpp, @Nonnull final byte[][] buffers) {
+    final int length = buffers[FILTER_NONE].length - 1;
+
+    final byte[] none = buffers[FILTER_NONE];
+    final byte[] sub = buffers[FILTER_SUB];
+    final byte[] up = buffers[FILTER_UP];
+    final byte[] average = buffers[FILTER_AVERAGE];
+    final byte[] paeth = buffers[FILTER_PAETH];
+
+    long sumNone = 0L;
+    long sumSub = 0L;
+    long sumUp = 0L;
+    long sumAverage = 0L;
+    long sumPaeth = 0L;
+
+    for (int i = 0; i < length; i++) {
+      final int raw = row[i] & 0xFF;
+      final int left = i >= bpp ? row[i - bpp] & 0xFF : 0;
+      final int above = hasPrior ? prior[i] & 0xFF : 0;
+      final int aboveLeft = i >= bpp && hasPrior ? prior[i - bpp] & 0xFF : 0;
+
+      final byte vNone = (byte) raw;
+      final byte vSub = (byte) (raw - left);
+      final byte vUp = (byte) (raw - above);
+      final byte vAverage = (byte) (raw - ((left + above) >>> 1));
+      final byte vPaeth = (byte) (raw - paethPredictor(left, above, aboveLeft));
+
+      none[i + 1] = vNone;
+      sub[i + 1] = vSub;
+      up[i + 1] = vUp;
+      average[i + 1] = vAverage;
+      paeth[i + 1] = vPaeth;
+
+      sumNone += Math.abs(vNone);
+      sumSub += Math.abs(vSub);
+      sumUp += Math.abs(vUp);
+      sumAverage += Math.abs(vAverage);
+      sumPaeth += Math.abs(vPaeth);
+    }
+
+    byte[] result = none;
+    long min = sumNone;
+    if (sumSub < min) {
+      min = sumSub;
+      result = sub;
+    }
+    if (sumUp < min) {
+      min = sumUp;
+      result = up;
+    }
+    if (sumAverage < min) {
+      min = sumAverage;
+      result = average;
+    }
+    if (sumPaeth < min) {
+      result = paeth;
+    }
+    return result;
+  }
+
+  private static int paethPredictor(final int a, final int b, final int c) {
+    final int p = a + b - c;
+    final int pa = Math.abs(p - a);
+    final int pb = Math.abs(p - b);
+    final int pc = Math.abs(p - c);
+    if (pa <= pb && pa <= pc) {
+      return a;
+    } else if (pb <= pc) {
+      return b;
+    } else {
+      return c;
+    }
+  }
+
+  private static void writeInt(@Nonnull final byte[] buffer, final int offset, final int value) {
+    buffer[offset] = (byte) (value >>> 24);
+    buffer[offset + 1] = (byte) (value >>> 16);
+    buffer[offset + 2] = (byte) (value >>> 8);
+    buffer[offset + 3] = (byte) value;
+  }
+
+  private void writeChunk(@Nonnull final String type, @Nonnull final byte[] data, final int offset, final int length) throws IOException {
+    final byte[] typeBytes = type.getBytes("US-ASCII"); //NOI18N
+    final byte[] intBuffer = new byte[4];
+
+    writeInt(intBuffer, 0, length);
+    this.out.write(intBuffer);
+    this.out.write(typeBytes);
+    this.out.write(data, offset, length);
+
+    final CRC32 crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(data, offset, length);
+    writeInt(intBuffer, 0, (int) crc.getValue());
+    this.out.write(intBuffer);
+  }
+
+  /**
+   * Rows of image which are filtered and compressed as raw deflate block
+   * sequence. Filtered data becomes available for the next chunk as soon as
+   * filtering is completed, the next chunk uses its tail as dictionary.
+   */
+  private static final class CompressionChunk implements Callable<CompressionChunk> {
+
+    private final byte[] rows;
+    private final int rowCount;
+    private final int rowLength;
+    private final int bytesPerPixel;
+    private final byte[] priorRow;
+    private final boolean last;
+    private final CountDownLatch filteredLatch = new CountDownLatch(1);
+
+    private volatile CompressionChunk previous;
+    private volatile byte[] filtered;
+    private byte[] compressed;
+
+    private CompressionChunk(@Nonnull final byte[] rows, final int rowCount, final int rowLength, final int bytesPerPixel, @Nullable final byte[] priorRow, @Nullable final CompressionChunk previous, final boolean last) {
+      this.rows = rows;
+      this.rowCount = rowCount;
+      this.rowLength = rowLength;
+      this.bytesPerPixel = bytesPerPixel;
+      this.priorRow = priorRow;
+      this.previous = previous;
+      this.last = last;
+    }
+
+    @Nonnull
+    private byte[] awaitFiltered() throws InterruptedException {
+      this.filteredLatch.await();
+      final byte[] result = this.filtered;
+      if (result == null) {
+        throw new IllegalStateException("Previous chunk filtering failed");
+      }
+      return result;
+    }
+
+    @Override
+    @Nonnull
+    public CompressionChunk call() throws Exception {
+      try {
+        final byte[] result = new byte[this.rowCount * (this.rowLength + 1)];
+        final byte[][] buffers = makeFilterBuffers(this.rowLength);
+        byte[] row = new byte[this.rowLength];
+        byte[] prior = this.priorRow == null ? new byte[this.rowLength] : this.priorRow;
+        for (int i = 0; i < this.rowCount; i++) {
+          System.arraycopy(this.rows, i * this.rowLength, row, 0, this.rowLength);
+          final byte[] best = filterRow(row, prior, i > 0 || this.priorRow != null, this.bytesPerPixel, buffers);
+          System.arraycopy(best, 0, result, i * (this.rowLength + 1), best.length);
+          final byte[] swap = prior;
+          prior = row;
+          row = swap;
+        }
+        this.filtered = result;
+      } finally {
+        this.filteredLatch.countDown();
+      }
+
+      final Deflater deflater = new Deflater(COMPRESSION_LEVEL, true);
+      try {
+        final CompressionChunk prev = this.previous;
+        this.previous = null;
+        if (prev != null) {
+          final byte[] dictionary = prev.awaitFiltered();
+          final int length = Math.min(DICTIONARY_SIZE, dictionary.length);
+          deflater.setDictionary(dictionary, dictionary.length - length, length);
+        }
+
+        final byte[] data = this.filtered;
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        final byte[] block = new byte[IDAT_CHUNK_SIZE];
+        deflater.setInput(data);
+        if (this.last) {
+          deflater.finish();
+          while (!deflater.finished()) {
+            buffer.write(block, 0, deflater.deflate(block));
+          }
+        } else {
+          int length;
+          do {
+            length = deflater.deflate(block, 0, block.length, Deflater.SYNC_FLUSH);
+            buffer.write(block, 0, length);
+          } while (length == block.length);
+        }
+        this.compressed = buffer.toByteArray();
+      } finally {
+        deflater.end();
+      }
+      return this;
+    }
+  }
+
+  private final class IdatOutputStream extends OutputStream {
+
+    private final byte[] buffer = new byte[IDAT_CHUNK_SIZE];
+    private int size;
+
+    @Override
+    public void write(final int b) throws IOException {
+      if (this.size == this.buffer.length) {
+        flushChunk();
+      }
+      this.buffer[this.size++] = (byte) b;
+    }
+
+    @Override
+    public void write(@Nonnull final byte[] data, final int offset, final int length) throws IOException {
+      int off = offset;
+      int len = length;
+      while (len > 0) {
+        if (this.size == this.buffer.length) {
+          flushChunk();
+        }
+        final int toCopy = Math.min(len, this.buffer.length - this.size);
+        System.arraycopy(data, off, this.buffer, this.size, toCopy);
+        this.size += toCopy;
+        off += toCopy;
+        len -= toCopy;
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      flushChunk();
+    }
+
+    private void flushChunk() throws IOException {
+      if (this.size > 0) {
+        writeChunk("IDAT", this.buffer, 0, this.size); //NOI18N
+        this.size = 0;
+      }
+    }
+  }
+}
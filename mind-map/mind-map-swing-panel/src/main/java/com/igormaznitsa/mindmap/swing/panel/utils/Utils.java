@@ -780,6 +780,15 @@ public final class Utils {
   ) {
     list.clear();
 
+    // mounted topics are read-only so that items changing topics are disabled for them
+    boolean mountedTopicsTargeted = false;
+    if (section == PopUpSection.MAIN || section == PopUpSection.MANIPULATORS || section == PopUpSection.EXTRAS) {
+      mountedTopicsTargeted = topicUnderMouse != null && topicUnderMouse.isMounted();
+      for (final Topic t : context.getSelectedTopics()) {
+        mountedTopicsTargeted |= t.isMounted();
+      }
+    }
+
     for (final PopUpMenuItemPlugin p : pluginMenuItems) {
       if (fullScreenModeActive && !p.isCompatibleWithFullScreenMode()) {
         continue;
@@ -791,7 +800,7 @@ public final class Utils {
 
           final JMenuItem item = p.makeMenuItem(context, topicUnderMouse);
           if (item != null) {
-            item.setEnabled(p.isEnabled(context, topicUnderMouse));
+            item.setEnabled(p.isEnabled(context, topicUnderMouse) && !(mountedTopicsTargeted && (p.needsTopicUnderMouse() || p.needsSelectedTopics())));
             list.add(item);
           }
         }
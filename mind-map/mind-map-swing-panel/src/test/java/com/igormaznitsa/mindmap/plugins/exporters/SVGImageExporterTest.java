@@ -0,0 +1,175 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.plugins.exporters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.plugins.api.HasOptions;
+import com.igormaznitsa.mindmap.plugins.api.PluginContext;
+import com.igormaznitsa.mindmap.plugins.attributes.images.ImageVisualAttributePlugin;
+import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.imageio.ImageIO;
+import javax.swing.JComponent;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.junit.Test;
+
+public class SVGImageExporterTest extends AbstractStandardExporterTest<SVGImageExporter> {
+
+  private static final Pattern STYLE_CLASS_RULE = Pattern.compile("\\.(s\\d+) \\{");
+  private static final Pattern STYLE_CLASS_REF = Pattern.compile("class=\"(?:[^\"]+ )?(s\\d+)\"");
+
+  private String styleClasses = null;
+
+  private static int countOccurrences(final String text, final String substring) {
+    int result = 0;
+    int index = text.indexOf(substring);
+    while (index >= 0) {
+      result++;
+      index = text.indexOf(substring, index + substring.length());
+    }
+    return result;
+  }
+
+  private static String format(final double value, final int fractionDigits) throws Exception {
+    final StringWriter buffer = new StringWriter();
+    final SVGImageExporter.SvgWriter out = new SVGImageExporter.SvgWriter(buffer, false);
+    out.number(value, fractionDigits);
+    out.flush();
+    return buffer.toString();
+  }
+
+  private static MindMap makeMap(final int children) {
+    final MindMap map = new MindMap(true);
+    map.getRoot().setText("Root");
+    for (int i = 0; i < children; i++) {
+      new Topic(map, map.getRoot(), "Child " + i);
+    }
+    return map;
+  }
+
+  private static String makeImageAttribute() throws Exception {
+    final BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D gfx = image.createGraphics();
+    try {
+      gfx.setColor(Color.RED);
+      gfx.fillOval(2, 2, 12, 12);
+    } finally {
+      gfx.dispose();
+    }
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", buffer);
+    return Utils.base64encode(buffer.toByteArray());
+  }
+
+  private static void assertWellFormed(final String svg) throws Exception {
+    DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(svg.getBytes("UTF-8")));
+  }
+
+  @Override
+  public JComponent prepareOptions() {
+    final JComponent result = new SVGImageExporter().makeOptions(mock(PluginContext.class));
+    if (this.styleClasses != null) {
+      ((HasOptions) result).setOption("style.classes", this.styleClasses);
+    }
+    return result;
+  }
+
+  @Test
+  public void testStyleClassesDisabledByDefault() throws Exception {
+    final String svg = new String(export(makeMap(3), null), "UTF-8");
+    assertWellFormed(svg);
+    assertFalse(STYLE_CLASS_RULE.matcher(svg).find());
+    assertFalse(STYLE_CLASS_REF.matcher(svg).find());
+    assertTrue(svg.contains(" fill=\"rgb("));
+  }
+
+  @Test
+  public void testSameStylesShareOneClass() throws Exception {
+    this.styleClasses = "true";
+    final String svg = new String(export(makeMap(5), null), "UTF-8");
+    assertWellFormed(svg);
+
+    final Set<String> rules = new HashSet<String>();
+    final Matcher ruleMatcher = STYLE_CLASS_RULE.matcher(svg);
+    while (ruleMatcher.find()) {
+      assertTrue("Duplicated rule " + ruleMatcher.group(1), rules.add(ruleMatcher.group(1)));
+    }
+
+    int references = 0;
+    final Matcher refMatcher = STYLE_CLASS_REF.matcher(svg);
+    while (refMatcher.find()) {
+      assertTrue("Missing rule " + refMatcher.group(1), rules.contains(refMatcher.group(1)));
+      references++;
+    }
+
+    assertFalse(rules.isEmpty());
+    assertTrue(references > rules.size());
+    assertFalse(svg.contains(" fill=\"rgb("));
+  }
+
+  @Test
+  public void testSameImagesDefinedOnceAndReferencedByUse() throws Exception {
+    final MindMap map = makeMap(2);
+    final String image = makeImageAttribute();
+    for (final Topic t : map) {
+      t.setAttribute(ImageVisualAttributePlugin.ATTR_KEY, image);
+    }
+    final String svg = new String(export(map, null), "UTF-8");
+    assertWellFormed(svg);
+    assertEquals(1, countOccurrences(svg, "<defs><image id=\"img0\""));
+    assertEquals(0, countOccurrences(svg, "<defs><image id=\"img1\""));
+    assertEquals(3, countOccurrences(svg, "<use xlink:href=\"#img0\""));
+  }
+
+  @Test
+  public void testNumberFormat() throws Exception {
+    assertEquals("0", format(0.0d, 3));
+    assertEquals("0", format(-0.0001d, 3));
+    assertEquals("1", format(1.0d, 3));
+    assertEquals("1.5", format(1.5d, 3));
+    assertEquals("-2.25", format(-2.25d, 3));
+    assertEquals("0.123", format(0.1234d, 3));
+    assertEquals("3", format(2.9999d, 3));
+    assertEquals("12345.678", format(12345.678d, 3));
+    assertEquals("3.14", format(3.14159d, 2));
+    assertEquals("8", format(7.5d, 0));
+    assertEquals("0.05", format(0.05d, 3));
+    assertEquals("0", format(Double.NaN, 3));
+    assertEquals("0", format(Double.POSITIVE_INFINITY, 3));
+  }
+
+  @Override
+  public SVGImageExporter generateExporterInstance() {
+    return new SVGImageExporter();
+  }
+}
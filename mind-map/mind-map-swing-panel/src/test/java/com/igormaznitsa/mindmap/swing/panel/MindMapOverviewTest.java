@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+import javax.swing.SwingUtilities;
+import org.junit.Test;
+
+public class MindMapOverviewTest {
+
+  @Test
+  public void testRasterScaleIsUniform() {
+    assertEquals(0.1d, MindMapOverview.calcRasterScale(new Dimension(200, 150), new Dimension(2000, 1000)), 0.0d);
+    assertEquals(0.075d, MindMapOverview.calcRasterScale(new Dimension(200, 150), new Dimension(1000, 2000)), 0.0d);
+  }
+
+  @Test
+  public void testMapViewToRaster() {
+    final Rectangle area = new Rectangle(10, 25, 200, 100);
+    final double scale = MindMapOverview.calcRasterScale(new Dimension(200, 150), new Dimension(2000, 1000));
+
+    assertEquals(new Rectangle(10, 25, 200, 100), MindMapOverview.mapViewToRaster(new Rectangle(0, 0, 2000, 1000), area, scale));
+    assertEquals(new Rectangle(60, 50, 40, 30), MindMapOverview.mapViewToRaster(new Rectangle(500, 250, 400, 300), area, scale));
+    assertEquals(new Rectangle(10, 25, 2, 2), MindMapOverview.mapViewToRaster(new Rectangle(0, 0, 5, 5), area, scale));
+  }
+
+  @Test
+  public void testMapRasterToViewIsInverseOfMapViewToRaster() {
+    final Rectangle area = new Rectangle(10, 25, 200, 100);
+    final double scale = 0.1d;
+
+    final Rectangle view = new Rectangle(500, 250, 400, 300);
+    final Rectangle mapped = MindMapOverview.mapViewToRaster(view, area, scale);
+    assertEquals(new Point2D.Double(500.0d, 250.0d), MindMapOverview.mapRasterToView(mapped.getLocation(), area, scale));
+    assertEquals(new Point2D.Double(1000.0d, 500.0d), MindMapOverview.mapRasterToView(new Point(110, 75), area, scale));
+  }
+
+  @Test
+  public void testListenersRemovedOnRemoveNotify() throws Exception {
+    final MindMapPanelController controller = mock(MindMapPanelController.class);
+    when(controller.provideConfigForMindMapPanel(any(MindMapPanel.class))).thenReturn(new MindMapPanelConfig());
+
+    final MindMapPanel panel = new MindMapPanel(controller);
+    try {
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          final int componentListeners = panel.getComponentListeners().length;
+          final int hierarchyListeners = panel.getHierarchyListeners().length;
+
+          final MindMapOverview overview = new MindMapOverview(panel);
+          assertEquals(componentListeners, panel.getComponentListeners().length);
+
+          overview.addNotify();
+          assertEquals(componentListeners + 1, panel.getComponentListeners().length);
+          assertEquals(hierarchyListeners + 1, panel.getHierarchyListeners().length);
+
+          overview.removeNotify();
+          assertEquals(componentListeners, panel.getComponentListeners().length);
+          assertEquals(hierarchyListeners, panel.getHierarchyListeners().length);
+        }
+      });
+    } finally {
+      panel.dispose();
+    }
+  }
+}
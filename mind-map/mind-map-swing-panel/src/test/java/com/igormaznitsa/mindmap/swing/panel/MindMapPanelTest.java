@@ -16,12 +16,45 @@
 
 package com.igormaznitsa.mindmap.swing.panel;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.same;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.swing.panel.ui.AbstractElement;
+import com.igormaznitsa.mindmap.swing.panel.ui.ElementRoot;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
+import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import javax.imageio.ImageIO;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
 import org.junit.Test;
 
 public class MindMapPanelTest {
@@ -38,4 +71,495 @@ public class MindMapPanelTest {
     assertNotSame(config, panel.getConfiguration());
   }
 
+  @Test(timeout = 10000L)
+  public void testBackgroundLayoutPublishesElementsForLiveTopics() throws Exception {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+    config.setBackgroundLayoutThreshold(2);
+
+    final MindMapPanelController controller = mock(MindMapPanelController.class);
+    when(controller.provideConfigForMindMapPanel(any(MindMapPanel.class))).thenReturn(config);
+
+    final MindMap map = new MindMap(true);
+    final Topic root = map.getRoot();
+    final Topic first = new Topic(map, root, "first");
+    final Topic second = new Topic(map, first, "second");
+
+    final MindMapPanel panel = new MindMapPanel(controller);
+    try {
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          panel.setSize(800, 600);
+        }
+      });
+      // resize notification must be processed before model set, else it makes synchronous layout
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          panel.setModel(map);
+        }
+      });
+
+      while (second.getPayload() == null) {
+        Thread.sleep(10L);
+      }
+
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          assertSame(root, ((AbstractElement) root.getPayload()).getModel());
+          assertSame(first, ((AbstractElement) first.getPayload()).getModel());
+          assertSame(second, ((AbstractElement) second.getPayload()).getModel());
+          assertTrue(panel.getPreferredSize().width > 0);
+        }
+      });
+    } finally {
+      panel.dispose();
+    }
+  }
+
+  @Test(timeout = 10000L)
+  public void testBackgroundLayoutPublishedForCollapsedTopic() throws Exception {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+    config.setBackgroundLayoutThreshold(2);
+
+    final MindMapPanelController controller = mock(MindMapPanelController.class);
+    when(controller.provideConfigForMindMapPanel(any(MindMapPanel.class))).thenReturn(config);
+
+    final MindMap map = new MindMap(true);
+    final Topic root = map.getRoot();
+    final Topic first = new Topic(map, root, "first");
+    final Topic second = new Topic(map, first, "second");
+    MindMapUtils.setCollapsed(first, true);
+
+    final MindMapPanel panel = new MindMapPanel(controller);
+    try {
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          panel.setSize(800, 600);
+        }
+      });
+      // resize notification must be processed before model set, else it makes synchronous layout
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          panel.setModel(map);
+        }
+      });
+
+      while (first.getPayload() == null) {
+        Thread.sleep(10L);
+      }
+
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          assertSame(first, ((AbstractElement) first.getPayload()).getModel());
+          assertNull(second.getPayload());
+        }
+      });
+    } finally {
+      panel.dispose();
+    }
+  }
+
+  @Test(timeout = 10000L)
+  public void testInvalidateCancelsBackgroundLayout() throws Exception {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+    config.setBackgroundLayoutThreshold(2);
+
+    final MindMapPanelController controller = mock(MindMapPanelController.class);
+    when(controller.provideConfigForMindMapPanel(any(MindMapPanel.class))).thenReturn(config);
+
+    final MindMap map = new MindMap(true);
+    final Topic root = map.getRoot();
+    new Topic(map, new Topic(map, root, "first"), "second");
+
+    final MindMapPanel panel = new MindMapPanel(controller);
+    try {
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          panel.setSize(800, 600);
+        }
+      });
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          panel.setModel(map);
+          assertTrue(panel.isValid());
+          panel.invalidate();
+          assertFalse(panel.isValid());
+        }
+      });
+
+      Thread.sleep(200L);
+
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          assertNull(root.getPayload());
+          assertFalse(panel.isValid());
+        }
+      });
+    } finally {
+      panel.dispose();
+    }
+  }
+
+  @Test(timeout = 10000L)
+  public void testBackgroundLayoutForChangedModelIsNotPublished() throws Exception {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+    config.setBackgroundLayoutThreshold(2);
+
+    final MindMapPanelController controller = mock(MindMapPanelController.class);
+    when(controller.provideConfigForMindMapPanel(any(MindMapPanel.class))).thenReturn(config);
+
+    final MindMap map = new MindMap(true);
+    final Topic root = map.getRoot();
+    final Topic first = new Topic(map, root, "first");
+    new Topic(map, first, "second");
+
+    final MindMapPanel panel = new MindMapPanel(controller);
+    try {
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          panel.setSize(800, 600);
+        }
+      });
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          panel.setModel(map);
+          map.valueForPathChanged(new Topic[] {root, first}, "some much longer text of the first topic");
+        }
+      });
+
+      final boolean[] valid = new boolean[] {true};
+      while (valid[0]) {
+        Thread.sleep(10L);
+        SwingUtilities.invokeAndWait(new Runnable() {
+          @Override
+          public void run() {
+            valid[0] = panel.isValid();
+          }
+        });
+      }
+
+      assertNull(root.getPayload());
+      assertNull(first.getPayload());
+    } finally {
+      panel.dispose();
+    }
+  }
+
+  @Test(timeout = 10000L)
+  public void testMoveFocusIntoCollapsedTopicSelectsFirstChild() throws Exception {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+
+    final MindMapPanelController controller = mock(MindMapPanelController.class);
+    when(controller.provideConfigForMindMapPanel(any(MindMapPanel.class))).thenReturn(config);
+    when(controller.isSelectionAllowed(any(MindMapPanel.class))).thenReturn(true);
+
+    final MindMap map = new MindMap(true);
+    final Topic root = map.getRoot();
+    final Topic first = new Topic(map, root, "first");
+    final Topic second = new Topic(map, first, "second");
+    MindMapUtils.setCollapsed(first, true);
+
+    final MindMapPanel panel = new MindMapPanel(controller);
+    try {
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          panel.setSize(800, 600);
+          panel.setModel(map);
+          panel.doLayout();
+          assertNull(second.getPayload());
+
+          panel.select(first, false);
+          final KeyEvent event = new KeyEvent(panel, KeyEvent.KEY_RELEASED, 0L, 0, KeyEvent.VK_RIGHT, KeyEvent.CHAR_UNDEFINED);
+          for (final KeyListener l : panel.getKeyListeners()) {
+            l.keyReleased(event);
+          }
+
+          assertFalse(MindMapUtils.isCollapsed(first));
+          assertNotNull(second.getPayload());
+          assertArrayEquals(new Topic[] {second}, panel.getSelectedTopics());
+        }
+      });
+    } finally {
+      panel.dispose();
+    }
+  }
+
+  @Test(timeout = 10000L)
+  public void testEditOfTopicKeepsElementsOfUntouchedSiblings() throws Exception {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+
+    final MindMapPanelController controller = mock(MindMapPanelController.class);
+    when(controller.provideConfigForMindMapPanel(any(MindMapPanel.class))).thenReturn(config);
+
+    final MindMap map = new MindMap(true);
+    final Topic root = map.getRoot();
+    final Topic edited = new Topic(map, root, "edited");
+    final Topic sibling = new Topic(map, root, "sibling");
+
+    final MindMapPanel panel = new MindMapPanel(controller);
+    try {
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          // page is smaller than diagram so that it is not centered and untouched topics keep their positions
+          panel.setSize(16, 16);
+          panel.setModel(map);
+          panel.doLayout();
+
+          final AbstractElement siblingElement = (AbstractElement) sibling.getPayload();
+          assertNotNull(siblingElement);
+          final Rectangle2D siblingBounds = siblingElement.getBounds().getBounds2D();
+
+          panel.startEdit((AbstractElement) edited.getPayload());
+          findTextArea(panel).setText("edited text");
+          assertTrue(panel.endEdit(true));
+
+          assertEquals("edited text", edited.getText());
+          assertSame(siblingElement, sibling.getPayload());
+          assertEquals(siblingBounds, siblingElement.getBounds());
+          assertTrue(panel.isValid());
+        }
+      });
+    } finally {
+      panel.dispose();
+    }
+  }
+
+  private static JTextArea findTextArea(final Container container) {
+    for (final Component c : container.getComponents()) {
+      if (c instanceof JTextArea) {
+        return (JTextArea) c;
+      }
+      if (c instanceof Container) {
+        final JTextArea result = findTextArea((Container) c);
+        if (result != null) {
+          return result;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Test
+  public void testElementsNotCreatedForCollapsedSubtree() {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+
+    final MindMap map = new MindMap(true);
+    final Topic root = map.getRoot();
+    final Topic first = new Topic(map, root, "first");
+    final Topic second = new Topic(map, first, "second");
+    final Topic third = new Topic(map, second, "third");
+    MindMapUtils.setCollapsed(first, true);
+
+    final Graphics2D gfx = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB).createGraphics();
+    try {
+      final MMGraphics2DWrapper wrapper = new MMGraphics2DWrapper(gfx);
+      assertTrue(MindMapPanel.calculateElementSizes(wrapper, map, config));
+      assertNotNull(first.getPayload());
+      assertNull(second.getPayload());
+      assertNull(third.getPayload());
+
+      MindMapUtils.setCollapsed(first, false);
+      assertTrue(MindMapPanel.updateElementSizesForTopics(wrapper, map, config, Collections.singletonList(first)));
+      assertNotNull(second.getPayload());
+      assertNotNull(third.getPayload());
+
+      MindMapUtils.setCollapsed(first, true);
+      assertTrue(MindMapPanel.updateElementSizesForTopics(wrapper, map, config, Collections.singletonList(first)));
+      assertNull(second.getPayload());
+      assertNull(third.getPayload());
+    } finally {
+      gfx.dispose();
+    }
+  }
+
+  @Test
+  public void testConnectorsShapeCachedUntilGeometryChanged() {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+
+    final MindMap map = new MindMap(true);
+    final Topic root = map.getRoot();
+    final Topic first = new Topic(map, root, "first");
+    new Topic(map, first, "second");
+
+    final Graphics2D gfx = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB).createGraphics();
+    try {
+      assertNotNull(MindMapPanel.layoutFullDiagramWithCenteringToPaper(new MMGraphics2DWrapper(gfx), map, config, new Dimension(800, 600)));
+
+      final AbstractElement element = (AbstractElement) first.getPayload();
+      final Path2D shape = element.getConnectorsShape(false, config);
+      assertSame(shape, element.getConnectorsShape(false, config));
+
+      assertNotNull(MindMapPanel.layoutDiagramWithCenteringToPaper(map, config, new Dimension(1600, 1200)));
+      final Path2D moved = element.getConnectorsShape(false, config);
+      assertNotSame(shape, moved);
+      assertFalse(shape.getBounds2D().equals(moved.getBounds2D()));
+    } finally {
+      gfx.dispose();
+    }
+  }
+
+  @Test
+  public void testLaidOutCopyHasOwnElements() {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+
+    final MindMap map = new MindMap(true);
+    final Topic first = new Topic(map, map.getRoot(), "first");
+    final Topic collapsed = new Topic(map, map.getRoot(), "collapsed");
+    new Topic(map, collapsed, "hidden");
+    MindMapUtils.setCollapsed(collapsed, true);
+
+    assertNull(MindMapPanel.makeLaidOutCopy(map));
+
+    final Graphics2D gfx = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB).createGraphics();
+    try {
+      assertNotNull(MindMapPanel.layoutFullDiagramWithCenteringToPaper(new MMGraphics2DWrapper(gfx), map, config, new Dimension(800, 600)));
+    } finally {
+      gfx.dispose();
+    }
+
+    final MindMap copy = MindMapPanel.makeLaidOutCopy(map);
+    assertNotNull(copy);
+
+    final Topic copiedFirst = copy.getRoot().getChildren().get(0);
+    final AbstractElement element = (AbstractElement) first.getPayload();
+    final AbstractElement copiedElement = (AbstractElement) copiedFirst.getPayload();
+    assertNotSame(element, copiedElement);
+    assertSame(copiedFirst, copiedElement.getModel());
+    assertEquals(element.getBounds(), copiedElement.getBounds());
+    assertSame(copy.getRoot().getPayload(), copiedElement.findRootElement());
+    assertSame(first, element.getModel());
+
+    assertNull(copy.getRoot().getChildren().get(1).getFirst().getPayload());
+  }
+
+  @Test
+  public void testGeometryRevisionChangedOncePerLayout() {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+
+    final MindMap map = new MindMap(true);
+    Topic topic = map.getRoot();
+    for (int i = 0; i < 100; i++) {
+      topic = new Topic(map, topic, "topic" + i);
+    }
+
+    final Graphics2D gfx = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB).createGraphics();
+    try {
+      assertNotNull(MindMapPanel.layoutFullDiagramWithCenteringToPaper(new MMGraphics2DWrapper(gfx), map, config, new Dimension(800, 600)));
+
+      final ElementRoot rootElement = (ElementRoot) map.getRoot().getPayload();
+      assertSame(rootElement, ((AbstractElement) topic.getPayload()).findRootElement());
+
+      final long revision = rootElement.getGeometryRevision();
+      assertNotNull(MindMapPanel.layoutDiagramWithCenteringToPaper(map, config, new Dimension(800, 600)));
+      assertEquals(revision + 1L, rootElement.getGeometryRevision());
+    } finally {
+      gfx.dispose();
+    }
+  }
+
+  @Test
+  public void testConnectorsShapeNotInvalidatedByAnotherMap() {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+
+    final MindMap map = new MindMap(true);
+    final Topic first = new Topic(map, map.getRoot(), "first");
+    new Topic(map, first, "second");
+
+    final MindMap otherMap = new MindMap(true);
+    final Topic otherFirst = new Topic(otherMap, otherMap.getRoot(), "first");
+
+    final Graphics2D gfx = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB).createGraphics();
+    try {
+      assertNotNull(MindMapPanel.layoutFullDiagramWithCenteringToPaper(new MMGraphics2DWrapper(gfx), map, config, new Dimension(800, 600)));
+      assertNotNull(MindMapPanel.layoutFullDiagramWithCenteringToPaper(new MMGraphics2DWrapper(gfx), otherMap, config, new Dimension(800, 600)));
+
+      final AbstractElement element = (AbstractElement) first.getPayload();
+      final Path2D shape = element.getConnectorsShape(false, config);
+
+      new Topic(otherMap, otherFirst, "second");
+      assertNotNull(MindMapPanel.layoutFullDiagramWithCenteringToPaper(new MMGraphics2DWrapper(gfx), otherMap, config, new Dimension(1600, 1200)));
+
+      assertSame(shape, element.getConnectorsShape(false, config));
+    } finally {
+      gfx.dispose();
+    }
+  }
+
+  @Test
+  public void testPngRenderingNotDependsOnNumberOfThreads() throws Exception {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+
+    final MindMap map = new MindMap(true);
+    for (int i = 0; i < 200; i++) {
+      new Topic(map, new Topic(map, map.getRoot(), "topic " + i), "child of topic " + i);
+    }
+
+    final ByteArrayOutputStream twoThreads = new ByteArrayOutputStream();
+    assertTrue(MindMapPanel.renderMindMapAsPng(map, config, false, RenderQuality.QUALITY, twoThreads, 2));
+    final ByteArrayOutputStream threeThreads = new ByteArrayOutputStream();
+    assertTrue(MindMapPanel.renderMindMapAsPng(map, config, false, RenderQuality.QUALITY, threeThreads, 3));
+    assertArrayEquals(twoThreads.toByteArray(), threeThreads.toByteArray());
+
+    final ByteArrayOutputStream oneThread = new ByteArrayOutputStream();
+    assertTrue(MindMapPanel.renderMindMapAsPng(map, config, false, RenderQuality.QUALITY, oneThread, 1));
+
+    final BufferedImage expected = ImageIO.read(new ByteArrayInputStream(oneThread.toByteArray()));
+    final BufferedImage image = ImageIO.read(new ByteArrayInputStream(twoThreads.toByteArray()));
+    assertTrue(expected.getWidth() * expected.getHeight() > 2 * 1024 * 1024);
+    assertEquals(expected.getWidth(), image.getWidth());
+    assertEquals(expected.getHeight(), image.getHeight());
+    assertArrayEquals(expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth()),
+        image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()));
+  }
+
+  @Test
+  public void testBulkSelectionNotifiesListenersOnce() {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+
+    final MindMapPanelController controller = mock(MindMapPanelController.class);
+    when(controller.provideConfigForMindMapPanel(any(MindMapPanel.class))).thenReturn(config);
+    when(controller.isSelectionAllowed(any(MindMapPanel.class))).thenReturn(true);
+
+    final MindMap map = new MindMap(true);
+    final Topic root = map.getRoot();
+    final Topic first = new Topic(map, root, "first");
+    final Topic second = new Topic(map, root, "second");
+    final Topic third = new Topic(map, root, "third");
+
+    final MindMapPanel panel = new MindMapPanel(controller);
+    try {
+      final MindMapListener listener = mock(MindMapListener.class);
+      panel.addMindMapListener(listener);
+
+      panel.select(Arrays.asList(first, second, third), false);
+      verify(listener, times(1)).onChangedSelection(same(panel), any(Topic[].class));
+      assertArrayEquals(new Topic[] {first, second, third}, panel.getSelectedTopics());
+
+      panel.select(Arrays.asList(first, second), false);
+      verify(listener, times(1)).onChangedSelection(same(panel), any(Topic[].class));
+
+      panel.removeFromSelection(Arrays.asList(second, third));
+      verify(listener, times(2)).onChangedSelection(same(panel), any(Topic[].class));
+      assertArrayEquals(new Topic[] {first}, panel.getSelectedTopics());
+
+      panel.replaceSelection(Arrays.asList(third, first));
+      verify(listener, times(3)).onChangedSelection(same(panel), any(Topic[].class));
+      assertArrayEquals(new Topic[] {third, first}, panel.getSelectedTopics());
+    } finally {
+      panel.dispose();
+    }
+  }
+
 }
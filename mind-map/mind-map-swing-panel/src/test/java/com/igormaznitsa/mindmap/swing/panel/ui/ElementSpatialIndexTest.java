@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanel;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
+import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import org.junit.Test;
+
+public class ElementSpatialIndexTest {
+
+  private static MindMap makeLaidOutMap() {
+    final MindMap map = new MindMap(true);
+    final Topic root = map.getRoot();
+    root.setText("Root");
+    final Random rnd = new Random(1234L);
+    for (int i = 0; i < 8; i++) {
+      final Topic first = root.makeChild("First level " + i, null);
+      for (int j = 0; j < 6; j++) {
+        final Topic second = first.makeChild("Second level topic " + i + '.' + j, null);
+        for (int k = 0; k < rnd.nextInt(6); k++) {
+          second.makeChild("Leaf " + k, null);
+        }
+        if (j == 2) {
+          MindMapUtils.setCollapsed(second, true);
+        }
+      }
+    }
+
+    final MMGraphics gfx = new MMGraphics2DWrapper(new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB).createGraphics());
+    try {
+      assertNotNull(MindMapPanel.layoutFullDiagramWithCenteringToPaper(gfx, map, new MindMapPanelConfig(), new Dimension(800, 600)));
+    } finally {
+      gfx.dispose();
+    }
+    return map;
+  }
+
+  private static Dimension calcDiagramSize(final MindMap map) {
+    final Dimension result = new Dimension();
+    for (final Topic t : map) {
+      final AbstractElement element = (AbstractElement) t.getPayload();
+      result.width = Math.max(result.width, (int) element.getBounds().getMaxX() + 50);
+      result.height = Math.max(result.height, (int) element.getBounds().getMaxY() + 50);
+    }
+    return result;
+  }
+
+  @Test
+  public void testFindForPoint() {
+    final MindMap map = makeLaidOutMap();
+    final AbstractElement root = (AbstractElement) map.getRoot().getPayload();
+    final ElementSpatialIndex index = new ElementSpatialIndex(root);
+
+    for (final Topic t : map.getRoot().getChildren()) {
+      final AbstractElement element = (AbstractElement) t.getPayload();
+      final Point center = new Point((int) element.getBounds().getCenterX(), (int) element.getBounds().getCenterY());
+      assertSame(element, index.findForPoint(center));
+    }
+
+    final Dimension size = calcDiagramSize(map);
+    for (int x = 0; x < size.width; x += 7) {
+      for (int y = 0; y < size.height; y += 7) {
+        final Point point = new Point(x, y);
+        final AbstractElement expected = root.findForPoint(point);
+        if (expected == null || expected.hasChildren() || expected.getBounds().contains(point)) {
+          assertSame(point.toString(), expected, index.findForPoint(point));
+        }
+      }
+    }
+
+    assertNull(index.findForPoint(new Point(-100, -100)));
+  }
+
+  @Test
+  public void testFindNearest() {
+    final MindMap map = makeLaidOutMap();
+    final AbstractElement root = (AbstractElement) map.getRoot().getPayload();
+    final ElementSpatialIndex index = new ElementSpatialIndex(root);
+    final AbstractElement ignored = (AbstractElement) map.getRoot().getFirst().getPayload();
+
+    final Random rnd = new Random(5678L);
+    final Dimension size = calcDiagramSize(map);
+    for (int i = 0; i < 500; i++) {
+      final Point point = new Point(rnd.nextInt(size.width + 200) - 100, rnd.nextInt(size.height + 200) - 100);
+      assertSame(point.toString(), root.findNearestOpenedTopicToPoint(ignored, point), index.findNearest(ignored, point));
+    }
+  }
+
+  @Test
+  public void testCollapsedChildrenAreNotIndexed() {
+    final MindMap map = makeLaidOutMap();
+    int visible = 0;
+    for (final Topic t : map) {
+      if (MindMapUtils.isTopicVisible(t)) {
+        visible++;
+      }
+    }
+    assertEquals(visible, new ElementSpatialIndex((AbstractElement) map.getRoot().getPayload()).size());
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel.ui;
+
+import static org.junit.Assert.assertEquals;
+
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class RenderTileCacheTest {
+
+  private static final class CountingPainter implements RenderTileCache.TilePainter {
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public void paintTile(final Graphics2D gfx) {
+      this.counter.incrementAndGet();
+      gfx.setColor(Color.WHITE);
+      gfx.fill(gfx.getClipBounds());
+      gfx.setColor(Color.RED);
+      gfx.fillRect(10, 10, 100, 40);
+      gfx.setColor(Color.BLUE);
+      gfx.drawLine(0, 0, 199, 149);
+    }
+  }
+
+  private static BufferedImage paint(final RenderTileCache cache, final Rectangle area, final long revision, final RenderTileCache.TilePainter painter) {
+    final BufferedImage result = new BufferedImage(200, 150, BufferedImage.TYPE_INT_RGB);
+    final Graphics2D gfx = result.createGraphics();
+    try {
+      gfx.setClip(area);
+      cache.paint(gfx, area, 1.0d, revision, false, painter);
+    } finally {
+      gfx.dispose();
+    }
+    return result;
+  }
+
+  @Test
+  public void testTilesAreReused() {
+    final RenderTileCache cache = new RenderTileCache(64, 100);
+    final CountingPainter painter = new CountingPainter();
+
+    paint(cache, new Rectangle(0, 0, 200, 150), 1L, painter);
+    assertEquals(12, painter.counter.get());
+    assertEquals(12, cache.size());
+
+    paint(cache, new Rectangle(30, 30, 100, 50), 1L, painter);
+    assertEquals(12, painter.counter.get());
+
+    paint(cache, new Rectangle(30, 30, 100, 50), 2L, painter);
+    assertEquals(18, painter.counter.get());
+    assertEquals(6, cache.size());
+  }
+
+  @Test
+  public void testInvalidateArea() {
+    final RenderTileCache cache = new RenderTileCache(64, 100);
+    final CountingPainter painter = new CountingPainter();
+
+    paint(cache, new Rectangle(0, 0, 200, 150), 1L, painter);
+    cache.invalidate(new Rectangle(70, 70, 10, 10));
+    assertEquals(11, cache.size());
+
+    paint(cache, new Rectangle(0, 0, 200, 150), 1L, painter);
+    assertEquals(13, painter.counter.get());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedTilesAreDropped() {
+    final RenderTileCache cache = new RenderTileCache(64, 4);
+    final CountingPainter painter = new CountingPainter();
+
+    paint(cache, new Rectangle(0, 0, 200, 150), 1L, painter);
+    assertEquals(4, cache.size());
+  }
+
+  @Test
+  public void testCompositedImageEqualsDirectPaint() {
+    final CountingPainter painter = new CountingPainter();
+
+    final BufferedImage direct = new BufferedImage(200, 150, BufferedImage.TYPE_INT_RGB);
+    final Graphics2D gfx = direct.createGraphics();
+    try {
+      gfx.setClip(0, 0, 200, 150);
+      painter.paintTile(gfx);
+    } finally {
+      gfx.dispose();
+    }
+
+    final BufferedImage cached = paint(new RenderTileCache(64, 100), new Rectangle(0, 0, 200, 150), 1L, painter);
+
+    for (int y = 0; y < 150; y++) {
+      for (int x = 0; x < 200; x++) {
+        assertEquals(direct.getRGB(x, y), cached.getRGB(x, y));
+      }
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import org.junit.Test;
+
+public class TextMetricsCacheTest {
+
+  private static MMGraphics makeGraphics(final boolean fractionalMetrics) {
+    final Graphics2D gfx = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    gfx.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, fractionalMetrics ? RenderingHints.VALUE_FRACTIONALMETRICS_ON : RenderingHints.VALUE_FRACTIONALMETRICS_OFF);
+    return new MMGraphics2DWrapper(gfx);
+  }
+
+  @Test
+  public void testScaledFont() {
+    final TextMetricsCache cache = new TextMetricsCache();
+    final Font base = new Font(Font.SERIF, Font.BOLD, 18);
+
+    final Font scaled = cache.getScaledFont(base, 1.5d);
+    assertEquals(base.deriveFont(AffineTransform.getScaleInstance(1.5d, 1.5d)), scaled);
+    assertSame(scaled, cache.getScaledFont(base, 1.5d));
+    assertNotSame(scaled, cache.getScaledFont(base, 2.0d));
+  }
+
+  @Test
+  public void testStringBounds() {
+    final TextMetricsCache cache = new TextMetricsCache();
+    final Font font = cache.getScaledFont(new Font(Font.SERIF, Font.PLAIN, 18), 1.3d);
+
+    final MMGraphics gfx = makeGraphics(false);
+    gfx.setFont(font);
+
+    final String text = "Some text line";
+    assertEquals(gfx.getStringBounds(text), cache.getStringBounds(gfx, font, text));
+    assertSame(cache.getStringBounds(gfx, font, text), cache.getStringBounds(gfx, font, text));
+    assertEquals(gfx.getFontMaxAscent(), cache.getFontMaxAscent(gfx, font), 0.0f);
+
+    final MMGraphics fractional = makeGraphics(true);
+    fractional.setFont(font);
+    assertEquals(fractional.getStringBounds(text), cache.getStringBounds(fractional, font, text));
+  }
+
+  @Test
+  public void testGraphicsWithoutFontRenderContextNotCached() {
+    final TextMetricsCache cache = new TextMetricsCache();
+    final Font font = new Font(Font.SERIF, Font.PLAIN, 18);
+
+    final MMGraphics wrapped = makeGraphics(false);
+    final MMGraphics gfx = (MMGraphics) Proxy.newProxyInstance(MMGraphics.class.getClassLoader(), new Class<?>[] {MMGraphics.class}, new InvocationHandler() {
+      @Override
+      public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        return method.invoke(wrapped, args);
+      }
+    });
+    gfx.setFont(font);
+
+    final String text = "Some text line";
+    assertEquals(wrapped.getStringBounds(text), cache.getStringBounds(gfx, font, text));
+    assertNotSame(cache.getStringBounds(gfx, font, text), cache.getStringBounds(gfx, font, text));
+  }
+}
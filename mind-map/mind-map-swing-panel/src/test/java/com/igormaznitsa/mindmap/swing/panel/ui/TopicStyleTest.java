@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.ui;
+
+import static com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute.ATTR_FILL_COLOR;
+import static com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute.ATTR_TEXT_COLOR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import java.awt.Color;
+import org.junit.Test;
+
+public class TopicStyleTest {
+
+  @Test
+  public void testStyleCachedTillAttributeChange() {
+    final MindMap map = new MindMap(true);
+    final Topic topic = new Topic(map, map.getRoot(), "topic");
+    topic.setAttribute(ATTR_FILL_COLOR.getText(), "#FF0000");
+
+    final TopicStyle style = TopicStyle.of(topic);
+    assertEquals(Color.RED, style.getFillColor());
+    assertSame(style, TopicStyle.of(topic));
+
+    topic.setAttribute(ATTR_FILL_COLOR.getText(), "#0000FF");
+    final TopicStyle changed = TopicStyle.of(topic);
+    assertNotSame(style, changed);
+    assertEquals(Color.BLUE, changed.getFillColor());
+
+    topic.setAttribute("align", "right");
+    assertEquals(TextAlign.RIGHT, TopicStyle.of(topic).getTextAlign());
+  }
+
+  @Test
+  public void testStyleResetByRemoveAttributeFromSubtree() {
+    final MindMap map = new MindMap(true);
+    final Topic parent = new Topic(map, map.getRoot(), "parent");
+    final Topic child = new Topic(map, parent, "child");
+    child.setAttribute(ATTR_TEXT_COLOR.getText(), "#00FF00");
+    assertEquals(Color.GREEN, TopicStyle.of(child).getTextColor());
+
+    map.getRoot().removeAttributeFromSubtree(ATTR_TEXT_COLOR.getText());
+    assertNull(TopicStyle.of(child).getTextColor());
+  }
+
+  @Test
+  public void testStyleOfCopiedTopicIndependentFromOriginal() {
+    final MindMap map = new MindMap(true);
+    final Topic topic = new Topic(map, map.getRoot(), "topic");
+    topic.setAttribute(ATTR_FILL_COLOR.getText(), "#FF0000");
+    final TopicStyle style = TopicStyle.of(topic);
+
+    final Topic copy = new Topic(map, topic, true);
+    assertSame(style, TopicStyle.of(copy));
+    copy.setAttribute(ATTR_FILL_COLOR.getText(), "#0000FF");
+    assertEquals(Color.BLUE, TopicStyle.of(copy).getFillColor());
+    assertSame(style, TopicStyle.of(topic));
+
+    final MindMap mapCopy = new MindMap(map);
+    final Topic topicOfMapCopy = mapCopy.getRoot().getFirst();
+    topicOfMapCopy.removeAttributeFromSubtree(ATTR_FILL_COLOR.getText());
+    assertNull(TopicStyle.of(topicOfMapCopy).getFillColor());
+    assertEquals(Color.RED, TopicStyle.of(topic).getFillColor());
+  }
+
+  @Test
+  public void testElementRefreshedAfterAttributeChange() {
+    final MindMap map = new MindMap(true);
+    final Topic topic = new Topic(map, map.getRoot(), "topic");
+    topic.setAttribute(ATTR_FILL_COLOR.getText(), "#FF0000");
+
+    final AbstractElement element = new ElementLevelFirst(topic);
+    assertEquals(Color.RED, element.fillColor);
+
+    topic.setAttribute(ATTR_FILL_COLOR.getText(), "#0000FF");
+    element.refreshFromModel();
+    assertEquals(Color.BLUE, element.fillColor);
+  }
+}
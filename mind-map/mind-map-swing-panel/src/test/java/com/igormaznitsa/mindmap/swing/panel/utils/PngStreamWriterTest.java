@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.swing.panel.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.imageio.ImageIO;
+import org.junit.Test;
+
+public class PngStreamWriterTest {
+
+  private static BufferedImage makeImage(final int type) {
+    final BufferedImage result = new BufferedImage(173, 97, type);
+    final Graphics2D gfx = result.createGraphics();
+    try {
+      gfx.setColor(new Color(0x20, 0x40, 0x80, 0x90));
+      gfx.fillRect(5, 5, 100, 50);
+      gfx.setColor(Color.RED);
+      gfx.drawLine(0, 0, 172, 96);
+      gfx.setColor(Color.GREEN);
+      gfx.fillOval(60, 30, 90, 60);
+    } finally {
+      gfx.dispose();
+    }
+    return result;
+  }
+
+  private static byte[] writePng(final BufferedImage image, final int bandHeight, final boolean alpha, final ExecutorService executor, final int threads) throws IOException {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    final PngStreamWriter writer = new PngStreamWriter(buffer, image.getWidth(), image.getHeight(), alpha, executor, threads);
+    for (int y = 0; y < image.getHeight(); y += bandHeight) {
+      final int rows = Math.min(bandHeight, image.getHeight() - y);
+      writer.writeRows(image.getSubimage(0, y, image.getWidth(), rows), rows);
+    }
+    writer.close();
+    return buffer.toByteArray();
+  }
+
+  private static BufferedImage writeByBands(final BufferedImage image, final int bandHeight, final boolean alpha) throws IOException {
+    return ImageIO.read(new ByteArrayInputStream(writePng(image, bandHeight, alpha, null, 1)));
+  }
+
+  private static byte[] writeInParallel(final BufferedImage image, final int threads) throws IOException {
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      return writePng(image, 17, true, executor, threads);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void assertSamePixels(final BufferedImage expected, final BufferedImage decoded) {
+    assertEquals(expected.getWidth(), decoded.getWidth());
+    assertEquals(expected.getHeight(), decoded.getHeight());
+    for (int y = 0; y < expected.getHeight(); y++) {
+      for (int x = 0; x < expected.getWidth(); x++) {
+        assertEquals("Pixel " + x + ',' + y, expected.getRGB(x, y), decoded.getRGB(x, y));
+      }
+    }
+  }
+
+  @Test
+  public void testWriteOpaqueImageByBands() throws Exception {
+    final BufferedImage image = makeImage(BufferedImage.TYPE_INT_RGB);
+    assertSamePixels(image, writeByBands(image, 10, false));
+  }
+
+  @Test
+  public void testWriteTransparentImageByBands() throws Exception {
+    final BufferedImage image = makeImage(BufferedImage.TYPE_INT_ARGB);
+    assertSamePixels(image, writeByBands(image, 33, true));
+  }
+
+  @Test
+  public void testWriteInParallel_SameResultForAnyThreadNumber() throws Exception {
+    final BufferedImage image = new BufferedImage(1500, 400, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D gfx = image.createGraphics();
+    try {
+      for (int i = 0; i < 400; i += 7) {
+        gfx.setColor(new Color(i * 0x1F3A7B | 0x40000000, true));
+        gfx.drawLine(0, i, 1499, 399 - i);
+      }
+    } finally {
+      gfx.dispose();
+    }
+
+    final byte[] single = writeInParallel(image, 1);
+    assertSamePixels(image, ImageIO.read(new ByteArrayInputStream(single)));
+    assertArrayEquals(single, writeInParallel(image, 3));
+    assertArrayEquals(single, writeInParallel(image, 8));
+  }
+
+  @Test(expected = IOException.class)
+  public void testCloseBeforeAllRowsWritten() throws Exception {
+    final BufferedImage image = makeImage(BufferedImage.TYPE_INT_RGB);
+    final PngStreamWriter writer = new PngStreamWriter(new ByteArrayOutputStream(), image.getWidth(), image.getHeight(), false);
+    writer.writeRows(image, 10);
+    writer.close();
+  }
+}
@@ -21,6 +21,8 @@ package com.igormaznitsa.sciareto;
 import com.igormaznitsa.commons.version.Version;
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.common.utils.Assertions;
+import com.igormaznitsa.mindmap.generator.GeneratorOptions;
+import com.igormaznitsa.mindmap.generator.MindMapGenerator;
 import com.igormaznitsa.mindmap.model.MindMap;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.model.logger.Logger;
@@ -157,6 +159,49 @@ public class Main {
 
   }
 
+  private static final class LocalSyntheticMapImporter extends AbstractImporter {
+
+    @Nullable
+    @Override
+    public MindMap doImport(@Nonnull PluginContext context) throws Exception {
+      final File optionsFile = context.getDialogProvider().msgOpenFileDialog(null, "", "", null, true, new FileFilter[0], ""); //NOI18N
+      final Properties properties = new Properties();
+      try (final StringReader reader = new StringReader(FileUtils.readFileToString(optionsFile, "UTF-8"))) { //NOI18N
+        properties.load(reader);
+      }
+      return new MindMapGenerator(GeneratorOptions.fromProperties(properties)).generate();
+    }
+
+    @Nonnull
+    @Override
+    public String getName(@Nonnull PluginContext context) {
+      return "SyntheticMapImporter"; //NOI18N
+    }
+
+    @Nonnull
+    @Override
+    public String getReference(@Nonnull PluginContext context) {
+      return "SyntheticMapImporter"; //NOI18N
+    }
+
+    @Override
+    public String getMnemonic() {
+      return "synthetic"; //NOI18N
+    }
+
+    @Nonnull
+    @Override
+    public Icon getIcon(@Nonnull PluginContext context) {
+      return new ImageIcon(new BufferedImage(16, 16, BufferedImage.TYPE_BYTE_INDEXED));
+    }
+
+    @Override
+    public int getOrder() {
+      return 0;
+    }
+
+  }
+
   private static final class LocalMMDExporter extends AbstractExporter {
 
     @Override
@@ -350,6 +395,7 @@ public class Main {
 
         MindMapPluginRegistry.getInstance().registerPlugin(new LocalMMDExporter());
         MindMapPluginRegistry.getInstance().registerPlugin(new LocalMMDImporter());
+        MindMapPluginRegistry.getInstance().registerPlugin(new LocalSyntheticMapImporter());
 
         printCliHelp(System.out);
         System.exit(0);
@@ -456,6 +502,7 @@ public class Main {
   private static boolean convertData(@Nonnull @MustNotContainNull final String[] args) {
     MindMapPluginRegistry.getInstance().registerPlugin(new LocalMMDExporter());
     MindMapPluginRegistry.getInstance().registerPlugin(new LocalMMDImporter());
+    MindMapPluginRegistry.getInstance().registerPlugin(new LocalSyntheticMapImporter());
 
     final String[] params = new String[5];
 
@@ -854,7 +901,7 @@ public class Main {
     out.println(String.format(" --convert --in IN_FILE [--from (%s)] --out OUT_FILE [--to (%s)] [--settings FILE] [--option NAME=VALUE...]", allowedFormatsFrom, allowedFormatsTo)); //NOI18N
     out.println();
     out.println("   --convert - command to make conversion, must be the first argument"); //NOI18N
-    out.println("   --in FILE - file to be converted"); //NOI18N
+    out.println("   --in FILE - file to be converted, for 'synthetic' it is a property file with generator options"); //NOI18N
     out.println("   --from FORMAT - type of source format, be default 'mmd' (allowed " + allowedFormatsFrom + ')'); //NOI18N
     out.println("   --out FILE - destination file, if file exists it will be overrided"); //NOI18N
     out.println("   --to FORMAT - type of destination format, bye default 'mmd' (allowed " + allowedFormatsTo + ')'); //NOI18N